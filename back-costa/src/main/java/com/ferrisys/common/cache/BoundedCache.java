@@ -0,0 +1,141 @@
+package com.ferrisys.common.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Size- and time-bounded in-memory cache shared by the per-node caches. When full it drops the
+ * expired entries and then the tenth closest to expiry, which for a fixed TTL are the oldest.
+ * Every invalidation bumps a generation; a value loaded before one is not stored after it.
+ * Metrics: {@code <name>.requests} (hit/miss), {@code <name>.evictions} and {@code <name>.size}.
+ */
+public class BoundedCache<K, V> {
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public BoundedCache(String name, int maxSize, long ttlMillis, MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.hits = Counter.builder(name + ".requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder(name + ".requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder(name + ".evictions").register(meterRegistry);
+        Gauge.builder(name + ".size", entries, Map::size).register(meterRegistry);
+    }
+
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt() <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value();
+    }
+
+    /** Read before loading a value and hand it back to {@link #put}. */
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(K key, V value, long loadedAt) {
+        put(key, value, loadedAt, Long.MAX_VALUE);
+    }
+
+    /**
+     * Stores the value until the TTL or {@code notAfterMillis}, whichever comes first, unless an
+     * invalidation happened since {@code loadedAt} was read.
+     */
+    public void put(K key, V value, long loadedAt, long notAfterMillis) {
+        if (maxSize <= 0 || ttlMillis <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = Math.min(now + ttlMillis, notAfterMillis);
+        if (expiresAt <= now || generation.get() != loadedAt) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            makeRoom(now);
+        }
+        Entry<V> entry = new Entry<>(value, expiresAt);
+        entries.put(key, entry);
+        // an invalidation that ran between the check and the put must still win
+        if (generation.get() != loadedAt) {
+            entries.remove(key, entry);
+        }
+    }
+
+    public void invalidate(K key) {
+        generation.incrementAndGet();
+        if (entries.remove(key) != null) {
+            evictions.increment();
+        }
+    }
+
+    public void invalidateIf(Predicate<V> predicate) {
+        generation.incrementAndGet();
+        entries.values().removeIf(entry -> {
+            boolean remove = predicate.test(entry.value());
+            if (remove) {
+                evictions.increment();
+            }
+            return remove;
+        });
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        int size = entries.size();
+        entries.clear();
+        evictions.increment(size);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private synchronized void makeRoom(long now) {
+        if (entries.size() < maxSize) {
+            return;
+        }
+        entries.values().removeIf(entry -> {
+            boolean expired = entry.expiresAt() <= now;
+            if (expired) {
+                evictions.increment();
+            }
+            return expired;
+        });
+        int excess = entries.size() - (maxSize - Math.max(1, maxSize / 10));
+        if (excess <= 0) {
+            return;
+        }
+        entries.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue(Comparator.comparingLong(Entry::expiresAt)))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(key -> {
+                    entries.remove(key);
+                    evictions.increment();
+                });
+    }
+
+    private record Entry<V>(V value, long expiresAt) {}
+}
@@ -0,0 +1,6 @@
+package com.ferrisys.common.dto;
+
+import java.util.UUID;
+
+/** A category as placed in the tree; {@code depth} is 0 for roots. */
+public record CategoryNodeDTO(UUID id, String name, UUID parentCategoryId, Integer status, int depth) {}
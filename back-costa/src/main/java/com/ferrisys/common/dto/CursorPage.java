@@ -0,0 +1,18 @@
+package com.ferrisys.common.dto;
+
+import java.util.List;
+
+/**
+ * A keyset page. {@code nextCursor} is {@code null} on the last page; {@code totalElements} is
+ * {@code null} when the caller opted out of counting, and may be an estimate on large tables.
+ */
+public record CursorPage<T>(
+        List<T> content,
+        String nextCursor,
+        Long totalElements,
+        int size
+) {
+
+    /** Largest page size accepted by the cursor endpoints. */
+    public static final int MAX_SIZE = 200;
+}
@@ -0,0 +1,22 @@
+package com.ferrisys.common.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One kardex line: a stock movement and the balance right after it. The opening line of a range
+ * has no {@code movementId}, type {@code OPENING} and a zero quantity.
+ */
+public record KardexEntryDTO(
+        UUID movementId,
+        LocalDateTime createdAt,
+        String movementType,
+        UUID sourceId,
+        int quantity,
+        long balance,
+        String note
+) {
+    public static KardexEntryDTO opening(LocalDateTime at, long balance) {
+        return new KardexEntryDTO(null, at, "OPENING", null, 0, balance, null);
+    }
+}
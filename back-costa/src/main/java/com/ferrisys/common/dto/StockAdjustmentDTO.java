@@ -0,0 +1,6 @@
+package com.ferrisys.common.dto;
+
+import java.util.UUID;
+
+/** Manual stock correction; {@code quantity} is signed and {@code warehouseId} defaults to the main warehouse. */
+public record StockAdjustmentDTO(UUID productId, UUID warehouseId, Integer quantity, String note) {}
@@ -0,0 +1,5 @@
+package com.ferrisys.common.dto;
+
+import java.util.UUID;
+
+public record StockBalanceDTO(UUID productId, UUID warehouseId, long quantity) {}
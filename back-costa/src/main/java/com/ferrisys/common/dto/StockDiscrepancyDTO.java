@@ -0,0 +1,6 @@
+package com.ferrisys.common.dto;
+
+import java.util.UUID;
+
+/** A product/warehouse whose balance rows do not add up to its ledger. */
+public record StockDiscrepancyDTO(UUID productId, UUID warehouseId, long ledgerQuantity, long balanceQuantity) {}
@@ -0,0 +1,19 @@
+package com.ferrisys.common.dto.auth;
+
+import com.ferrisys.common.dto.ModuleDTO;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Everything authentication needs about an active user: credentials, its role and the modules
+ * actively assigned to that role. {@code roleId} is {@code null} when the user has no role.
+ */
+public record AuthSnapshot(
+        UUID userId,
+        String username,
+        String email,
+        String password,
+        UUID roleId,
+        String roleName,
+        List<ModuleDTO> modules) {
+}
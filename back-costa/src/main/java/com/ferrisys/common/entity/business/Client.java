@@ -1,9 +1,9 @@
 package com.ferrisys.common.entity.business;
 
 import com.ferrisys.common.audit.Auditable;
+import com.ferrisys.common.id.UuidV7Id;
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.GenericGenerator;
 import java.util.UUID;
 
 
@@ -19,8 +19,7 @@ import java.io.Serializable;
 public class Client extends Auditable implements Serializable {
 
     @Id
-    @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @UuidV7Id
     @Column(columnDefinition = "uuid", updatable = false)
     private UUID id;
 
@@ -1,9 +1,9 @@
 package com.ferrisys.common.entity.business;
 
 import com.ferrisys.common.audit.Auditable;
+import com.ferrisys.common.id.UuidV7Id;
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.GenericGenerator;
 import java.util.UUID;
 import java.util.List;
 import java.util.ArrayList;
@@ -22,12 +22,11 @@ import java.math.BigDecimal;
 public class Purchase extends Auditable implements Serializable {
 
     @Id
-    @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @UuidV7Id
     @Column(columnDefinition = "uuid", updatable = false)
     private UUID id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "provider_id", nullable = false)
     private Provider provider;
 
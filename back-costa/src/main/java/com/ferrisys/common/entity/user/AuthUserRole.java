@@ -1,12 +1,12 @@
 package com.ferrisys.common.entity.user;
 
+import com.ferrisys.common.id.UuidV7Id;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.hibernate.annotations.GenericGenerator;
 import java.util.UUID;
 
 import java.io.Serializable;
@@ -21,16 +21,15 @@ import java.io.Serializable;
 public class AuthUserRole implements Serializable {
 
 	@Id
-        @GeneratedValue(generator = "UUID")
-        @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+        @UuidV7Id
         @Column(columnDefinition = "uuid", updatable = false)
         private UUID id;
 
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "auth_user_id", nullable = false)
 	private User user;
 
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "auth_role_id", nullable = false)
 	private Role role;
 
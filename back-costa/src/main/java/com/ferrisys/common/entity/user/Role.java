@@ -1,11 +1,10 @@
 package com.ferrisys.common.entity.user;
 
+import com.ferrisys.common.id.UuidV7Id;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
-import org.hibernate.annotations.GenericGenerator;
 import java.util.UUID;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -25,8 +24,7 @@ import java.io.Serializable;
 public class Role implements Serializable {
 
 	@Id
-        @GeneratedValue(generator = "UUID")
-        @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+        @UuidV7Id
         @Column(columnDefinition = "uuid", updatable = false)
         private UUID id;
 
@@ -0,0 +1,7 @@
+package com.ferrisys.common.enums;
+
+public enum StockMovementType {
+    PURCHASE,
+    SALE,
+    ADJUSTMENT
+}
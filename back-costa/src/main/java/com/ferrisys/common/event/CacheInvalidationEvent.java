@@ -0,0 +1,52 @@
+package com.ferrisys.common.event;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published after a write that makes in-process caches stale. An empty {@code ids} set means
+ * every entry of the given target is affected. {@code remote} marks events relayed from another
+ * node, which must not be broadcast again.
+ */
+public record CacheInvalidationEvent(Target target, Set<UUID> ids, boolean remote) {
+
+    public enum Target {
+        USER,
+        ROLE,
+        MODULE,
+        LICENSE,
+        PRODUCT,
+        CLIENT,
+        PROVIDER,
+        CATEGORY
+    }
+
+    public CacheInvalidationEvent {
+        ids = ids == null ? Set.of() : Set.copyOf(ids);
+    }
+
+    public CacheInvalidationEvent(Target target, Set<UUID> ids) {
+        this(target, ids, false);
+    }
+
+    public static CacheInvalidationEvent of(Target target, UUID id) {
+        return new CacheInvalidationEvent(target, id == null ? Set.of() : Set.of(id));
+    }
+
+    public static CacheInvalidationEvent of(Target target, Collection<UUID> ids) {
+        return new CacheInvalidationEvent(target, ids == null ? Set.of() : Set.copyOf(ids));
+    }
+
+    public static CacheInvalidationEvent all(Target target) {
+        return new CacheInvalidationEvent(target, Set.of());
+    }
+
+    public boolean isFullFlush() {
+        return ids.isEmpty();
+    }
+
+    public CacheInvalidationEvent asRemote() {
+        return new CacheInvalidationEvent(target, ids, true);
+    }
+}
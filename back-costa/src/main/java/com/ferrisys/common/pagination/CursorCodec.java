@@ -0,0 +1,41 @@
+package com.ferrisys.common.pagination;
+
+import com.ferrisys.common.exception.impl.BadRequestException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Opaque keyset cursors: the sort values of the last row, joined and base64url encoded. The first
+ * part is a tag naming the sort the cursor was issued for, so it cannot be replayed on another.
+ */
+public final class CursorCodec {
+
+    private static final char SEPARATOR = '\u001F';
+
+    private CursorCodec() {
+    }
+
+    public static String encode(String tag, String... values) {
+        StringBuilder raw = new StringBuilder(tag);
+        for (String value : values) {
+            raw.append(SEPARATOR).append(value);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** The values after the tag; fails with 400 when the cursor is malformed or for another sort. */
+    public static List<String> decode(String cursor, String expectedTag, int expectedValues) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        List<String> parts = List.of(raw.split(String.valueOf(SEPARATOR), -1));
+        if (parts.size() != expectedValues + 1 || !parts.get(0).equals(expectedTag)) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        return parts.subList(1, parts.size());
+    }
+}
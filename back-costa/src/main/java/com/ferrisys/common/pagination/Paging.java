@@ -0,0 +1,18 @@
+package com.ferrisys.common.pagination;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+/** Page requests shared by the offset-paginated list endpoints. */
+public final class Paging {
+
+    /** Same order as the keyset mode, so both are served by the {@code (created_at, id)} indexes. */
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+
+    private Paging() {
+    }
+
+    public static PageRequest newestFirst(int page, int size) {
+        return PageRequest.of(page, size, NEWEST_FIRST);
+    }
+}
@@ -0,0 +1,205 @@
+package com.ferrisys.config.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ferrisys.common.event.CacheInvalidationEvent;
+import com.ferrisys.common.event.CacheInvalidationEvent.Target;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Relays {@link CacheInvalidationEvent}s between instances through Postgres {@code NOTIFY}.
+ * Local events are sent after their transaction commits; notifications from other nodes are
+ * republished locally as remote events. The listener keeps its own connection outside the pool
+ * and flushes every cache after a reconnect, since notifications sent meanwhile are lost. Waiting
+ * for notifications never touches the socket, so an idle wait is followed by a {@code SELECT 1}
+ * that fails fast, through the socket timeout, when the connection died without a reset.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "cache.invalidation-bus", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class PostgresInvalidationBus implements SmartLifecycle {
+
+    // NOTIFY payloads are limited to 8000 bytes
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final int POLL_TIMEOUT_MILLIS = 5000;
+    private static final int SOCKET_TIMEOUT_SECONDS = 30;
+    private static final long INITIAL_BACKOFF_MILLIS = 1000;
+    private static final long MAX_BACKOFF_MILLIS = 30000;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate notifyTransaction;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final DataSourceProperties dataSourceProperties;
+    private final String channel;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public PostgresInvalidationBus(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper,
+            DataSourceProperties dataSourceProperties,
+            @Value("${cache.invalidation-bus.channel:ferrisys_cache_invalidation}") String channel) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid invalidation channel name: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.notifyTransaction = new TransactionTemplate(transactionManager);
+        this.notifyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.dataSourceProperties = dataSourceProperties;
+        this.channel = channel;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLocalEvent(CacheInvalidationEvent event) {
+        if (event.remote()) {
+            return;
+        }
+        try {
+            String payload = encode(event);
+            if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+                payload = encode(CacheInvalidationEvent.all(event.target()));
+            }
+            String message = payload;
+            // runs after commit, so NOTIFY needs a transaction of its own to be delivered
+            notifyTransaction.executeWithoutResult(status -> jdbcTemplate.query(
+                    "SELECT pg_notify(?, ?)", (ResultSetExtractor<Void>) rs -> null, channel, message));
+        } catch (RuntimeException | JsonProcessingException e) {
+            log.warn("Could not broadcast {}: {}", event, e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        long backoff = INITIAL_BACKOFF_MILLIS;
+        boolean flushOnConnect = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(), connectionProperties());
+                 Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + channel);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                log.info("Listening for cache invalidations on channel {}", channel);
+                if (flushOnConnect) {
+                    flushAll();
+                }
+                backoff = INITIAL_BACKOFF_MILLIS;
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications == null || notifications.length == 0) {
+                        statement.execute("SELECT 1");
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        dispatch(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                flushOnConnect = true;
+                log.warn("Cache invalidation listener disconnected ({}), retrying in {} ms", e.getMessage(), backoff);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private Properties connectionProperties() {
+        Properties properties = new Properties();
+        if (dataSourceProperties.determineUsername() != null) {
+            properties.setProperty("user", dataSourceProperties.determineUsername());
+        }
+        if (dataSourceProperties.determinePassword() != null) {
+            properties.setProperty("password", dataSourceProperties.determinePassword());
+        }
+        properties.setProperty("ApplicationName", "cache-invalidation-listener");
+        properties.setProperty("tcpKeepAlive", "true");
+        properties.setProperty("socketTimeout", String.valueOf(SOCKET_TIMEOUT_SECONDS));
+        return properties;
+    }
+
+    private void dispatch(String payload) {
+        try {
+            Message message = objectMapper.readValue(payload, Message.class);
+            if (nodeId.equals(message.node())) {
+                return;
+            }
+            CacheInvalidationEvent event = CacheInvalidationEvent.of(message.target(), message.ids()).asRemote();
+            eventPublisher.publishEvent(event);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.warn("Ignoring malformed cache invalidation payload: {}", payload);
+        } catch (RuntimeException e) {
+            log.error("Failed to apply remote cache invalidation {}", payload, e);
+        }
+    }
+
+    private void flushAll() {
+        for (Target target : Target.values()) {
+            eventPublisher.publishEvent(CacheInvalidationEvent.all(target).asRemote());
+        }
+    }
+
+    private String encode(CacheInvalidationEvent event) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(new Message(nodeId, event.target(), List.copyOf(event.ids())));
+    }
+
+    private record Message(String node, Target target, List<UUID> ids) {
+        Message {
+            ids = ids == null ? List.of() : ids;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.ferrisys.config.security;
+
+import java.util.Collection;
+import java.util.UUID;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * Principal placed in the security context. Keeps the user id so that tenant-scoped checks do
+ * not have to look the user up again.
+ */
+@Getter
+public class AuthenticatedUser extends User {
+
+    private final UUID userId;
+
+    public AuthenticatedUser(UUID userId, String username, String password,
+                             Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, authorities);
+        this.userId = userId;
+    }
+}
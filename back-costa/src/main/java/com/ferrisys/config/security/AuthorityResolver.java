@@ -0,0 +1,72 @@
+package com.ferrisys.config.security;
+
+import com.ferrisys.common.dto.auth.AuthSnapshot;
+import com.ferrisys.common.entity.user.Role;
+import com.ferrisys.repository.RoleModuleRepository;
+import com.ferrisys.service.FeatureFlagService;
+import java.text.Normalizer;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the ROLE_* and MODULE_* authorities of a user from its role and the licensed modules.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthorityResolver {
+
+    public static final String ROLE_PREFIX = "ROLE_";
+    public static final String MODULE_PREFIX = "MODULE_";
+
+    private final RoleModuleRepository roleModuleRepository;
+    private final FeatureFlagService featureFlagService;
+
+    public Set<GrantedAuthority> resolve(UUID userId, Role role) {
+        Set<GrantedAuthority> authorities = new HashSet<>();
+        if (role != null) {
+            addRoleAuthority(authorities, role.getName());
+        }
+
+        if (role != null && role.getId() != null) {
+            roleModuleRepository.findModulesByRoleId(role.getId(), Pageable.unpaged())
+                    .forEach(module -> addModuleAuthority(authorities, module != null ? module.getName() : null, userId));
+        }
+        return authorities;
+    }
+
+    /** Same as {@link #resolve(UUID, Role)} but from an already loaded snapshot, without queries. */
+    public Set<GrantedAuthority> resolve(AuthSnapshot snapshot) {
+        Set<GrantedAuthority> authorities = new HashSet<>();
+        addRoleAuthority(authorities, snapshot.roleName());
+        snapshot.modules().forEach(module -> addModuleAuthority(authorities, module.name(), snapshot.userId()));
+        return authorities;
+    }
+
+    private void addRoleAuthority(Set<GrantedAuthority> authorities, String roleName) {
+        if (roleName != null && !roleName.isBlank()) {
+            authorities.add(new SimpleGrantedAuthority(ROLE_PREFIX + normalize(roleName)));
+        }
+    }
+
+    private void addModuleAuthority(Set<GrantedAuthority> authorities, String moduleName, UUID tenantId) {
+        if (moduleName != null && !moduleName.isBlank() && featureFlagService.enabled(tenantId, moduleName)) {
+            authorities.add(new SimpleGrantedAuthority(MODULE_PREFIX + normalize(moduleName)));
+        }
+    }
+
+    public static String normalize(String value) {
+        String normalized = Normalizer.normalize(value, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .trim()
+                .replaceAll("[^A-Za-z0-9]+", "_")
+                .replaceAll("^_+|_+$", "");
+        return normalized.toUpperCase(Locale.ROOT);
+    }
+}
@@ -2,58 +2,143 @@ package com.ferrisys.config.security;
 
 import com.ferrisys.common.entity.user.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 
 @Component
 public class JWTUtil {
 
+    public static final long TOKEN_VALIDITY_MILLIS = 1000L * 60 * 60 * 10; // 10 hours
+
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_ROLES = "rol";
+    private static final String CLAIM_MODULES = "mod";
+    private static final String CLAIM_SECURITY_VERSION = "sv";
+
     @Value("${jwt.secret}")
     private String secret;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${jwt.self-contained-authorities:false}")
+    private boolean selfContainedAuthorities;
+
+    private Key signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
+    public boolean isSelfContainedAuthorities() {
+        return selfContainedAuthorities;
     }
 
     public String generateToken(User userDetails) {
-        return Jwts.builder()
-                .setSubject(userDetails.getUsername())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10)) // 10 hours
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+        return generateToken(userDetails.getUsername());
+    }
+
+    public String generateToken(String username) {
+        return baseToken(username).compact();
     }
 
-    public boolean validateToken(String token, String expectedUsername) {
-        return expectedUsername.equals(extractUsername(token)) && !isTokenExpired(token);
+    /**
+     * Issues a token that carries the role and module authorities plus the security version they
+     * were computed at, so the filter can authorize without touching the database.
+     */
+    public String generateToken(User userDetails, Collection<? extends GrantedAuthority> authorities,
+                                long securityVersion) {
+        return generateToken(userDetails.getId(), userDetails.getUsername(), authorities, securityVersion);
     }
 
-    public String extractUsername(String token) {
-        return getClaims(token).getSubject();
+    public String generateToken(UUID userId, String username, Collection<? extends GrantedAuthority> authorities,
+                                long securityVersion) {
+        List<String> roles = new ArrayList<>();
+        List<String> modules = new ArrayList<>();
+        for (GrantedAuthority authority : authorities) {
+            String name = authority.getAuthority();
+            if (name.startsWith(AuthorityResolver.ROLE_PREFIX)) {
+                roles.add(name.substring(AuthorityResolver.ROLE_PREFIX.length()));
+            } else if (name.startsWith(AuthorityResolver.MODULE_PREFIX)) {
+                modules.add(name.substring(AuthorityResolver.MODULE_PREFIX.length()));
+            }
+        }
+        return baseToken(username)
+                .claim(CLAIM_USER_ID, userId.toString())
+                .claim(CLAIM_ROLES, roles)
+                .claim(CLAIM_MODULES, modules)
+                .claim(CLAIM_SECURITY_VERSION, securityVersion)
+                .compact();
     }
 
-    public boolean isTokenExpired(String token) {
-        return getClaims(token).getExpiration().before(new Date());
+    /**
+     * Parses and verifies the token a single time. Expired or tampered tokens raise the usual
+     * {@link io.jsonwebtoken.JwtException} subtypes.
+     */
+    public VerifiedToken verify(String token) {
+        Claims claims = getClaims(token);
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null,
+                readUserId(claims),
+                readAuthorities(claims),
+                claims.get(CLAIM_SECURITY_VERSION, Long.class));
     }
 
     public Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public String getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         return authentication.getName();
     }
+
+    private JwtBuilder baseToken(String username) {
+        return Jwts.builder()
+                .setSubject(username)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + TOKEN_VALIDITY_MILLIS))
+                .signWith(signingKey, SignatureAlgorithm.HS256);
+    }
+
+    private UUID readUserId(Claims claims) {
+        String userId = claims.get(CLAIM_USER_ID, String.class);
+        return userId != null ? UUID.fromString(userId) : null;
+    }
+
+    private List<String> readAuthorities(Claims claims) {
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        List<?> modules = claims.get(CLAIM_MODULES, List.class);
+        if (roles == null && modules == null) {
+            return null;
+        }
+        List<String> authorities = new ArrayList<>();
+        if (roles != null) {
+            roles.forEach(role -> authorities.add(AuthorityResolver.ROLE_PREFIX + role));
+        }
+        if (modules != null) {
+            modules.forEach(module -> authorities.add(AuthorityResolver.MODULE_PREFIX + module));
+        }
+        return authorities;
+    }
 }
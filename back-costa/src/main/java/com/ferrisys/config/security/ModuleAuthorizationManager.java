@@ -0,0 +1,83 @@
+package com.ferrisys.config.security;
+
+import com.ferrisys.service.FeatureFlagService;
+import com.ferrisys.service.license.ModuleFlag;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evaluates {@link RequiresModule}. The annotation of each method is compiled once into the
+ * module's snapshot index and the authority names to look for, so a request only does a bit test
+ * against the license snapshot and a scan of the principal's authorities.
+ */
+@Component
+@RequiredArgsConstructor
+public class ModuleAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    private static final String ADMIN_AUTHORITY = AuthorityResolver.ROLE_PREFIX + "ADMIN";
+    private static final Rule UNRESTRICTED = new Rule(null, null);
+
+    private final FeatureFlagService featureFlagService;
+    private final Map<Method, Rule> rules = new ConcurrentHashMap<>();
+
+    @Override
+    public AuthorizationDecision authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        Rule rule = rules.computeIfAbsent(invocation.getMethod(), method -> compile(method, invocation.getThis()));
+        if (rule == UNRESTRICTED) {
+            return new AuthorizationDecision(true);
+        }
+        Authentication current = authentication.get();
+        if (current == null || !(current.getPrincipal() instanceof AuthenticatedUser principal)) {
+            return new AuthorizationDecision(false);
+        }
+        boolean granted = featureFlagService.enabled(principal.getUserId(), rule.flag())
+                && (rule.authority() == null || hasAuthority(current, rule.authority()));
+        return new AuthorizationDecision(granted);
+    }
+
+    /** @deprecated superseded by {@link #authorize}; kept because the interface still declares it. */
+    @Override
+    @Deprecated
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return authorize(authentication, invocation);
+    }
+
+    private Rule compile(Method method, Object target) {
+        Class<?> targetClass = target != null ? AopUtils.getTargetClass(target) : method.getDeclaringClass();
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+        RequiresModule annotation = AnnotatedElementUtils.findMergedAnnotation(specificMethod, RequiresModule.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, RequiresModule.class);
+        }
+        if (annotation == null) {
+            return UNRESTRICTED;
+        }
+        String authority = annotation.requireAuthority()
+                ? AuthorityResolver.MODULE_PREFIX + AuthorityResolver.normalize(annotation.value())
+                : null;
+        return new Rule(featureFlagService.resolve(annotation.value()), authority);
+    }
+
+    private static boolean hasAuthority(Authentication authentication, String authority) {
+        for (GrantedAuthority granted : authentication.getAuthorities()) {
+            String name = granted.getAuthority();
+            if (authority.equals(name) || ADMIN_AUTHORITY.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Rule(ModuleFlag flag, String authority) {}
+}
@@ -0,0 +1,69 @@
+package com.ferrisys.config.security;
+
+import com.ferrisys.common.cache.BoundedCache;
+import com.ferrisys.common.event.CacheInvalidationEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Bounded token -> principal cache used by the JWT filter. An entry never outlives the token it
+ * was built from and is dropped as soon as the user, role, module or license data behind it
+ * changes.
+ */
+@Slf4j
+@Component
+public class PrincipalCache {
+
+    private final BoundedCache<String, AuthenticatedUser> cache;
+
+    public PrincipalCache(
+            @Value("${security.principal-cache.max-size:10000}") int maxSize,
+            @Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds,
+            MeterRegistry meterRegistry) {
+        this.cache = new BoundedCache<>("auth.principal.cache", maxSize, ttlSeconds * 1000, meterRegistry);
+    }
+
+    public AuthenticatedUser get(String token) {
+        return cache.get(token);
+    }
+
+    /** Read before loading a principal and hand it back to {@link #put}. */
+    public long generation() {
+        return cache.generation();
+    }
+
+    /**
+     * Stores the principal unless an invalidation happened since {@code loadedAt} was read, in
+     * which case it may already be stale.
+     */
+    public void put(String token, AuthenticatedUser principal, Instant tokenExpiration, long loadedAt) {
+        cache.put(token, principal, loadedAt, tokenExpiration != null ? tokenExpiration.toEpochMilli() : Long.MAX_VALUE);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvalidation(CacheInvalidationEvent event) {
+        switch (event.target()) {
+            case USER, LICENSE -> {
+                // module_license.tenant_id holds the user id, so both map onto the principal's user id
+                if (event.isFullFlush()) {
+                    cache.invalidateAll();
+                } else {
+                    cache.invalidateIf(principal -> event.ids().contains(principal.getUserId()));
+                }
+            }
+            case ROLE, MODULE -> cache.invalidateAll();
+            default -> {
+                // catalog data does not affect principals
+            }
+        }
+        log.debug("Principal cache invalidated by {}", event);
+    }
+}
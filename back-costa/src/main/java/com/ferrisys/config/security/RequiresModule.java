@@ -0,0 +1,23 @@
+package com.ferrisys.config.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Restricts a controller or handler method to users whose tenant may use the given module, as
+ * decided by {@code FeatureFlagService}. A method-level annotation overrides the class-level one.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequiresModule {
+
+    /** Module slug, e.g. {@code inventory} or {@code core-de-autenticacion}. */
+    String value();
+
+    /** Also require the {@code MODULE_<SLUG>} authority; {@code ROLE_ADMIN} always passes. */
+    boolean requireAuthority() default false;
+}
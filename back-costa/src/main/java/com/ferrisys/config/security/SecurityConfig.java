@@ -1,7 +1,14 @@
 package com.ferrisys.config.security;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ferrisys.config.security.filter.JwtFilterRequest;
+import com.ferrisys.config.security.ratelimit.RateLimitFilter;
+import com.ferrisys.config.security.ratelimit.RateLimitProperties;
+import com.ferrisys.config.security.ratelimit.RateLimiter;
+import com.ferrisys.config.security.ratelimit.TenantRateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import java.util.List;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -21,6 +28,7 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 
 @Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class SecurityConfig {
 
     private static final List<String> ALLOWED_ORIGINS = List.of(
@@ -42,17 +50,23 @@ public class SecurityConfig {
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http, JwtFilterRequest jwtFilterRequest,
-                                           CorsConfigurationSource corsConfigurationSource) throws Exception {
+                                           CorsConfigurationSource corsConfigurationSource,
+                                           RateLimiter rateLimiter, ObjectMapper objectMapper) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        // completes a streamed response whose request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/v1/auth/login", "/v1/auth/register", "/actuator/health").permitAll()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .addFilterBefore(jwtFilterRequest, UsernamePasswordAuthenticationFilter.class)
+                // not beans, so Boot does not register them a second time as servlet filters
+                .addFilterBefore(new RateLimitFilter(rateLimiter, objectMapper), JwtFilterRequest.class)
+                .addFilterAfter(new TenantRateLimitFilter(rateLimiter), JwtFilterRequest.class)
                 .headers(headers -> headers.frameOptions(HeadersConfigurer.FrameOptionsConfig::sameOrigin));
         return http.build();
     }
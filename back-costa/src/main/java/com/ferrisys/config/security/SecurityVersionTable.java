@@ -0,0 +1,76 @@
+package com.ferrisys.config.security;
+
+import com.ferrisys.common.event.CacheInvalidationEvent;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Security versions for tokens that carry their own authorities. A token is stamped with the
+ * version current at login; any later role, module, license or user change raises the floor so
+ * older stamps stop being trusted and the request falls back to loading authorities from the
+ * database.
+ *
+ * <p>Versions are millisecond timestamps read before the authorities are loaded. A floor is the
+ * time of the change, so a version equal to it may have been read before the change committed
+ * and is rejected too. The global floor starts at boot time, so tokens issued before a restart
+ * are never trusted blindly.
+ */
+@Slf4j
+@Component
+public class SecurityVersionTable {
+
+    private final AtomicLong globalFloor = new AtomicLong(System.currentTimeMillis());
+    private final Map<UUID, Long> userFloors = new ConcurrentHashMap<>();
+
+    public long currentVersion() {
+        return System.currentTimeMillis();
+    }
+
+    public boolean isCurrent(UUID userId, long version) {
+        if (version <= globalFloor.get()) {
+            return false;
+        }
+        Long userFloor = userId != null ? userFloors.get(userId) : null;
+        return userFloor == null || version > userFloor;
+    }
+
+    public void revokeUser(UUID userId) {
+        userFloors.merge(userId, System.currentTimeMillis(), Math::max);
+    }
+
+    public void revokeAll() {
+        long now = System.currentTimeMillis();
+        globalFloor.accumulateAndGet(now, Math::max);
+        userFloors.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvalidation(CacheInvalidationEvent event) {
+        switch (event.target()) {
+            case USER, LICENSE -> {
+                if (event.isFullFlush()) {
+                    revokeAll();
+                } else {
+                    event.ids().forEach(this::revokeUser);
+                }
+            }
+            case ROLE, MODULE -> revokeAll();
+            default -> {
+                // catalog data does not affect authorities
+            }
+        }
+        pruneExpired();
+        log.debug("Security versions bumped by {}", event);
+    }
+
+    /** Floors older than the token lifetime cannot reject anything anymore. */
+    private void pruneExpired() {
+        long oldestLiveToken = System.currentTimeMillis() - JWTUtil.TOKEN_VALIDITY_MILLIS;
+        userFloors.values().removeIf(floor -> floor < oldestLiveToken);
+    }
+}
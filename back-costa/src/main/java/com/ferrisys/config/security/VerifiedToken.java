@@ -0,0 +1,27 @@
+package com.ferrisys.config.security;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Result of verifying a JWT once: signature and expiration are already checked, so callers only
+ * read the values they need. {@code userId}, {@code authorities} and {@code securityVersion} are
+ * only present on tokens issued in self-contained mode.
+ */
+public record VerifiedToken(
+        String username,
+        Instant issuedAt,
+        Instant expiresAt,
+        UUID userId,
+        List<String> authorities,
+        Long securityVersion) {
+
+    public VerifiedToken {
+        authorities = authorities == null ? null : List.copyOf(authorities);
+    }
+
+    public boolean hasEmbeddedAuthorities() {
+        return userId != null && authorities != null && securityVersion != null;
+    }
+}
@@ -1,18 +1,23 @@
 package com.ferrisys.config.security.filter;
 
+import com.ferrisys.config.security.AuthenticatedUser;
 import com.ferrisys.config.security.CustomUserDetailsService;
 import com.ferrisys.config.security.JWTUtil;
+import com.ferrisys.config.security.PrincipalCache;
+import com.ferrisys.config.security.SecurityVersionTable;
+import com.ferrisys.config.security.VerifiedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -23,6 +28,8 @@ public class JwtFilterRequest extends OncePerRequestFilter {
 
     private final JWTUtil jwtUtil;
     private final CustomUserDetailsService customUserDetailsService;
+    private final PrincipalCache principalCache;
+    private final SecurityVersionTable securityVersionTable;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -44,16 +51,29 @@ public class JwtFilterRequest extends OncePerRequestFilter {
 
         try {
             final String jwt = authorizationHeader.substring(7);
-            final String username = jwtUtil.extractUsername(jwt);
+            AuthenticatedUser cached = SecurityContextHolder.getContext().getAuthentication() == null
+                    ? principalCache.get(jwt)
+                    : null;
 
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
+            if (cached != null) {
+                authenticate(cached, request);
+            } else {
+                final VerifiedToken token = jwtUtil.verify(jwt);
+                final String username = token.username();
 
-                if (jwtUtil.validateToken(jwt, userDetails.getUsername())) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails, null, userDetails.getAuthorities());
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                    if (token.hasEmbeddedAuthorities()
+                            && securityVersionTable.isCurrent(token.userId(), token.securityVersion())) {
+                        authenticate(fromClaims(token), request);
+                    } else {
+                        long loadedAt = principalCache.generation();
+                        AuthenticatedUser userDetails = customUserDetailsService.loadUserByUsername(username);
+
+                        if (username.equals(userDetails.getUsername())) {
+                            principalCache.put(jwt, userDetails, token.expiresAt(), loadedAt);
+                            authenticate(userDetails, request);
+                        }
+                    }
                 }
             }
         } catch (io.jsonwebtoken.ExpiredJwtException e) {
@@ -68,4 +88,18 @@ public class JwtFilterRequest extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private void authenticate(AuthenticatedUser userDetails, HttpServletRequest request) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities());
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
+
+    private AuthenticatedUser fromClaims(VerifiedToken token) {
+        List<SimpleGrantedAuthority> authorities = token.authorities().stream()
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+        return new AuthenticatedUser(token.userId(), token.username(), "", authorities);
+    }
 }
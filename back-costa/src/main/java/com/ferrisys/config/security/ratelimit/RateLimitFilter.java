@@ -0,0 +1,181 @@
+package com.ferrisys.config.security.ratelimit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ferrisys.config.security.ratelimit.RateLimiter.KeyType;
+import com.ferrisys.config.security.ratelimit.RateLimiter.RouteGroup;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Runs ahead of JWT verification: rejects by client IP and, for groups with a username limit such
+ * as login, by the username in the JSON body. Tenant limits need the authenticated principal and
+ * are applied by {@link TenantRateLimitFilter}.
+ */
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String GROUP_ATTRIBUTE = RateLimitFilter.class.getName() + ".GROUP";
+    private static final int MAX_INSPECTED_BODY_BYTES = 4096;
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (HttpMethod.OPTIONS.matches(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        RouteGroup group = rateLimiter.match(path);
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        request.setAttribute(GROUP_ATTRIBUTE, group);
+
+        HttpServletRequest current = request;
+        long wait = rateLimiter.tryAcquire(group, KeyType.IP, request.getRemoteAddr());
+        if (wait == 0 && HttpMethod.POST.matches(request.getMethod()) && isJson(request)
+                && rateLimiter.limitsUsernameOn(group, path)) {
+            byte[] head = request.getInputStream().readNBytes(MAX_INSPECTED_BODY_BYTES + 1);
+            current = new ReplayedBodyRequest(request, head);
+            wait = rateLimiter.tryAcquire(group, KeyType.USERNAME, usernameOf(head));
+        }
+        if (wait > 0) {
+            reject(response, wait);
+            return;
+        }
+        filterChain.doFilter(current, response);
+    }
+
+    static void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.getWriter().write("Too many requests");
+    }
+
+    /**
+     * Only JSON bodies are inspected: reading a form-encoded body here would consume it before
+     * the container parses request parameters from it.
+     */
+    private static boolean isJson(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            return MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private String usernameOf(byte[] head) {
+        if (head.length > MAX_INSPECTED_BODY_BYTES) {
+            return null;
+        }
+        try {
+            JsonNode username = objectMapper.readTree(head).path("username");
+            return username.isTextual() ? username.asText().trim().toLowerCase(Locale.ROOT) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Serves the already consumed head of the body followed by whatever was left unread. The
+     * stream and reader are created once, so repeated calls keep reading where the last left off.
+     */
+    private static final class ReplayedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] head;
+        private ReplayedInputStream stream;
+        private BufferedReader reader;
+
+        ReplayedBodyRequest(HttpServletRequest request, byte[] head) {
+            super(request);
+            this.head = head;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (stream == null) {
+                stream = new ReplayedInputStream(new ByteArrayInputStream(head), super.getInputStream());
+            }
+            return stream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                String encoding = getCharacterEncoding();
+                Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+                reader = new BufferedReader(new InputStreamReader(getInputStream(), charset));
+            }
+            return reader;
+        }
+    }
+
+    private static final class ReplayedInputStream extends ServletInputStream {
+
+        private final ByteArrayInputStream head;
+        private final ServletInputStream rest;
+
+        ReplayedInputStream(ByteArrayInputStream head, ServletInputStream rest) {
+            this.head = head;
+            this.rest = rest;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return head.available() > 0 ? head.read() : rest.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            return head.available() > 0 ? head.read(buffer, offset, length) : rest.read(buffer, offset, length);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return head.available() == 0 && rest.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return head.available() > 0 || rest.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            // the head is already in memory and always ready; readiness of the remainder is the container's
+            rest.setReadListener(readListener);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.ferrisys.config.security.ratelimit;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Route groups and their limits. Groups are matched in declaration order and the first group
+ * whose patterns match the request path applies; a limit left unset is not enforced.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+    private int maxBuckets = 100_000;
+    private Duration idleEviction = Duration.ofMinutes(10);
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Group {
+        private List<String> paths = new ArrayList<>();
+        /**
+         * Paths of the group whose JSON body carries a {@code username}; the username limit only
+         * reads bodies on these. Empty means every path of the group.
+         */
+        private List<String> usernamePaths = new ArrayList<>();
+        private Limit ip;
+        private Limit username;
+        private Limit tenant;
+    }
+
+    @Getter
+    @Setter
+    public static class Limit {
+        /** Requests allowed in a burst. */
+        private int capacity;
+        /** Sustained requests per minute. */
+        private int perMinute;
+    }
+}
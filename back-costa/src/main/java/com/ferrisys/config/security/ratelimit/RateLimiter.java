@@ -0,0 +1,172 @@
+package com.ferrisys.config.security.ratelimit;
+
+import com.ferrisys.config.security.ratelimit.RateLimitProperties.Limit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/**
+ * Token buckets keyed by route group, key type and key. Each bucket is a single
+ * {@link AtomicLong} holding its theoretical arrival time (GCRA), so acquiring is one CAS and a
+ * full bucket is recognizable from that value alone, which is what idle eviction relies on.
+ */
+@Slf4j
+@Component
+public class RateLimiter {
+
+    public enum KeyType {
+        IP,
+        USERNAME,
+        TENANT
+    }
+
+    private final boolean enabled;
+    private final int maxBuckets;
+    private final long idleEvictionNanos;
+    private final List<RouteGroup> groups = new ArrayList<>();
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepAt = new AtomicLong(System.nanoTime());
+    private final Counter overflows;
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.maxBuckets = properties.getMaxBuckets();
+        this.idleEvictionNanos = properties.getIdleEviction().toNanos();
+        properties.getGroups().forEach((name, group) -> groups.add(compile(name, group, meterRegistry)));
+        this.overflows = Counter.builder("rate.limit.bucket.overflows").register(meterRegistry);
+        Gauge.builder("rate.limit.buckets", buckets, Map::size).register(meterRegistry);
+    }
+
+    /** The first group matching a path relative to the context path, or {@code null}. */
+    public RouteGroup match(String path) {
+        if (!enabled) {
+            return null;
+        }
+        PathContainer container = PathContainer.parsePath(path);
+        for (RouteGroup group : groups) {
+            for (PathPattern pattern : group.patterns()) {
+                if (pattern.matches(container)) {
+                    return group;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Takes one token. Returns 0 when the request may proceed, otherwise the nanoseconds until a
+     * token becomes available.
+     */
+    public long tryAcquire(RouteGroup group, KeyType type, String key) {
+        CompiledLimit limit = group.limits().get(type);
+        if (limit == null || key == null || key.isBlank()) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        AtomicLong bucket = bucket(group.name() + '|' + type + '|' + key, now);
+        if (bucket == null) {
+            return 0;
+        }
+        while (true) {
+            long tat = bucket.get();
+            long next = Math.max(tat, now) + limit.intervalNanos();
+            long excess = next - now - limit.burstNanos();
+            if (excess > 0) {
+                limit.rejected().increment();
+                return excess;
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                limit.allowed().increment();
+                return 0;
+            }
+        }
+    }
+
+    public boolean hasLimit(RouteGroup group, KeyType type) {
+        return group.limits().containsKey(type);
+    }
+
+    /** Whether requests to {@code path} carry a username in their body that the group limits. */
+    public boolean limitsUsernameOn(RouteGroup group, String path) {
+        if (!hasLimit(group, KeyType.USERNAME)) {
+            return false;
+        }
+        if (group.usernamePatterns().isEmpty()) {
+            return true;
+        }
+        PathContainer container = PathContainer.parsePath(path);
+        return group.usernamePatterns().stream().anyMatch(pattern -> pattern.matches(container));
+    }
+
+    private AtomicLong bucket(String key, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        long sweepAt = nextSweepAt.get();
+        if ((now - sweepAt >= 0 || buckets.size() >= maxBuckets)
+                && nextSweepAt.compareAndSet(sweepAt, now + idleEvictionNanos / 2)) {
+            evictIdle(now);
+        }
+        if (buckets.size() >= maxBuckets) {
+            // fail open rather than grow without bound
+            overflows.increment();
+            return null;
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+    }
+
+    private void evictIdle(long now) {
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> now - bucket.get() > idleEvictionNanos);
+        log.debug("Rate limit buckets evicted: {}", before - buckets.size());
+    }
+
+    private static RouteGroup compile(String name, RateLimitProperties.Group group, MeterRegistry meterRegistry) {
+        List<PathPattern> patterns = group.getPaths().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+        List<PathPattern> usernamePatterns = group.getUsernamePaths().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+        Map<KeyType, CompiledLimit> limits = new EnumMap<>(KeyType.class);
+        addLimit(limits, name, KeyType.IP, group.getIp(), meterRegistry);
+        addLimit(limits, name, KeyType.USERNAME, group.getUsername(), meterRegistry);
+        addLimit(limits, name, KeyType.TENANT, group.getTenant(), meterRegistry);
+        return new RouteGroup(name, patterns, usernamePatterns, limits);
+    }
+
+    private static void addLimit(Map<KeyType, CompiledLimit> limits, String group, KeyType type, Limit limit,
+                                 MeterRegistry meterRegistry) {
+        if (limit == null || limit.getCapacity() <= 0 || limit.getPerMinute() <= 0) {
+            return;
+        }
+        long interval = TimeUnit.MINUTES.toNanos(1) / limit.getPerMinute();
+        String key = type.name().toLowerCase(Locale.ROOT);
+        limits.put(type, new CompiledLimit(
+                interval,
+                interval * limit.getCapacity(),
+                Counter.builder("rate.limit.requests")
+                        .tags("group", group, "key", key, "result", "allowed").register(meterRegistry),
+                Counter.builder("rate.limit.requests")
+                        .tags("group", group, "key", key, "result", "rejected").register(meterRegistry)));
+    }
+
+    public record RouteGroup(String name, List<PathPattern> patterns, List<PathPattern> usernamePatterns,
+                             Map<KeyType, CompiledLimit> limits) {}
+
+    record CompiledLimit(long intervalNanos, long burstNanos, Counter allowed, Counter rejected) {}
+}
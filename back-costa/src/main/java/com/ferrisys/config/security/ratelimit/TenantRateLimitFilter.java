@@ -0,0 +1,40 @@
+package com.ferrisys.config.security.ratelimit;
+
+import com.ferrisys.config.security.AuthenticatedUser;
+import com.ferrisys.config.security.ratelimit.RateLimiter.KeyType;
+import com.ferrisys.config.security.ratelimit.RateLimiter.RouteGroup;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Applies the tenant limit of the route group picked by {@link RateLimitFilter} once the JWT
+ * filter has authenticated the request. The tenant is the user id.
+ */
+@RequiredArgsConstructor
+public class TenantRateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (request.getAttribute(RateLimitFilter.GROUP_ATTRIBUTE) instanceof RouteGroup group
+                && authentication != null
+                && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            long wait = rateLimiter.tryAcquire(group, KeyType.TENANT, principal.getUserId().toString());
+            if (wait > 0) {
+                RateLimitFilter.reject(response, wait);
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -2,6 +2,7 @@ package com.ferrisys.config.web;
 
 import com.ferrisys.common.exception.impl.BadRequestException;
 import com.ferrisys.common.exception.impl.NotFoundException;
+import com.ferrisys.common.exception.impl.TooManyRequestsException;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,6 +10,7 @@ import java.time.OffsetDateTime;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -56,6 +58,16 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(exception, HttpStatus.FORBIDDEN, request, "Access is denied");
     }
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequests(
+            TooManyRequestsException exception, HttpServletRequest request) {
+        ResponseEntity<ErrorResponse> response =
+                buildErrorResponse(exception, HttpStatus.TOO_MANY_REQUESTS, request, exception.getMessage());
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response.getBody());
+    }
+
     @ExceptionHandler(ExpiredJwtException.class)
     public ResponseEntity<ErrorResponse> handleExpiredJwt(
             ExpiredJwtException exception, HttpServletRequest request) {
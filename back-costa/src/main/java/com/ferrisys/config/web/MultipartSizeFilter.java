@@ -0,0 +1,56 @@
+package com.ferrisys.config.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * The servlet container has a single multipart limit, sized for the user import. This filter
+ * holds every other multipart request to {@code upload.max-request-size}, judged on its declared
+ * length before the body is read; a multipart body without one is refused.
+ */
+@Component
+public class MultipartSizeFilter extends OncePerRequestFilter {
+
+    private static final Set<String> LARGE_UPLOAD_PATHS = Set.of("/v1/auth/admin/users/import");
+
+    private final long maxRequestBytes;
+
+    public MultipartSizeFilter(@Value("${upload.max-request-size:10MB}") DataSize maxRequestSize) {
+        this.maxRequestBytes = maxRequestSize.toBytes();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/")) {
+            return true;
+        }
+        return LARGE_UPLOAD_PATHS.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long length = request.getContentLengthLong();
+        if (length < 0) {
+            response.setStatus(HttpServletResponse.SC_LENGTH_REQUIRED);
+            response.getWriter().write("Content-Length required");
+            return;
+        }
+        if (length > maxRequestBytes) {
+            response.setStatus(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            response.getWriter().write("Upload too large");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -1,7 +1,10 @@
 package com.ferrisys.controller;
 
+import com.ferrisys.common.dto.CursorPage;
 import com.ferrisys.common.dto.RegisterRequest;
 import com.ferrisys.common.dto.auth.RoleModulesDto;
+import com.ferrisys.common.event.CacheInvalidationEvent;
+import com.ferrisys.common.event.CacheInvalidationEvent.Target;
 import com.ferrisys.common.entity.license.ModuleLicense;
 import com.ferrisys.common.entity.user.AuthModule;
 import com.ferrisys.common.entity.user.AuthRoleModule;
@@ -10,27 +13,33 @@ import com.ferrisys.common.entity.user.Role;
 import com.ferrisys.common.entity.user.User;
 import com.ferrisys.common.entity.user.UserStatus;
 import com.ferrisys.common.enums.DefaultUserStatus;
+import com.ferrisys.common.exception.impl.BadRequestException;
 import com.ferrisys.common.exception.impl.NotFoundException;
+import com.ferrisys.config.security.PasswordHashingService;
+import com.ferrisys.config.security.RequiresModule;
+import com.ferrisys.repository.AdminUserQueryRepository;
 import com.ferrisys.repository.AuthUserRoleRepository;
+import com.ferrisys.repository.ModuleLicenseQueryRepository;
 import com.ferrisys.repository.ModuleLicenseRepository;
 import com.ferrisys.repository.ModuleRepository;
 import com.ferrisys.repository.RoleModuleRepository;
 import com.ferrisys.repository.RoleRepository;
 import com.ferrisys.repository.UserRepository;
 import com.ferrisys.service.UserService;
+import com.ferrisys.service.impl.AssignmentSyncService;
+import com.ferrisys.service.importer.ImportJob;
+import com.ferrisys.service.importer.UserImportService;
 import jakarta.transaction.Transactional;
 import java.time.OffsetDateTime;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -41,15 +50,19 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
 @RestController
 @RequestMapping("/v1/auth/admin")
 @RequiredArgsConstructor
 @Slf4j
-@PreAuthorize(
-        "@featureFlagService.enabledForCurrentUser('core-de-autenticacion') and (hasAuthority('MODULE_CORE_DE_AUTENTICACION') or hasRole('ADMIN'))")
+@RequiresModule(value = "core-de-autenticacion", requireAuthority = true)
 public class AuthAdminController {
 
+    private static final int MAX_USER_PAGE_SIZE = 200;
+    private static final int MAX_LICENSE_PAGE_SIZE = 500;
+    private static final int MAX_BULK_LICENSES = 20000;
+
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final ModuleRepository moduleRepository;
@@ -57,22 +70,52 @@ public class AuthAdminController {
     private final AuthUserRoleRepository authUserRoleRepository;
     private final ModuleLicenseRepository moduleLicenseRepository;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PasswordHashingService passwordHashingService;
+    private final AssignmentSyncService assignmentSyncService;
+    private final AdminUserQueryRepository adminUserQueryRepository;
+    private final ModuleLicenseQueryRepository moduleLicenseQueryRepository;
+    private final UserImportService userImportService;
 
     // --- Users ---
     @GetMapping("/users")
-    public List<AdminUserResponse> listUsers() {
-        List<User> users = userRepository.findAll();
-        if (users.isEmpty()) {
-            return Collections.emptyList();
-        }
+    public CursorPage<AdminUserResponse> listUsers(
+            @RequestParam(required = false) Integer status,
+            @RequestParam(required = false) UUID roleId,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "username") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "true") boolean includeTotal) {
+        AdminUserQueryRepository.Query query = new AdminUserQueryRepository.Query(
+                status,
+                roleId,
+                q,
+                AdminUserQueryRepository.Sort.from(sort),
+                "desc".equalsIgnoreCase(direction),
+                cursor,
+                Math.max(1, Math.min(size, MAX_USER_PAGE_SIZE)),
+                includeTotal);
+        CursorPage<AdminUserQueryRepository.Row> page = adminUserQueryRepository.find(query);
+        List<AdminUserResponse> content = page.content().stream()
+                .map(row -> new AdminUserResponse(row.id(), row.username(), row.email(), row.fullName(),
+                        row.active() ? 1 : 0, row.roleIds(), row.roleNames()))
+                .toList();
+        return new CursorPage<>(content, page.nextCursor(), page.totalElements(), page.size());
+    }
 
-        Map<UUID, List<AuthUserRole>> assignments = new HashMap<>();
-        authUserRoleRepository.findAllByUserIdIn(users.stream().map(User::getId).toList())
-                .forEach(assignment -> assignments.computeIfAbsent(assignment.getUser().getId(), key -> new ArrayList<>()).add(assignment));
+    @PostMapping(value = "/users/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ImportJob.View importUsers(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String format) {
+        return userImportService.submit(file, format);
+    }
 
-        return users.stream()
-                .map(user -> mapUser(user, assignments.getOrDefault(user.getId(), Collections.emptyList())))
-                .toList();
+    @GetMapping("/users/import/{jobId}")
+    public ImportJob.View getImportJob(@PathVariable UUID jobId) {
+        return userImportService.get(jobId);
     }
 
     @GetMapping("/users/{id}")
@@ -96,7 +139,8 @@ public class AuthAdminController {
             user.setStatus(UserStatus.fromCode(request.status()));
             user = userRepository.save(user);
         }
-        syncUserRoles(user, request.roleIds());
+        assignmentSyncService.syncUserRoles(user.getId(), request.roleIds());
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.USER, user.getId()));
         return mapUser(user, authUserRoleRepository.findAllByUserIdIn(List.of(user.getId())));
     }
 
@@ -108,10 +152,11 @@ public class AuthAdminController {
         user.setFullName(request.fullName());
         user.setStatus(UserStatus.fromCode(request.status()));
         if (request.password() != null && !request.password().isBlank()) {
-            user.setPassword(new BCryptPasswordEncoder().encode(request.password()));
+            user.setPassword(passwordHashingService.encode(request.password()));
         }
         User saved = userRepository.save(user);
-        syncUserRoles(saved, request.roleIds());
+        assignmentSyncService.syncUserRoles(saved.getId(), request.roleIds());
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.USER, saved.getId()));
         return mapUser(saved, authUserRoleRepository.findAllByUserIdIn(List.of(saved.getId())));
     }
 
@@ -122,6 +167,7 @@ public class AuthAdminController {
             throw new NotFoundException("User not found");
         }
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.USER, id));
     }
 
     @PostMapping("/user-roles")
@@ -129,7 +175,9 @@ public class AuthAdminController {
     public void assignUserRole(@RequestBody UserRoleRequest request) {
         User user = userRepository.findById(request.userId()).orElseThrow(() -> new NotFoundException("User not found"));
         roleRepository.findById(request.roleId()).orElseThrow(() -> new NotFoundException("Role not found"));
-        syncUserRoles(user, List.of(request.roleId()));
+        if (assignmentSyncService.syncUserRoles(user.getId(), List.of(request.roleId()))) {
+            eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.USER, user.getId()));
+        }
     }
 
     // --- Roles ---
@@ -160,7 +208,9 @@ public class AuthAdminController {
         role.setName(request.name());
         role.setDescription(request.description());
         role.setStatus(request.status());
-        return roleRepository.save(role);
+        Role saved = roleRepository.save(role);
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.ROLE, saved.getId()));
+        return saved;
     }
 
     @DeleteMapping("/roles/{id}")
@@ -170,6 +220,7 @@ public class AuthAdminController {
             throw new NotFoundException("Role not found");
         }
         roleRepository.deleteById(id);
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.ROLE, id));
     }
 
     // --- Modules ---
@@ -191,7 +242,9 @@ public class AuthAdminController {
                 .description(request.description())
                 .status(request.status())
                 .build();
-        return moduleRepository.save(module);
+        AuthModule saved = moduleRepository.save(module);
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.MODULE, saved.getId()));
+        return saved;
     }
 
     @PutMapping("/modules/{id}")
@@ -200,7 +253,9 @@ public class AuthAdminController {
         module.setName(request.name());
         module.setDescription(request.description());
         module.setStatus(request.status());
-        return moduleRepository.save(module);
+        AuthModule saved = moduleRepository.save(module);
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.MODULE, saved.getId()));
+        return saved;
     }
 
     @DeleteMapping("/modules/{id}")
@@ -210,6 +265,7 @@ public class AuthAdminController {
             throw new NotFoundException("Module not found");
         }
         moduleRepository.deleteById(id);
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.MODULE, id));
     }
 
     // --- Role Modules ---
@@ -225,22 +281,62 @@ public class AuthAdminController {
     @Transactional
     public void saveRoleModules(@RequestBody RoleModuleRequest request) {
         Role role = roleRepository.findById(request.roleId()).orElseThrow(() -> new NotFoundException("Role not found"));
-        persistRoleModules(role, request.moduleIds());
+        if (assignmentSyncService.syncRoleModules(role.getId(), request.moduleIds())) {
+            eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.ROLE, role.getId()));
+        }
     }
 
     @PutMapping("/role-modules/{roleId}")
     @Transactional
     public RoleModulesDto updateRoleModules(@PathVariable UUID roleId, @RequestBody RoleModulesDto request) {
         Role role = roleRepository.findById(roleId).orElseThrow(() -> new NotFoundException("Role not found"));
-        persistRoleModules(role, request.getModuleIds());
+        if (assignmentSyncService.syncRoleModules(role.getId(), request.getModuleIds())) {
+            eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.ROLE, role.getId()));
+        }
         List<AuthRoleModule> assignments = roleModuleRepository.findByRoleIdAndStatus(roleId, 1);
         return buildRoleModulesDto(role, assignments);
     }
 
     // --- Module Licenses ---
     @GetMapping("/module-licenses")
-    public List<ModuleLicense> listLicenses() {
-        return moduleLicenseRepository.findAll();
+    public CursorPage<ModuleLicenseQueryRepository.Row> listLicenses(
+            @RequestParam(required = false) UUID tenantId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        return moduleLicenseQueryRepository.findPage(tenantId, cursor, Math.max(1, Math.min(size, MAX_LICENSE_PAGE_SIZE)));
+    }
+
+    @GetMapping("/module-licenses/expiring")
+    public CursorPage<ModuleLicenseQueryRepository.Row> listExpiringLicenses(
+            @RequestParam(required = false) OffsetDateTime from,
+            @RequestParam OffsetDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int size) {
+        OffsetDateTime start = from != null ? from : OffsetDateTime.now();
+        if (!to.isAfter(start)) {
+            throw new BadRequestException("'to' must be after 'from'");
+        }
+        return moduleLicenseQueryRepository.findExpiring(start, to, cursor, Math.max(1, Math.min(size, MAX_LICENSE_PAGE_SIZE)));
+    }
+
+    @PutMapping("/module-licenses/bulk")
+    @Transactional
+    public ModuleLicenseQueryRepository.UpsertResult upsertLicenses(@RequestBody BulkModuleLicenseRequest request) {
+        Set<UUID> tenantIds = request.tenantIds() == null ? Set.of() : new LinkedHashSet<>(request.tenantIds());
+        Set<UUID> moduleIds = request.moduleIds() == null ? Set.of() : new LinkedHashSet<>(request.moduleIds());
+        if (tenantIds.isEmpty() || moduleIds.isEmpty()) {
+            throw new BadRequestException("tenantIds and moduleIds are required");
+        }
+        if ((long) tenantIds.size() * moduleIds.size() > MAX_BULK_LICENSES) {
+            throw new BadRequestException("At most " + MAX_BULK_LICENSES + " licenses per request");
+        }
+        if (moduleRepository.findAllById(moduleIds).size() != moduleIds.size()) {
+            throw new NotFoundException("Module not found");
+        }
+        ModuleLicenseQueryRepository.UpsertResult result = moduleLicenseQueryRepository.upsertMatrix(
+                tenantIds, moduleIds, !Boolean.FALSE.equals(request.enabled()), request.expiresAt());
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.LICENSE, tenantIds));
+        return result;
     }
 
     @PostMapping("/module-licenses")
@@ -253,41 +349,9 @@ public class AuthAdminController {
                 .enabled(request.enabled())
                 .expiresAt(request.expiresAt())
                 .build();
-        return moduleLicenseRepository.save(license);
-    }
-
-    private void syncUserRoles(User user, List<UUID> roleIds) {
-        authUserRoleRepository.deleteByUserId(user.getId());
-        if (roleIds == null || roleIds.isEmpty()) {
-            return;
-        }
-
-        for (UUID roleId : roleIds) {
-            Role role = roleRepository.findById(roleId).orElseThrow(() -> new NotFoundException("Role not found"));
-            AuthUserRole assignment = AuthUserRole.builder()
-                    .user(user)
-                    .role(role)
-                    .status(1)
-                    .build();
-            authUserRoleRepository.save(assignment);
-        }
-    }
-
-    private void persistRoleModules(Role role, List<UUID> moduleIds) {
-        roleModuleRepository.deleteByRole(role);
-        if (moduleIds == null || moduleIds.isEmpty()) {
-            return;
-        }
-
-        for (UUID moduleId : moduleIds) {
-            AuthModule module = moduleRepository.findById(moduleId).orElseThrow(() -> new NotFoundException("Module not found"));
-            AuthRoleModule assignment = AuthRoleModule.builder()
-                    .role(role)
-                    .module(module)
-                    .status(1)
-                    .build();
-            roleModuleRepository.save(assignment);
-        }
+        ModuleLicense saved = moduleLicenseRepository.save(license);
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.LICENSE, saved.getTenantId()));
+        return saved;
     }
 
     private RoleModulesDto buildRoleModulesDto(Role role, List<AuthRoleModule> assignments) {
@@ -329,4 +393,5 @@ public class AuthAdminController {
     public record RoleModuleRequest(UUID roleId, List<UUID> moduleIds) {}
     public record UserRoleRequest(UUID userId, UUID roleId) {}
     public record ModuleLicenseRequest(UUID tenantId, UUID moduleId, Boolean enabled, OffsetDateTime expiresAt) {}
+    public record BulkModuleLicenseRequest(List<UUID> tenantIds, List<UUID> moduleIds, Boolean enabled, OffsetDateTime expiresAt) {}
 }
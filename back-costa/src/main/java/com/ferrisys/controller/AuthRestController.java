@@ -6,8 +6,11 @@ import com.ferrisys.common.dto.AuthResponse;
 import com.ferrisys.common.dto.LoginRequest;
 import com.ferrisys.common.dto.PageResponse;
 import com.ferrisys.common.dto.RegisterRequest;
+import com.ferrisys.service.menu.ModuleMenu;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -41,11 +44,15 @@ public class AuthRestController {
         return userService.recoverPassword(newPassword, confirmPassword, userToken);
     }
 
+    // ResponseEntity answers a matching If-None-Match with 304 and no body
     @GetMapping("/modules")
-    @ResponseStatus(HttpStatus.OK)
-    public PageResponse<ModuleDTO> getUserModules(
+    public ResponseEntity<PageResponse<ModuleDTO>> getUserModules(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        return userService.getModulesForCurrentUser(page, size);
+        ModuleMenu menu = userService.getModuleMenuForCurrentUser();
+        return ResponseEntity.ok()
+                .eTag(menu.etag(page, size))
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(menu.page(page, size));
     }
 }
@@ -1,11 +1,12 @@
 package com.ferrisys.controller;
 
 import com.ferrisys.common.dto.ClientDTO;
+import com.ferrisys.common.dto.CursorPage;
 import com.ferrisys.common.dto.PageResponse;
+import com.ferrisys.config.security.RequiresModule;
 import com.ferrisys.service.business.ClientService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -19,27 +20,35 @@ import java.util.UUID;
 @RequestMapping("/v1/clients")
 @RequiredArgsConstructor
 @ConditionalOnProperty(prefix = "modules.clients", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiresModule("clients")
 public class ClientController {
 
     private final ClientService clientService;
 
     @PostMapping("/save")
-    @PreAuthorize("@featureFlagService.enabledForCurrentUser('clients')")
     public void save(@RequestBody ClientDTO dto) {
         clientService.saveOrUpdate(dto);
     }
 
     @PostMapping("/disable")
-    @PreAuthorize("@featureFlagService.enabledForCurrentUser('clients')")
     public void disable(@RequestParam UUID id) {
         clientService.disable(id);
     }
 
     @GetMapping("/list")
-    @PreAuthorize("@featureFlagService.enabledForCurrentUser('clients')")
     public PageResponse<ClientDTO> list(
+            @RequestParam(defaultValue = "1") int status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        return clientService.list(page, size);
+        return clientService.list(status, page, size);
+    }
+
+    @GetMapping(value = "/list", params = "cursor")
+    public CursorPage<ClientDTO> scroll(
+            @RequestParam(defaultValue = "1") int status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return clientService.scroll(status, cursor, Math.max(1, Math.min(size, CursorPage.MAX_SIZE)), includeTotal);
     }
 }
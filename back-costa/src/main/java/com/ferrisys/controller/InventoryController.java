@@ -2,20 +2,24 @@
 package com.ferrisys.controller;
 
 import com.ferrisys.common.dto.CategoryDTO;
+import com.ferrisys.common.dto.CategoryNodeDTO;
+import com.ferrisys.common.dto.CursorPage;
 import com.ferrisys.common.dto.ProductDTO;
 import com.ferrisys.common.dto.PageResponse;
+import com.ferrisys.config.security.RequiresModule;
 import com.ferrisys.service.InventoryService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -23,47 +27,98 @@ import java.util.UUID;
 @RequiredArgsConstructor
 @SecurityRequirement(name = "bearerAuth")
 @ConditionalOnProperty(prefix = "modules.inventory", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiresModule(value = "inventory", requireAuthority = true)
 public class InventoryController {
 
+    private static final int MAX_SEARCH_RESULTS = 100;
+
     private final InventoryService inventoryService;
 
     @PostMapping("/category/save")
-    @PreAuthorize("@featureFlagService.enabledForCurrentUser('inventory') and (hasAuthority('MODULE_INVENTORY') or hasRole('ADMIN'))")
     public void saveCategory(@RequestBody CategoryDTO dto) {
         inventoryService.saveOrUpdateCategory(dto);
     }
 
     @PostMapping("/product/save")
-    @PreAuthorize("@featureFlagService.enabledForCurrentUser('inventory') and (hasAuthority('MODULE_INVENTORY') or hasRole('ADMIN'))")
     public void saveProduct(@RequestBody ProductDTO dto) {
         inventoryService.saveOrUpdateProduct(dto);
     }
 
     @PostMapping("/category/disable")
-    @PreAuthorize("@featureFlagService.enabledForCurrentUser('inventory') and (hasAuthority('MODULE_INVENTORY') or hasRole('ADMIN'))")
     public void disableCategory(@RequestParam UUID id) {
         inventoryService.disableCategory(id);
     }
 
     @PostMapping("/product/disable")
-    @PreAuthorize("@featureFlagService.enabledForCurrentUser('inventory') and (hasAuthority('MODULE_INVENTORY') or hasRole('ADMIN'))")
     public void disableProduct(@RequestParam UUID id) {
         inventoryService.disableProduct(id);
     }
 
     @GetMapping("/categories")
-    @PreAuthorize("@featureFlagService.enabledForCurrentUser('inventory') and (hasAuthority('MODULE_INVENTORY') or hasRole('ADMIN'))")
     public PageResponse<CategoryDTO> getCategories(
+            @RequestParam(defaultValue = "1") int status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        return inventoryService.listCategories(page, size);
+        return inventoryService.listCategories(status, page, size);
     }
 
     @GetMapping("/products")
-    @PreAuthorize("@featureFlagService.enabledForCurrentUser('inventory') and (hasAuthority('MODULE_INVENTORY') or hasRole('ADMIN'))")
     public PageResponse<ProductDTO> getProducts(
+            @RequestParam(defaultValue = "1") int status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return inventoryService.listProducts(status, page, size);
+    }
+
+    @GetMapping(value = "/categories", params = "cursor")
+    public CursorPage<CategoryDTO> scrollCategories(
+            @RequestParam(defaultValue = "1") int status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return inventoryService.scrollCategories(status, cursor, Math.max(1, Math.min(size, CursorPage.MAX_SIZE)), includeTotal);
+    }
+
+    @GetMapping(value = "/products", params = "cursor")
+    public CursorPage<ProductDTO> scrollProducts(
+            @RequestParam(defaultValue = "1") int status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return inventoryService.scrollProducts(status, cursor, Math.max(1, Math.min(size, CursorPage.MAX_SIZE)), includeTotal);
+    }
+
+    @GetMapping("/products/search")
+    public List<ProductDTO> searchProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "1") Integer status,
+            @RequestParam(required = false) UUID categoryId,
+            @RequestParam(required = false) UUID companyId,
+            @RequestParam(defaultValue = "20") int limit) {
+        return inventoryService.searchProducts(q, status, categoryId, companyId, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
+    }
+
+    @GetMapping("/categories/{id}/subtree")
+    public List<CategoryNodeDTO> getCategorySubtree(@PathVariable UUID id) {
+        return inventoryService.getCategorySubtree(id);
+    }
+
+    @GetMapping("/categories/{id}/ancestors")
+    public List<CategoryNodeDTO> getCategoryAncestors(@PathVariable UUID id) {
+        return inventoryService.getCategoryAncestors(id);
+    }
+
+    @GetMapping("/categories/{id}/breadcrumb")
+    public List<CategoryNodeDTO> getCategoryBreadcrumb(@PathVariable UUID id) {
+        return inventoryService.getCategoryBreadcrumb(id);
+    }
+
+    @GetMapping("/categories/{id}/products")
+    public PageResponse<ProductDTO> getCategoryProducts(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "1") int status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        return inventoryService.listProducts(page, size);
+        return inventoryService.listProductsInCategory(id, status, page, Math.max(1, Math.min(size, CursorPage.MAX_SIZE)));
     }
 }
@@ -1,11 +1,12 @@
 package com.ferrisys.controller;
 
+import com.ferrisys.common.dto.CursorPage;
 import com.ferrisys.common.dto.PageResponse;
 import com.ferrisys.common.dto.ProviderDTO;
+import com.ferrisys.config.security.RequiresModule;
 import com.ferrisys.service.business.ProviderService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -19,27 +20,35 @@ import java.util.UUID;
 @RequestMapping("/v1/providers")
 @RequiredArgsConstructor
 @ConditionalOnProperty(prefix = "modules.providers", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiresModule("providers")
 public class ProviderController {
 
     private final ProviderService providerService;
 
     @PostMapping("/save")
-    @PreAuthorize("@featureFlagService.enabledForCurrentUser('providers')")
     public void save(@RequestBody ProviderDTO dto) {
         providerService.saveOrUpdate(dto);
     }
 
     @PostMapping("/disable")
-    @PreAuthorize("@featureFlagService.enabledForCurrentUser('providers')")
     public void disable(@RequestParam UUID id) {
         providerService.disable(id);
     }
 
     @GetMapping("/list")
-    @PreAuthorize("@featureFlagService.enabledForCurrentUser('providers')")
     public PageResponse<ProviderDTO> list(
+            @RequestParam(defaultValue = "1") int status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        return providerService.list(page, size);
+        return providerService.list(status, page, size);
+    }
+
+    @GetMapping(value = "/list", params = "cursor")
+    public CursorPage<ProviderDTO> scroll(
+            @RequestParam(defaultValue = "1") int status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return providerService.scroll(status, cursor, Math.max(1, Math.min(size, CursorPage.MAX_SIZE)), includeTotal);
     }
 }
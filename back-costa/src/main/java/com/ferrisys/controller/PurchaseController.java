@@ -1,11 +1,12 @@
 package com.ferrisys.controller;
 
+import com.ferrisys.common.dto.CursorPage;
 import com.ferrisys.common.dto.PageResponse;
 import com.ferrisys.common.dto.PurchaseDTO;
+import com.ferrisys.config.security.RequiresModule;
 import com.ferrisys.service.business.PurchaseService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -19,27 +20,35 @@ import java.util.UUID;
 @RequestMapping("/v1/purchases")
 @RequiredArgsConstructor
 @ConditionalOnProperty(prefix = "modules.purchases", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiresModule("purchases")
 public class PurchaseController {
 
     private final PurchaseService purchaseService;
 
     @PostMapping("/save")
-    @PreAuthorize("@featureFlagService.enabledForCurrentUser('purchases')")
     public void save(@RequestBody PurchaseDTO dto) {
         purchaseService.saveOrUpdate(dto);
     }
 
     @PostMapping("/disable")
-    @PreAuthorize("@featureFlagService.enabledForCurrentUser('purchases')")
     public void disable(@RequestParam UUID id) {
         purchaseService.disable(id);
     }
 
     @GetMapping("/list")
-    @PreAuthorize("@featureFlagService.enabledForCurrentUser('purchases')")
     public PageResponse<PurchaseDTO> list(
+            @RequestParam(defaultValue = "1") int status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        return purchaseService.list(page, size);
+        return purchaseService.list(status, page, size);
+    }
+
+    @GetMapping(value = "/list", params = "cursor")
+    public CursorPage<PurchaseDTO> scroll(
+            @RequestParam(defaultValue = "1") int status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return purchaseService.scroll(status, cursor, Math.max(1, Math.min(size, CursorPage.MAX_SIZE)), includeTotal);
     }
 }
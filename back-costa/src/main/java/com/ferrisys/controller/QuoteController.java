@@ -1,11 +1,12 @@
 package com.ferrisys.controller;
 
+import com.ferrisys.common.dto.CursorPage;
 import com.ferrisys.common.dto.PageResponse;
 import com.ferrisys.common.dto.QuoteDTO;
+import com.ferrisys.config.security.RequiresModule;
 import com.ferrisys.service.business.QuoteService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -20,27 +21,35 @@ import java.util.UUID;
 @RequestMapping("/v1/quotes")
 @RequiredArgsConstructor
 @ConditionalOnProperty(prefix = "modules.quotes", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiresModule("quotes")
 public class QuoteController {
 
     private final QuoteService quoteService;
 
     @PostMapping("/save")
-    @PreAuthorize("@featureFlagService.enabledForCurrentUser('quotes')")
     public void save(@RequestBody QuoteDTO dto) {
         quoteService.saveOrUpdate(dto);
     }
 
     @PostMapping("/disable")
-    @PreAuthorize("@featureFlagService.enabledForCurrentUser('quotes')")
     public void disable(@RequestParam UUID id) {
         quoteService.disable(id);
     }
 
     @GetMapping("/list")
-    @PreAuthorize("@featureFlagService.enabledForCurrentUser('quotes')")
     public PageResponse<QuoteDTO> list(
+            @RequestParam(defaultValue = "1") int status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        return quoteService.list(page, size);
+        return quoteService.list(status, page, size);
+    }
+
+    @GetMapping(value = "/list", params = "cursor")
+    public CursorPage<QuoteDTO> scroll(
+            @RequestParam(defaultValue = "1") int status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        return quoteService.scroll(status, cursor, Math.max(1, Math.min(size, CursorPage.MAX_SIZE)), includeTotal);
     }
 }
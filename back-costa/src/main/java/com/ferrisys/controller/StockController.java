@@ -0,0 +1,91 @@
+package com.ferrisys.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ferrisys.common.dto.KardexEntryDTO;
+import com.ferrisys.common.dto.StockAdjustmentDTO;
+import com.ferrisys.common.dto.StockBalanceDTO;
+import com.ferrisys.common.dto.StockDiscrepancyDTO;
+import com.ferrisys.config.security.RequiresModule;
+import com.ferrisys.service.StockService;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/v1/inventory/stock")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearerAuth")
+@ConditionalOnProperty(prefix = "modules.inventory", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiresModule(value = "inventory", requireAuthority = true)
+public class StockController {
+
+    private final StockService stockService;
+    private final ObjectMapper objectMapper;
+
+    @GetMapping("/{productId}")
+    public List<StockBalanceDTO> getBalances(@PathVariable UUID productId) {
+        return stockService.getBalances(productId);
+    }
+
+    @PostMapping("/adjust")
+    public void adjust(@RequestBody StockAdjustmentDTO dto) {
+        stockService.adjust(dto);
+    }
+
+    @GetMapping("/reconcile")
+    public List<StockDiscrepancyDTO> findDiscrepancies(@RequestParam(required = false) UUID productId) {
+        return stockService.reconcile(productId, false);
+    }
+
+    @PostMapping("/reconcile")
+    public List<StockDiscrepancyDTO> repairDiscrepancies(@RequestParam(required = false) UUID productId) {
+        return stockService.reconcile(productId, true);
+    }
+
+    /**
+     * Kardex of a product as NDJSON: an opening line, then one line per movement with its running
+     * balance. {@code from} and {@code to} are inclusive dates; rows are written as they are read.
+     * The product and range are checked before the response starts, so errors keep their status.
+     */
+    @GetMapping("/{productId}/kardex")
+    public ResponseEntity<StreamingResponseBody> streamKardex(
+            @PathVariable UUID productId,
+            @RequestParam(required = false) UUID warehouseId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        StockService.KardexRange range = stockService.openKardex(productId, warehouseId,
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null);
+        ObjectWriter writer = objectMapper.writerFor(KardexEntryDTO.class);
+        StreamingResponseBody body = out -> {
+            stockService.streamKardex(range, entry -> {
+                try {
+                    out.write(writer.writeValueAsBytes(entry));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
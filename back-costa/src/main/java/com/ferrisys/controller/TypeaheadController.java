@@ -0,0 +1,53 @@
+package com.ferrisys.controller;
+
+import com.ferrisys.config.security.RequiresModule;
+import com.ferrisys.service.typeahead.Suggestion;
+import com.ferrisys.service.typeahead.TypeaheadService;
+import com.ferrisys.service.typeahead.TypeaheadService.Catalog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/v1/typeahead")
+@RequiredArgsConstructor
+public class TypeaheadController {
+
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private final TypeaheadService typeaheadService;
+
+    @GetMapping("/products")
+    @RequiresModule(value = "inventory", requireAuthority = true)
+    public List<Suggestion> products(
+            @RequestParam String q,
+            @RequestParam(required = false) UUID companyId,
+            @RequestParam(defaultValue = "10") int limit) {
+        return typeaheadService.search(Catalog.PRODUCT, q, companyId, clamp(limit));
+    }
+
+    @GetMapping("/clients")
+    @RequiresModule("clients")
+    public List<Suggestion> clients(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return typeaheadService.search(Catalog.CLIENT, q, null, clamp(limit));
+    }
+
+    @GetMapping("/providers")
+    @RequiresModule("providers")
+    public List<Suggestion> providers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return typeaheadService.search(Catalog.PROVIDER, q, null, clamp(limit));
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+    }
+}
@@ -1,6 +1,7 @@
 package com.ferrisys.mapper;
 
 import com.ferrisys.common.dto.PurchaseDTO;
+import com.ferrisys.common.dto.PurchaseDetailDTO;
 import com.ferrisys.common.entity.business.Provider;
 import com.ferrisys.common.entity.business.Purchase;
 import com.ferrisys.mapper.support.IdMappingSupport;
@@ -31,6 +32,12 @@ public interface PurchaseMapper extends IdMappingSupport {
     @Mapping(target = "providerId", expression = "java(fromProvider(entity.getProvider()))")
     PurchaseDTO toDto(Purchase entity);
 
+    /** Maps the header only and takes the lines already loaded for it, leaving {@code details} untouched. */
+    @Mapping(target = "id", expression = "java(fromUuid(entity.getId()))")
+    @Mapping(target = "providerId", expression = "java(fromProvider(entity.getProvider()))")
+    @Mapping(target = "details", source = "details")
+    PurchaseDTO toDto(Purchase entity, List<PurchaseDetailDTO> details);
+
     List<PurchaseDTO> toDtoList(List<Purchase> entities);
 
     @AfterMapping
@@ -1,6 +1,7 @@
 package com.ferrisys.mapper;
 
 import com.ferrisys.common.dto.QuoteDTO;
+import com.ferrisys.common.dto.QuoteDetailDTO;
 import com.ferrisys.common.entity.business.Client;
 import com.ferrisys.common.entity.business.Quote;
 import com.ferrisys.mapper.support.IdMappingSupport;
@@ -31,6 +32,12 @@ public interface QuoteMapper extends IdMappingSupport {
     @Mapping(target = "clientId", expression = "java(fromClient(entity.getClient()))")
     QuoteDTO toDto(Quote entity);
 
+    /** Maps the header only and takes the lines already loaded for it, leaving {@code details} untouched. */
+    @Mapping(target = "id", expression = "java(fromUuid(entity.getId()))")
+    @Mapping(target = "clientId", expression = "java(fromClient(entity.getClient()))")
+    @Mapping(target = "details", source = "details")
+    QuoteDTO toDto(Quote entity, List<QuoteDetailDTO> details);
+
     List<QuoteDTO> toDtoList(List<Quote> entities);
 
     @AfterMapping
@@ -0,0 +1,158 @@
+package com.ferrisys.repository;
+
+import com.ferrisys.common.dto.CursorPage;
+import com.ferrisys.common.enums.DefaultUserStatus;
+import com.ferrisys.common.exception.impl.BadRequestException;
+import com.ferrisys.common.pagination.CursorCodec;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Keyset-paginated user listing for the admin screens. Each page is one statement that reads at
+ * most {@code size + 1} users together with their active role ids and names, so memory does not
+ * grow with the number of users.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AdminUserQueryRepository {
+
+    private static final String EPOCH = "TIMESTAMP '1970-01-01 00:00:00'";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public enum Sort {
+        USERNAME("u.username"),
+        EMAIL("u.email"),
+        CREATED_AT("COALESCE(u.created_at, " + EPOCH + ")");
+
+        private final String expression;
+
+        Sort(String expression) {
+            this.expression = expression;
+        }
+
+        public static Sort from(String value) {
+            return switch (value == null ? "" : value.toLowerCase(Locale.ROOT)) {
+                case "", "username" -> USERNAME;
+                case "email" -> EMAIL;
+                case "createdat", "created_at" -> CREATED_AT;
+                default -> throw new BadRequestException("Unsupported sort: " + value);
+            };
+        }
+    }
+
+    public record Query(Integer status, UUID roleId, String prefix, Sort sort, boolean descending,
+                        String cursor, int size, boolean includeTotal) {}
+
+    public record Row(UUID id, String username, String email, String fullName, boolean active,
+                      List<UUID> roleIds, List<String> roleNames) {}
+
+    public CursorPage<Row> find(Query query) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        if (query.status() != null) {
+            where.append(" AND u.status_id = :statusId");
+            params.addValue("statusId", query.status() == 1
+                    ? DefaultUserStatus.ACTIVE.getId()
+                    : DefaultUserStatus.INACTIVE.getId());
+        }
+        if (query.roleId() != null) {
+            where.append(" AND EXISTS (SELECT 1 FROM auth_user_role f WHERE f.auth_user_id = u.id"
+                    + " AND f.auth_role_id = :roleId AND f.status = 1)");
+            params.addValue("roleId", query.roleId());
+        }
+        if (query.prefix() != null && !query.prefix().isBlank()) {
+            where.append(" AND (lower(u.username) LIKE :prefix ESCAPE '\\' OR lower(u.email) LIKE :prefix ESCAPE '\\')");
+            params.addValue("prefix", escapeLike(query.prefix().trim().toLowerCase(Locale.ROOT)) + "%");
+        }
+
+        Long total = query.includeTotal()
+                ? jdbcTemplate.queryForObject("SELECT count(*) FROM auth_user u" + where, params, Long.class)
+                : null;
+
+        String tag = query.sort().name() + (query.descending() ? ":desc" : ":asc");
+        String sortExpression = query.sort().expression;
+        StringBuilder sql = new StringBuilder("""
+                SELECT u.id, u.username, u.email, u.full_name, u.status_id, %s AS sort_key,
+                       ARRAY(SELECT r.id FROM auth_user_role ur JOIN auth_role r ON r.id = ur.auth_role_id
+                             WHERE ur.auth_user_id = u.id AND ur.status = 1 ORDER BY r.name, r.id) AS role_ids,
+                       ARRAY(SELECT r.name FROM auth_user_role ur JOIN auth_role r ON r.id = ur.auth_role_id
+                             WHERE ur.auth_user_id = u.id AND ur.status = 1 ORDER BY r.name, r.id) AS role_names
+                FROM auth_user u""".formatted(sortExpression)).append(where);
+        if (query.cursor() != null && !query.cursor().isBlank()) {
+            List<String> values = CursorCodec.decode(query.cursor(), tag, 2);
+            sql.append(" AND (").append(sortExpression).append(", u.id) ")
+                    .append(query.descending() ? "<" : ">").append(" (:afterKey, :afterId)");
+            params.addValue("afterKey", parseKey(query.sort(), values.get(0)));
+            params.addValue("afterId", parseId(values.get(1)));
+        }
+        String direction = query.descending() ? " DESC" : " ASC";
+        sql.append(" ORDER BY ").append(sortExpression).append(direction).append(", u.id").append(direction)
+                .append(" LIMIT :limit");
+        params.addValue("limit", query.size() + 1);
+
+        List<Row> rows = new ArrayList<>(query.size());
+        String[] last = new String[2];
+        boolean[] hasMore = new boolean[1];
+        jdbcTemplate.query(sql.toString(), params, rs -> {
+            if (rows.size() == query.size()) {
+                // the extra row only signals that another page exists
+                hasMore[0] = true;
+                return;
+            }
+            rows.add(mapRow(rs));
+            last[0] = query.sort() == Sort.CREATED_AT
+                    ? rs.getObject("sort_key", LocalDateTime.class).toString()
+                    : rs.getString("sort_key");
+            last[1] = rs.getString("id");
+        });
+
+        String nextCursor = hasMore[0] ? CursorCodec.encode(tag, last[0], last[1]) : null;
+        return new CursorPage<>(rows, nextCursor, total, query.size());
+    }
+
+    private static Row mapRow(ResultSet rs) throws SQLException {
+        return new Row(
+                rs.getObject("id", UUID.class),
+                rs.getString("username"),
+                rs.getString("email"),
+                rs.getString("full_name"),
+                DefaultUserStatus.ACTIVE.getId().equals(rs.getObject("status_id", UUID.class)),
+                Arrays.asList((UUID[]) rs.getArray("role_ids").getArray()),
+                Arrays.asList((String[]) rs.getArray("role_names").getArray()));
+    }
+
+    private static Object parseKey(Sort sort, String value) {
+        if (sort != Sort.CREATED_AT) {
+            return value;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private static UUID parseId(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,75 @@
+package com.ferrisys.repository;
+
+import com.ferrisys.common.dto.ModuleDTO;
+import com.ferrisys.common.dto.auth.AuthSnapshot;
+import com.ferrisys.common.entity.user.User;
+import com.ferrisys.common.enums.DefaultUserStatus;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+/**
+ * Loads an {@link AuthSnapshot} with a single statement: one row per actively assigned module,
+ * or a single row with null module columns when the role has none.
+ */
+public interface AuthSnapshotRepository extends Repository<User, UUID> {
+
+    @Query(value = """
+            SELECT u.id AS userId, u.username AS username, u.email AS email, u.password AS password,
+                   r.id AS roleId, r.name AS roleName,
+                   m.id AS moduleId, m.name AS moduleName, m.description AS moduleDescription,
+                   m.status AS moduleStatus
+            FROM auth_user u
+            LEFT JOIN auth_user_role ur ON ur.auth_user_id = u.id
+            LEFT JOIN auth_role r ON r.id = ur.auth_role_id
+            LEFT JOIN auth_role_module rm ON rm.auth_role_id = r.id AND rm.status = 1
+            LEFT JOIN auth_module m ON m.id = rm.auth_module_id
+            WHERE u.username = :username AND u.status_id = :statusId
+            ORDER BY ur.status DESC NULLS LAST, ur.id, m.name
+            """, nativeQuery = true)
+    List<AuthSnapshotRow> findSnapshotRows(String username, UUID statusId);
+
+    default Optional<AuthSnapshot> findActiveByUsername(String username) {
+        List<AuthSnapshotRow> rows = findSnapshotRows(username, DefaultUserStatus.ACTIVE.getId());
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        AuthSnapshotRow first = rows.get(0);
+        List<ModuleDTO> modules = new ArrayList<>();
+        for (AuthSnapshotRow row : rows) {
+            // a user is expected to hold a single role; extra assignments are ignored
+            if (row.getModuleId() != null && Objects.equals(row.getRoleId(), first.getRoleId())) {
+                modules.add(new ModuleDTO(row.getModuleId().toString(), row.getModuleName(),
+                        row.getModuleDescription(), row.getModuleStatus()));
+            }
+        }
+        return Optional.of(new AuthSnapshot(first.getUserId(), first.getUsername(), first.getEmail(),
+                first.getPassword(), first.getRoleId(), first.getRoleName(), List.copyOf(modules)));
+    }
+
+    interface AuthSnapshotRow {
+        UUID getUserId();
+
+        String getUsername();
+
+        String getEmail();
+
+        String getPassword();
+
+        UUID getRoleId();
+
+        String getRoleName();
+
+        UUID getModuleId();
+
+        String getModuleName();
+
+        String getModuleDescription();
+
+        Integer getModuleStatus();
+    }
+}
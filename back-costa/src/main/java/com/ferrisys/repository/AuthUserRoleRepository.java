@@ -1,6 +1,7 @@
 package com.ferrisys.repository;
 
 import com.ferrisys.common.entity.user.AuthUserRole;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -15,6 +16,7 @@ public interface AuthUserRoleRepository extends JpaRepository<AuthUserRole, UUID
 
     Optional<AuthUserRole> findByUserId(UUID userId);
 
+    @EntityGraph(attributePaths = "role")
     List<AuthUserRole> findAllByUserIdIn(Collection<UUID> userIds);
 
     void deleteByUserId(UUID userId);
@@ -1,10 +1,13 @@
 package com.ferrisys.repository;
 
 import com.ferrisys.common.entity.inventory.Category;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.UUID;
 
 public interface CategoryRepository extends JpaRepository<Category, UUID> {
 
+    Page<Category> findByStatus(Integer status, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+package com.ferrisys.repository;
+
+import com.ferrisys.common.dto.PageResponse;
+import com.ferrisys.common.dto.ProductDTO;
+import com.ferrisys.common.exception.impl.BadRequestException;
+import com.ferrisys.common.exception.impl.NotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Maintains {@code inv_category.path}, the materialized path {@code /root/.../id/} of every
+ * category (V105). A subtree is the set of rows whose path starts with the root's path, which
+ * the {@code "C"}-collated btree on {@code path} serves as a plain range scan.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CategoryTreeRepository {
+
+    // Under the "C" collation every path below '/a/b/' sorts in ['/a/b/', '/a/b0'), since '0' follows '/'.
+    private static final String SUBTREE_PRODUCTS = """
+             FROM inv_category root
+            JOIN inv_category c ON c.path >= root.path AND c.path < left(root.path, -1) || '0'
+            JOIN inv_product p ON p.category_id = c.id
+            WHERE root.id = :id AND p.status = :status""";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record Row(UUID id, String name, UUID parentId, Integer status, String path) {}
+
+    /**
+     * Takes the tree lock and checks that {@code parentId} exists and is neither {@code id} nor
+     * one of its descendants ({@code id} is {@code null} for a category not saved yet). Called
+     * before the row is written, so a bad parent is reported rather than failing its foreign key.
+     */
+    public void checkParent(UUID id, UUID parentId) {
+        lockTree();
+        parentPath(id, parentId);
+    }
+
+    /**
+     * Recomputes the path of {@code id} under {@code parentId} (a root when {@code null}) and
+     * moves its descendants along. Rejects a parent that is the category itself or one of its
+     * descendants. Writers are serialized with a transaction-scoped advisory lock so two
+     * concurrent moves cannot close a cycle between them.
+     */
+    public void place(UUID id, UUID parentId) {
+        lockTree();
+        String newPath = parentPath(id, parentId) + id + "/";
+        String oldPath = pathOf(id);
+        if (newPath.equals(oldPath)) {
+            return;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("id", id).addValue("newPath", newPath);
+        if (oldPath == null || oldPath.isEmpty()) {
+            jdbcTemplate.update("UPDATE inv_category SET path = :newPath WHERE id = :id", params);
+        } else {
+            jdbcTemplate.update("""
+                    UPDATE inv_category
+                    SET path = :newPath || substr(path, :oldLength + 1)
+                    WHERE path >= :oldPath AND path < left(:oldPath, -1) || '0'""",
+                    params.addValue("oldPath", oldPath).addValue("oldLength", oldPath.length()));
+        }
+    }
+
+    /** Every category ordered by path, which is a pre-order walk of the tree. */
+    public List<Row> findAllInPathOrder() {
+        return jdbcTemplate.query(
+                "SELECT id, name, parent_category_id, status, path FROM inv_category ORDER BY path",
+                (rs, rowNum) -> new Row(
+                        rs.getObject("id", UUID.class),
+                        rs.getString("name"),
+                        rs.getObject("parent_category_id", UUID.class),
+                        rs.getObject("status", Integer.class),
+                        rs.getString("path")));
+    }
+
+    /**
+     * Products of the category and all of its descendants, newest first. The subtree is resolved
+     * from the root's path inside the same statement and the total comes from a window count, so
+     * a page is a single query.
+     */
+    public PageResponse<ProductDTO> findProductsInSubtree(UUID categoryId, int status, int page, int size) {
+        MapSqlParameterSource params = new MapSqlParameterSource("id", categoryId)
+                .addValue("status", status)
+                .addValue("limit", size)
+                .addValue("offset", (long) page * size);
+        List<ProductDTO> content = new ArrayList<>();
+        long[] total = {0};
+        jdbcTemplate.query("SELECT p.id, p.name, p.description, p.company_id, p.category_id, p.status,"
+                        + " count(*) OVER () AS total" + SUBTREE_PRODUCTS
+                        + " ORDER BY p.created_at DESC, p.id DESC LIMIT :limit OFFSET :offset",
+                params, (RowCallbackHandler) rs -> {
+                    total[0] = rs.getLong("total");
+                    content.add(new ProductDTO(
+                            rs.getObject("id", UUID.class),
+                            rs.getString("name"),
+                            rs.getString("description"),
+                            rs.getObject("company_id", UUID.class),
+                            rs.getObject("category_id", UUID.class),
+                            rs.getObject("status", Integer.class)));
+                });
+        if (content.isEmpty() && page > 0) {
+            Long count = jdbcTemplate.queryForObject("SELECT count(*)" + SUBTREE_PRODUCTS, params, Long.class);
+            total[0] = count == null ? 0 : count;
+        }
+        int totalPages = size == 0 ? 0 : (int) ((total[0] + size - 1) / size);
+        return PageResponse.of(content, totalPages, total[0], page, size);
+    }
+
+    private void lockTree() {
+        jdbcTemplate.getJdbcTemplate().query("SELECT pg_advisory_xact_lock(hashtext('inv_category_tree'))",
+                (RowCallbackHandler) rs -> { });
+    }
+
+    private String parentPath(UUID id, UUID parentId) {
+        if (parentId == null) {
+            return "/";
+        }
+        String parentPath = pathOf(parentId);
+        if (parentPath == null) {
+            throw new NotFoundException("Categoría padre no encontrada");
+        }
+        if (id != null && parentPath.contains("/" + id + "/")) {
+            throw new BadRequestException("Una categoría no puede ubicarse debajo de sí misma ni de sus descendientes");
+        }
+        return parentPath;
+    }
+
+    private String pathOf(UUID id) {
+        List<String> paths = jdbcTemplate.queryForList(
+                "SELECT path FROM inv_category WHERE id = :id", new MapSqlParameterSource("id", id), String.class);
+        return paths.isEmpty() ? null : paths.get(0);
+    }
+}
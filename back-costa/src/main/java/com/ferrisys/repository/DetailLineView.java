@@ -0,0 +1,16 @@
+package com.ferrisys.repository;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/** Projection of a purchase or quote line, keyed by the id of the document it belongs to. */
+public interface DetailLineView {
+
+    UUID getParentId();
+
+    UUID getProductId();
+
+    Integer getQuantity();
+
+    BigDecimal getUnitPrice();
+}
@@ -0,0 +1,114 @@
+package com.ferrisys.repository;
+
+import com.ferrisys.common.dto.CursorPage;
+import com.ferrisys.common.exception.impl.BadRequestException;
+import com.ferrisys.common.pagination.CursorCodec;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Newest-first keyset pagination over {@code (created_at, id)} for catalog and document tables.
+ * Every page is a range scan on {@code idx_<table>_active_created_id} (active rows) or
+ * {@code idx_<table>_created_id} (any other status) that reads at most
+ * {@code size + 1} rows, and the optional total is a planner estimate rather than a
+ * {@code count(*)}, so a deep page costs the same as the first one.
+ */
+@Repository
+@RequiredArgsConstructor
+public class KeysetPageQuery {
+
+    private static final String TAG = "created";
+    private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\":\\s*(\\d+)");
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public enum Table {
+        CATEGORY("inv_category"),
+        PRODUCT("inv_product"),
+        CLIENT("bus_client"),
+        PROVIDER("bus_provider"),
+        QUOTE("bus_quote"),
+        PURCHASE("bus_purchase");
+
+        private final String name;
+
+        Table(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Reads the page of rows with the given {@code status} after {@code cursor} (the first page
+     * when blank). {@code columns} is the select list for {@code mapper}; the key columns are
+     * added automatically.
+     */
+    public <T> CursorPage<T> find(Table table, int status, String columns, String cursor, int size,
+                                  boolean includeTotal, RowMapper<T> mapper) {
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", size + 1);
+        // a literal, not a bind: once the driver prepares the statement server-side a generic plan
+        // cannot prove "status = $1" matches the partial index predicate
+        StringBuilder sql = new StringBuilder("SELECT ").append(columns)
+                .append(", created_at AS keyset_created_at, id AS keyset_id FROM ").append(table.name)
+                .append(" WHERE status = ").append(status);
+        if (cursor != null && !cursor.isBlank()) {
+            List<String> values = CursorCodec.decode(cursor, TAG, 2);
+            sql.append(" AND (created_at, id) < (:afterCreated, :afterId)");
+            params.addValue("afterCreated", parseCreated(values.get(0)));
+            params.addValue("afterId", parseId(values.get(1)));
+        }
+        sql.append(" ORDER BY created_at DESC, id DESC LIMIT :limit");
+
+        List<T> rows = new ArrayList<>(size);
+        String[] last = new String[2];
+        boolean[] hasMore = new boolean[1];
+        jdbcTemplate.query(sql.toString(), params, rs -> {
+            if (rows.size() == size) {
+                hasMore[0] = true;
+                return;
+            }
+            rows.add(mapper.mapRow(rs, rows.size()));
+            last[0] = rs.getObject("keyset_created_at", LocalDateTime.class).toString();
+            last[1] = rs.getString("keyset_id");
+        });
+
+        String nextCursor = hasMore[0] ? CursorCodec.encode(TAG, last[0], last[1]) : null;
+        return new CursorPage<>(rows, nextCursor, includeTotal ? estimateCount(table, status) : null, size);
+    }
+
+    /**
+     * Planner estimate of the rows with {@code status}: {@code reltuples} from {@code pg_class}
+     * scaled by the selectivity of the status filter, both kept by ANALYZE/autovacuum.
+     */
+    private Long estimateCount(Table table, int status) {
+        List<String> plan = jdbcTemplate.getJdbcOperations().queryForList(
+                "EXPLAIN (FORMAT JSON) SELECT 1 FROM " + table.name + " WHERE status = " + status, String.class);
+        Matcher matcher = PLAN_ROWS.matcher(String.join("", plan));
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : null;
+    }
+
+    private static LocalDateTime parseCreated(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private static UUID parseId(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.ferrisys.repository;
+
+import com.ferrisys.common.dto.CursorPage;
+import com.ferrisys.common.exception.impl.BadRequestException;
+import com.ferrisys.common.id.UuidV7;
+import com.ferrisys.common.pagination.CursorCodec;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Set-based access to {@code module_license}: one-statement provisioning of a tenant x module
+ * matrix and keyset-paginated listings, so neither grows in round trips with the number of rows.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ModuleLicenseQueryRepository {
+
+    private static final String COLUMNS = """
+            SELECT l.id, l.tenant_id, l.module_id, m.name AS module_name, l.enabled, l.expires_at
+            FROM module_license l
+            JOIN auth_module m ON m.id = l.module_id""";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record Row(UUID id, UUID tenantId, UUID moduleId, String moduleName, boolean enabled,
+                      OffsetDateTime expiresAt) {}
+
+    public record UpsertResult(int inserted, int updated) {}
+
+    /**
+     * Creates or updates the license of every tenant for every module in a single statement,
+     * relying on the unique {@code (tenant_id, module_id)} index for conflict detection.
+     */
+    public UpsertResult upsertMatrix(Collection<UUID> tenantIds, Collection<UUID> moduleIds, boolean enabled,
+                                     OffsetDateTime expiresAt) {
+        int cells = tenantIds.size() * moduleIds.size();
+        UUID[] ids = new UUID[cells];
+        UUID[] tenants = new UUID[cells];
+        UUID[] modules = new UUID[cells];
+        int i = 0;
+        for (UUID tenantId : tenantIds) {
+            for (UUID moduleId : moduleIds) {
+                ids[i] = UuidV7.generate();
+                tenants[i] = tenantId;
+                modules[i] = moduleId;
+                i++;
+            }
+        }
+
+        int[] counts = new int[2];
+        jdbcTemplate.getJdbcOperations().query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement("""
+                            INSERT INTO module_license (id, tenant_id, module_id, enabled, expires_at)
+                            SELECT c.id, c.tenant_id, c.module_id, ?, ?
+                            FROM unnest(?::uuid[], ?::uuid[], ?::uuid[]) AS c (id, tenant_id, module_id)
+                            ON CONFLICT (tenant_id, module_id)
+                            DO UPDATE SET enabled = EXCLUDED.enabled, expires_at = EXCLUDED.expires_at
+                            RETURNING (xmax = 0) AS inserted""");
+                    ps.setBoolean(1, enabled);
+                    if (expiresAt != null) {
+                        ps.setObject(2, expiresAt);
+                    } else {
+                        ps.setNull(2, Types.TIMESTAMP_WITH_TIMEZONE);
+                    }
+                    ps.setArray(3, connection.createArrayOf("uuid", ids));
+                    ps.setArray(4, connection.createArrayOf("uuid", tenants));
+                    ps.setArray(5, connection.createArrayOf("uuid", modules));
+                    return ps;
+                },
+                rs -> {
+                    counts[rs.getBoolean(1) ? 0 : 1]++;
+                });
+        return new UpsertResult(counts[0], counts[1]);
+    }
+
+    /** Licenses ordered by tenant then module, optionally restricted to one tenant. */
+    public CursorPage<Row> findPage(UUID tenantId, String cursor, int size) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder sql = new StringBuilder(COLUMNS).append(" WHERE 1 = 1");
+        if (tenantId != null) {
+            sql.append(" AND l.tenant_id = :tenantId");
+            params.addValue("tenantId", tenantId);
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            List<String> values = CursorCodec.decode(cursor, "tenant", 2);
+            sql.append(" AND (l.tenant_id, l.module_id) > (:afterTenant, :afterModule)");
+            params.addValue("afterTenant", parseId(values.get(0)));
+            params.addValue("afterModule", parseId(values.get(1)));
+        }
+        sql.append(" ORDER BY l.tenant_id, l.module_id LIMIT :limit");
+        params.addValue("limit", size + 1);
+
+        List<Row> rows = jdbcTemplate.query(sql.toString(), params, (rs, n) -> mapRow(rs));
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null, null, size);
+        }
+        List<Row> content = rows.subList(0, size);
+        Row last = content.get(size - 1);
+        String next = CursorCodec.encode("tenant", last.tenantId().toString(), last.moduleId().toString());
+        return new CursorPage<>(new ArrayList<>(content), next, null, size);
+    }
+
+    /** Licenses whose {@code expires_at} falls in {@code [from, to)}, soonest first. */
+    public CursorPage<Row> findExpiring(OffsetDateTime from, OffsetDateTime to, String cursor, int size) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", from)
+                .addValue("to", to);
+        StringBuilder sql = new StringBuilder(COLUMNS)
+                .append(" WHERE l.expires_at >= :from AND l.expires_at < :to");
+        if (cursor != null && !cursor.isBlank()) {
+            List<String> values = CursorCodec.decode(cursor, "expires", 2);
+            sql.append(" AND (l.expires_at, l.id) > (:afterExpiry, :afterId)");
+            params.addValue("afterExpiry", parseTime(values.get(0)));
+            params.addValue("afterId", parseId(values.get(1)));
+        }
+        sql.append(" ORDER BY l.expires_at, l.id LIMIT :limit");
+        params.addValue("limit", size + 1);
+
+        List<Row> rows = jdbcTemplate.query(sql.toString(), params, (rs, n) -> mapRow(rs));
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null, null, size);
+        }
+        List<Row> content = rows.subList(0, size);
+        Row last = content.get(size - 1);
+        String next = CursorCodec.encode("expires", last.expiresAt().toString(), last.id().toString());
+        return new CursorPage<>(new ArrayList<>(content), next, null, size);
+    }
+
+    private static Row mapRow(ResultSet rs) throws SQLException {
+        return new Row(
+                rs.getObject("id", UUID.class),
+                rs.getObject("tenant_id", UUID.class),
+                rs.getObject("module_id", UUID.class),
+                rs.getString("module_name"),
+                rs.getBoolean("enabled"),
+                rs.getObject("expires_at", OffsetDateTime.class));
+    }
+
+    private static UUID parseId(String value) {
+        try {
+            return UUID.fromString(value);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private static OffsetDateTime parseTime(String value) {
+        try {
+            return OffsetDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
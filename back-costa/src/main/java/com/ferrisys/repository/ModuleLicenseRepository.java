@@ -1,6 +1,8 @@
 package com.ferrisys.repository;
 
 import com.ferrisys.common.entity.license.ModuleLicense;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,4 +12,6 @@ import org.springframework.stereotype.Repository;
 public interface ModuleLicenseRepository extends JpaRepository<ModuleLicense, UUID> {
 
     Optional<ModuleLicense> findByTenantIdAndModule_Id(UUID tenantId, UUID moduleId);
+
+    List<ModuleLicense> findByTenantIdIn(Collection<UUID> tenantIds);
 }
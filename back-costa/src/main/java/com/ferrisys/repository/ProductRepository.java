@@ -1,10 +1,21 @@
 package com.ferrisys.repository;
 
+import com.ferrisys.common.dto.ProductDTO;
 import com.ferrisys.common.entity.inventory.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.UUID;
 
 public interface ProductRepository extends JpaRepository<Product, UUID> {
 
+    long countByIdIn(Collection<UUID> ids);
+
+    @Query(value = "SELECT new com.ferrisys.common.dto.ProductDTO(p.id, p.name, p.description, p.companyId, p.category.id, p.status) "
+            + "FROM Product p WHERE p.status = :status",
+            countQuery = "SELECT count(p) FROM Product p WHERE p.status = :status")
+    Page<ProductDTO> findPage(Integer status, Pageable pageable);
 }
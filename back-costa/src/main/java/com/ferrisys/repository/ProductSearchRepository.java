@@ -0,0 +1,99 @@
+package com.ferrisys.repository;
+
+import com.ferrisys.common.dto.ProductDTO;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Ranked product search over {@code search_vector} (V104). When the full-text query finds fewer
+ * products than the limit, each word of the term is replaced by the closest word of the product
+ * name vocabulary (V108, trigram similarity) and the corrected query fills the rest, so typos
+ * still find something. The GIN index returns matches unordered and a common word matches tens
+ * of thousands of products, so at most {@value #CANDIDATES} of them are ranked.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductSearchRepository {
+
+    private static final int CANDIDATES = 200;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public record Query(String text, Integer status, UUID categoryId, UUID companyId, int limit) {}
+
+    public List<ProductDTO> search(Query query) {
+        List<ProductDTO> found = fullText(query, query.text(), query.limit(), List.of());
+        if (found.size() >= query.limit()) {
+            return found;
+        }
+        String corrected = correct(query.text());
+        if (corrected == null || corrected.equals(query.text().toLowerCase(Locale.ROOT))) {
+            return found;
+        }
+        List<ProductDTO> results = new ArrayList<>(found);
+        results.addAll(fullText(query, corrected, query.limit() - found.size(),
+                found.stream().map(ProductDTO::getId).toList()));
+        return results;
+    }
+
+    private List<ProductDTO> fullText(Query query, String text, int limit, List<UUID> excluded) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("text", text)
+                .addValue("limit", limit)
+                .addValue("candidates", Math.max(CANDIDATES, limit));
+        StringBuilder sql = new StringBuilder("""
+                SELECT id, name, description, company_id, category_id, status
+                FROM (
+                    SELECT p.id, p.name, p.description, p.company_id, p.category_id, p.status,
+                           ts_rank_cd(p.search_vector, tsq) AS rank
+                    FROM inv_product p, websearch_to_tsquery('spanish', :text) AS tsq
+                    WHERE p.search_vector @@ tsq""");
+        if (query.status() != null) {
+            sql.append(" AND p.status = :status");
+            params.addValue("status", query.status());
+        }
+        if (query.categoryId() != null) {
+            sql.append(" AND p.category_id = :categoryId");
+            params.addValue("categoryId", query.categoryId());
+        }
+        if (query.companyId() != null) {
+            sql.append(" AND p.company_id = :companyId");
+            params.addValue("companyId", query.companyId());
+        }
+        if (!excluded.isEmpty()) {
+            sql.append(" AND p.id NOT IN (:excluded)");
+            params.addValue("excluded", excluded);
+        }
+        sql.append(" LIMIT :candidates) m ORDER BY rank DESC, id LIMIT :limit");
+
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> new ProductDTO(
+                rs.getObject("id", UUID.class),
+                rs.getString("name"),
+                rs.getString("description"),
+                rs.getObject("company_id", UUID.class),
+                rs.getObject("category_id", UUID.class),
+                rs.getObject("status", Integer.class)));
+    }
+
+    /** The term with each plain word swapped for its closest vocabulary word; codes and operators stay. */
+    private String correct(String text) {
+        return jdbcTemplate.queryForObject("""
+                SELECT string_agg(COALESCE(v.word, t.term), ' ' ORDER BY t.n)
+                FROM regexp_split_to_table(lower(:text), '[[:space:]]+') WITH ORDINALITY AS t(term, n)
+                LEFT JOIN LATERAL (
+                    SELECT w.word
+                    FROM inv_product_word w
+                    WHERE t.term ~ '^[^[:digit:][:punct:]]{3,}$' AND w.word % t.term
+                    ORDER BY similarity(w.word, t.term) DESC, w.word
+                    LIMIT 1
+                ) v ON TRUE
+                WHERE t.term <> ''""",
+                new MapSqlParameterSource("text", text), String.class);
+    }
+}
@@ -3,9 +3,16 @@ package com.ferrisys.repository;
 import com.ferrisys.common.entity.business.Purchase;
 import com.ferrisys.common.entity.business.PurchaseDetail;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public interface PurchaseDetailRepository extends JpaRepository<PurchaseDetail, UUID> {
     void deleteByPurchase(Purchase purchase);
+
+    @Query("SELECT d.purchase.id AS parentId, d.product.id AS productId, d.quantity AS quantity, d.unitPrice AS unitPrice "
+            + "FROM PurchaseDetail d WHERE d.purchase.id IN :purchaseIds ORDER BY d.createdAt, d.id")
+    List<DetailLineView> findLinesByPurchaseIdIn(Collection<UUID> purchaseIds);
 }
@@ -1,10 +1,14 @@
 package com.ferrisys.repository;
 
 import com.ferrisys.common.entity.business.Purchase;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import java.util.UUID;
 
 @Repository
 public interface PurchaseRepository extends JpaRepository<Purchase, UUID> {
+
+    Page<Purchase> findByStatus(Integer status, Pageable pageable);
 }
@@ -3,9 +3,16 @@ package com.ferrisys.repository;
 import com.ferrisys.common.entity.business.Quote;
 import com.ferrisys.common.entity.business.QuoteDetail;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public interface QuoteDetailRepository extends JpaRepository<QuoteDetail, UUID> {
     void deleteByQuote(Quote quote);
+
+    @Query("SELECT d.quote.id AS parentId, d.product.id AS productId, d.quantity AS quantity, d.unitPrice AS unitPrice "
+            + "FROM QuoteDetail d WHERE d.quote.id IN :quoteIds ORDER BY d.createdAt, d.id")
+    List<DetailLineView> findLinesByQuoteIdIn(Collection<UUID> quoteIds);
 }
@@ -1,10 +1,14 @@
 package com.ferrisys.repository;
 
 import com.ferrisys.common.entity.business.Quote;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import java.util.UUID;
 
 @Repository
 public interface QuoteRepository extends JpaRepository<Quote, UUID> {
+
+    Page<Quote> findByStatus(Integer status, Pageable pageable);
 }
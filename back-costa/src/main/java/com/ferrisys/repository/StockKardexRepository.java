@@ -0,0 +1,188 @@
+package com.ferrisys.repository;
+
+import com.ferrisys.common.dto.KardexEntryDTO;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reads the stock ledger as a kardex. The balance at any instant is the last monthly checkpoint
+ * ({@code inv_stock_checkpoint}, V107) before it plus the movements since, so the cost of a range
+ * no longer depends on how much history precedes it.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockKardexRepository {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private record Checkpoint(LocalDateTime at, long quantity) {}
+
+    public LocalDateTime findLatestCheckpointAt() {
+        return jdbcTemplate.queryForObject("SELECT MAX(checkpoint_at) FROM inv_stock_checkpoint", LocalDateTime.class);
+    }
+
+    public LocalDateTime findFirstMovementAt() {
+        return jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM inv_stock_movement", LocalDateTime.class);
+    }
+
+    /**
+     * Writes the checkpoint at {@code at} for every product/warehouse that moved in
+     * {@code [from, at)}: its previous checkpoint plus every movement since, normally just that
+     * month's. Products that did not move keep their older checkpoint. Re-running a month rewrites
+     * only the checkpoints that changed, i.e. those of movements that committed after the month
+     * was first closed. Returns the checkpoints written.
+     */
+    public int closePeriod(LocalDateTime from, LocalDateTime at) {
+        return jdbcTemplate.update("""
+                INSERT INTO inv_stock_checkpoint (product_id, warehouse_id, checkpoint_at, quantity)
+                SELECT m.product_id, m.warehouse_id, ?, COALESCE(cp.quantity, 0) + gap.quantity + m.quantity
+                FROM (
+                    SELECT product_id, warehouse_id, SUM(quantity) AS quantity
+                    FROM inv_stock_movement
+                    WHERE created_at >= ? AND created_at < ?
+                    GROUP BY product_id, warehouse_id
+                ) m
+                LEFT JOIN LATERAL (
+                    SELECT c.checkpoint_at, c.quantity
+                    FROM inv_stock_checkpoint c
+                    WHERE c.product_id = m.product_id AND c.warehouse_id = m.warehouse_id AND c.checkpoint_at < ?
+                    ORDER BY c.checkpoint_at DESC
+                    LIMIT 1
+                ) cp ON TRUE
+                CROSS JOIN LATERAL (
+                    SELECT COALESCE(SUM(g.quantity), 0) AS quantity
+                    FROM inv_stock_movement g
+                    WHERE g.product_id = m.product_id AND g.warehouse_id = m.warehouse_id AND g.created_at < ?
+                      AND g.created_at >= COALESCE(cp.checkpoint_at, TIMESTAMP '-infinity')
+                ) gap
+                ON CONFLICT (product_id, warehouse_id, checkpoint_at)
+                DO UPDATE SET quantity = EXCLUDED.quantity
+                WHERE inv_stock_checkpoint.quantity <> EXCLUDED.quantity""",
+                Timestamp.valueOf(at), Timestamp.valueOf(from), Timestamp.valueOf(at), Timestamp.valueOf(at),
+                Timestamp.valueOf(from));
+    }
+
+    /**
+     * Rewrites every checkpoint that no longer equals the sum of the movements before it, e.g.
+     * after a movement committed into a month that was already closed and re-closed. Scans the
+     * ledger once, with monthly running totals; all products when {@code productId} is null.
+     * Returns the checkpoints rewritten.
+     */
+    public int repairCheckpoints(UUID productId) {
+        return jdbcTemplate.update("""
+                WITH monthly AS (
+                    SELECT product_id, warehouse_id,
+                           date_trunc('month', created_at) + INTERVAL '1 month' AS checkpoint_at,
+                           SUM(quantity) AS quantity
+                    FROM inv_stock_movement
+                    WHERE (CAST(? AS uuid) IS NULL OR product_id = ?)
+                    GROUP BY 1, 2, 3
+                ), expected AS (
+                    SELECT product_id, warehouse_id, checkpoint_at,
+                           SUM(quantity) OVER (PARTITION BY product_id, warehouse_id ORDER BY checkpoint_at) AS quantity
+                    FROM monthly
+                )
+                UPDATE inv_stock_checkpoint c
+                SET quantity = e.quantity
+                FROM expected e
+                WHERE c.product_id = e.product_id AND c.warehouse_id = e.warehouse_id
+                  AND c.checkpoint_at = e.checkpoint_at AND c.quantity <> e.quantity""",
+                productId, productId);
+    }
+
+    /** Balance just before {@code at}; the full balance when {@code at} is null. */
+    public long findBalanceBefore(UUID productId, UUID warehouseId, LocalDateTime at) {
+        List<Checkpoint> checkpoints = new ArrayList<>();
+        if (at != null) {
+            checkpoints = jdbcTemplate.query("""
+                    SELECT checkpoint_at, quantity
+                    FROM inv_stock_checkpoint
+                    WHERE product_id = ? AND warehouse_id = ? AND checkpoint_at <= ?
+                    ORDER BY checkpoint_at DESC
+                    LIMIT 1""",
+                    (rs, rowNum) -> new Checkpoint(rs.getObject("checkpoint_at", LocalDateTime.class), rs.getLong("quantity")),
+                    productId, warehouseId, Timestamp.valueOf(at));
+        }
+        Checkpoint checkpoint = checkpoints.isEmpty() ? null : checkpoints.get(0);
+
+        StringBuilder sql = new StringBuilder(
+                "SELECT COALESCE(SUM(quantity), 0) FROM inv_stock_movement WHERE product_id = ? AND warehouse_id = ?");
+        List<Object> args = new ArrayList<>(List.of(productId, warehouseId));
+        if (checkpoint != null) {
+            sql.append(" AND created_at >= ?");
+            args.add(Timestamp.valueOf(checkpoint.at()));
+        }
+        if (at != null) {
+            sql.append(" AND created_at < ?");
+            args.add(Timestamp.valueOf(at));
+        }
+        Long moved = jdbcTemplate.queryForObject(sql.toString(), Long.class, args.toArray());
+        return (checkpoint != null ? checkpoint.quantity() : 0L) + (moved != null ? moved : 0L);
+    }
+
+    /**
+     * Streams the movements in {@code [from, to)} in ledger order with their running balance,
+     * starting from {@code opening}. Rows are read in keyset pages of {@value #PAGE_SIZE} on
+     * {@code (created_at, id)}, each its own short query, so memory stays flat however long the
+     * range is and no connection is held between pages.
+     */
+    public long streamMovements(UUID productId, UUID warehouseId, LocalDateTime from, LocalDateTime to, long opening,
+                                Consumer<KardexEntryDTO> sink) {
+        long[] balance = {opening};
+        KardexEntryDTO last = null;
+        while (true) {
+            List<KardexEntryDTO> page = findMovementPage(productId, warehouseId, from, to, last, balance);
+            page.forEach(sink);
+            if (page.size() < PAGE_SIZE) {
+                return balance[0];
+            }
+            last = page.get(page.size() - 1);
+        }
+    }
+
+    private List<KardexEntryDTO> findMovementPage(UUID productId, UUID warehouseId, LocalDateTime from,
+                                                  LocalDateTime to, KardexEntryDTO after, long[] balance) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT id, created_at, movement_type, source_id, quantity, note
+                FROM inv_stock_movement
+                WHERE product_id = ? AND warehouse_id = ?""");
+        List<Object> args = new ArrayList<>(List.of(productId, warehouseId));
+        if (after != null) {
+            sql.append(" AND (created_at, id) > (?, ?)");
+            args.add(Timestamp.valueOf(after.createdAt()));
+            args.add(after.movementId());
+        } else if (from != null) {
+            sql.append(" AND created_at >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND created_at < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        sql.append(" ORDER BY created_at, id LIMIT ").append(PAGE_SIZE);
+
+        return jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> {
+                    int quantity = rs.getInt("quantity");
+                    balance[0] += quantity;
+                    return new KardexEntryDTO(
+                            rs.getObject("id", UUID.class),
+                            rs.getObject("created_at", LocalDateTime.class),
+                            rs.getString("movement_type"),
+                            rs.getObject("source_id", UUID.class),
+                            quantity,
+                            balance[0],
+                            rs.getString("note"));
+                },
+                args.toArray());
+    }
+}
@@ -0,0 +1,170 @@
+package com.ferrisys.repository;
+
+import com.ferrisys.common.dto.StockBalanceDTO;
+import com.ferrisys.common.dto.StockDiscrepancyDTO;
+import com.ferrisys.common.enums.StockMovementType;
+import com.ferrisys.common.id.UuidV7;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * {@code inv_stock_movement} is the source of truth; {@code inv_stock_balance} keeps each
+ * product/warehouse balance split over several shard rows so concurrent writers of a hot product
+ * lock different rows. Movements and balance deltas are written in the caller's transaction, so
+ * the balance always equals the ledger once committed.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockLedgerRepository {
+
+    private static final String LEDGER_VS_BALANCE = """
+            WITH ledger AS (
+                SELECT product_id, warehouse_id, SUM(quantity) AS quantity
+                FROM inv_stock_movement
+                WHERE (CAST(? AS uuid) IS NULL OR product_id = ?)
+                GROUP BY product_id, warehouse_id
+            ), balance AS (
+                SELECT product_id, warehouse_id, SUM(quantity) AS quantity
+                FROM inv_stock_balance
+                WHERE (CAST(? AS uuid) IS NULL OR product_id = ?)
+                GROUP BY product_id, warehouse_id
+            ), diff AS (
+                SELECT COALESCE(l.product_id, b.product_id) AS product_id,
+                       COALESCE(l.warehouse_id, b.warehouse_id) AS warehouse_id,
+                       COALESCE(l.quantity, 0) AS ledger_quantity,
+                       COALESCE(b.quantity, 0) AS balance_quantity
+                FROM ledger l
+                FULL JOIN balance b ON b.product_id = l.product_id AND b.warehouse_id = l.warehouse_id
+                WHERE COALESCE(l.quantity, 0) <> COALESCE(b.quantity, 0)
+            )""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Movement(UUID productId, UUID warehouseId, int quantity, StockMovementType type, UUID sourceId,
+                           String note) {}
+
+    public record Delta(UUID productId, UUID warehouseId, int shard, long quantity) {}
+
+    public record Key(UUID productId, UUID warehouseId) {}
+
+    public void insertMovements(List<Movement> movements) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO inv_stock_movement (id, product_id, warehouse_id, quantity, movement_type, source_id, note, created_at)"
+                        + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                movements,
+                movements.size(),
+                (ps, movement) -> {
+                    ps.setObject(1, UuidV7.generate());
+                    ps.setObject(2, movement.productId());
+                    ps.setObject(3, movement.warehouseId());
+                    ps.setInt(4, movement.quantity());
+                    ps.setString(5, movement.type().name());
+                    ps.setObject(6, movement.sourceId());
+                    ps.setString(7, movement.note());
+                    ps.setTimestamp(8, now);
+                });
+    }
+
+    /** Adds the deltas to their shard rows; callers pass them in a stable order to avoid deadlocks. */
+    public void addToBalances(List<Delta> deltas) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO inv_stock_balance (product_id, warehouse_id, shard, quantity, updated_at)
+                VALUES (?, ?, ?, ?, ?)
+                ON CONFLICT (product_id, warehouse_id, shard)
+                DO UPDATE SET quantity = inv_stock_balance.quantity + EXCLUDED.quantity, updated_at = EXCLUDED.updated_at""",
+                deltas,
+                deltas.size(),
+                (ps, delta) -> {
+                    ps.setObject(1, delta.productId());
+                    ps.setObject(2, delta.warehouseId());
+                    ps.setShort(3, (short) delta.shard());
+                    ps.setLong(4, delta.quantity());
+                    ps.setTimestamp(5, now);
+                });
+    }
+
+    /**
+     * Serializes stock bookings of one source document until the transaction ends, so two saves
+     * of the same document cannot both book the same difference.
+     */
+    public void lockSource(StockMovementType type, UUID sourceId) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext(?))", rs -> { }, type.name() + ':' + sourceId);
+    }
+
+    /** Net quantity already booked for a source document, per product and warehouse. */
+    public Map<Key, Long> netBySource(StockMovementType type, UUID sourceId) {
+        Map<Key, Long> net = new HashMap<>();
+        jdbcTemplate.query("""
+                SELECT product_id, warehouse_id, SUM(quantity) AS quantity
+                FROM inv_stock_movement
+                WHERE source_id = ? AND movement_type = ?
+                GROUP BY product_id, warehouse_id""",
+                rs -> {
+                    net.put(new Key(rs.getObject("product_id", UUID.class), rs.getObject("warehouse_id", UUID.class)),
+                            rs.getLong("quantity"));
+                },
+                sourceId, type.name());
+        return net;
+    }
+
+    public List<StockBalanceDTO> findBalances(UUID productId) {
+        return jdbcTemplate.query("""
+                SELECT product_id, warehouse_id, SUM(quantity) AS quantity
+                FROM inv_stock_balance
+                WHERE product_id = ?
+                GROUP BY product_id, warehouse_id
+                ORDER BY warehouse_id""",
+                (rs, rowNum) -> new StockBalanceDTO(
+                        rs.getObject("product_id", UUID.class),
+                        rs.getObject("warehouse_id", UUID.class),
+                        rs.getLong("quantity")),
+                productId);
+    }
+
+    /** Product/warehouse pairs whose shards do not sum to the ledger; all products when {@code productId} is null. */
+    public List<StockDiscrepancyDTO> findDiscrepancies(UUID productId) {
+        return jdbcTemplate.query(LEDGER_VS_BALANCE + " SELECT * FROM diff ORDER BY product_id, warehouse_id",
+                (rs, rowNum) -> new StockDiscrepancyDTO(
+                        rs.getObject("product_id", UUID.class),
+                        rs.getObject("warehouse_id", UUID.class),
+                        rs.getLong("ledger_quantity"),
+                        rs.getLong("balance_quantity")),
+                productId, productId, productId, productId);
+    }
+
+    /**
+     * Books the difference between ledger and balance onto shard 0. Both sums come from the same
+     * statement snapshot, and a writer commits its movement and its shard delta together, so
+     * in-flight writers are either fully counted or not at all and the correction stays exact
+     * without locking them out. Repairs themselves are serialized with a transaction-scoped
+     * advisory lock: two running on the same snapshot would each book the same difference. Must
+     * run inside a transaction.
+     */
+    public List<StockDiscrepancyDTO> repairDiscrepancies(UUID productId) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext('inv_stock_reconcile'))", rs -> { });
+        return jdbcTemplate.query(LEDGER_VS_BALANCE + """
+                , fixed AS (
+                    INSERT INTO inv_stock_balance (product_id, warehouse_id, shard, quantity, updated_at)
+                    SELECT product_id, warehouse_id, 0, ledger_quantity - balance_quantity, NOW()
+                    FROM diff
+                    ON CONFLICT (product_id, warehouse_id, shard)
+                    DO UPDATE SET quantity = inv_stock_balance.quantity + EXCLUDED.quantity, updated_at = EXCLUDED.updated_at
+                )
+                SELECT * FROM diff ORDER BY product_id, warehouse_id""",
+                (rs, rowNum) -> new StockDiscrepancyDTO(
+                        rs.getObject("product_id", UUID.class),
+                        rs.getObject("warehouse_id", UUID.class),
+                        rs.getLong("ledger_quantity"),
+                        rs.getLong("balance_quantity")),
+                productId, productId, productId, productId);
+    }
+}
@@ -3,6 +3,9 @@ package com.ferrisys.repository;
 import com.ferrisys.common.entity.user.User;
 import com.ferrisys.common.entity.user.UserStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -16,4 +19,9 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmailAndStatus(String email, UserStatus status);
     Optional<User> findByUsernameAndStatus(String username, UserStatus status);
 
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(UUID id, String password);
+
 }
@@ -1,5 +1,6 @@
 package com.ferrisys.service;
 
+import com.ferrisys.service.license.ModuleFlag;
 import java.util.UUID;
 
 public interface FeatureFlagService {
@@ -7,4 +8,8 @@ public interface FeatureFlagService {
     boolean enabled(UUID tenantId, String moduleSlug);
 
     boolean enabledForCurrentUser(String moduleSlug);
+
+    ModuleFlag resolve(String moduleSlug);
+
+    boolean enabled(UUID tenantId, ModuleFlag flag);
 }
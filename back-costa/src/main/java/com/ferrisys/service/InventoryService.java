@@ -1,9 +1,12 @@
 package com.ferrisys.service;
 
 import com.ferrisys.common.dto.CategoryDTO;
+import com.ferrisys.common.dto.CategoryNodeDTO;
+import com.ferrisys.common.dto.CursorPage;
 import com.ferrisys.common.dto.ProductDTO;
 import com.ferrisys.common.dto.PageResponse;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface InventoryService {
@@ -11,6 +14,13 @@ public interface InventoryService {
     void saveOrUpdateProduct(ProductDTO dto);
     void disableCategory(UUID id);
     void disableProduct(UUID id);
-    PageResponse<CategoryDTO> listCategories(int page, int size);
-    PageResponse<ProductDTO> listProducts(int page, int size);
+    PageResponse<CategoryDTO> listCategories(int status, int page, int size);
+    PageResponse<ProductDTO> listProducts(int status, int page, int size);
+    CursorPage<CategoryDTO> scrollCategories(int status, String cursor, int size, boolean includeTotal);
+    CursorPage<ProductDTO> scrollProducts(int status, String cursor, int size, boolean includeTotal);
+    List<ProductDTO> searchProducts(String query, Integer status, UUID categoryId, UUID companyId, int limit);
+    List<CategoryNodeDTO> getCategorySubtree(UUID categoryId);
+    List<CategoryNodeDTO> getCategoryAncestors(UUID categoryId);
+    List<CategoryNodeDTO> getCategoryBreadcrumb(UUID categoryId);
+    PageResponse<ProductDTO> listProductsInCategory(UUID categoryId, int status, int page, int size);
 }
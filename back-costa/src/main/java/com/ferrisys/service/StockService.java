@@ -0,0 +1,28 @@
+package com.ferrisys.service;
+
+import com.ferrisys.common.dto.KardexEntryDTO;
+import com.ferrisys.common.dto.StockAdjustmentDTO;
+import com.ferrisys.common.dto.StockBalanceDTO;
+import com.ferrisys.common.dto.StockDiscrepancyDTO;
+import com.ferrisys.common.enums.StockMovementType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+public interface StockService {
+    /** Warehouse used until warehouses are modelled; every document books stock here. */
+    UUID DEFAULT_WAREHOUSE_ID = new UUID(0L, 0L);
+
+    void syncSource(StockMovementType type, UUID sourceId, Map<UUID, Long> quantityByProduct);
+    void adjust(StockAdjustmentDTO dto);
+    List<StockBalanceDTO> getBalances(UUID productId);
+    List<StockDiscrepancyDTO> reconcile(UUID productId, boolean repair);
+    KardexRange openKardex(UUID productId, UUID warehouseId, LocalDateTime from, LocalDateTime to);
+    void streamKardex(KardexRange range, Consumer<KardexEntryDTO> sink);
+
+    /** A validated kardex request and its balance at {@code from}. */
+    record KardexRange(UUID productId, UUID warehouseId, LocalDateTime from, LocalDateTime to, long opening) {}
+}
@@ -4,8 +4,10 @@ import com.ferrisys.common.dto.AuthResponse;
 import com.ferrisys.common.dto.ModuleDTO;
 import com.ferrisys.common.dto.PageResponse;
 import com.ferrisys.common.dto.RegisterRequest;
+import com.ferrisys.common.dto.auth.AuthSnapshot;
 import com.ferrisys.common.entity.user.AuthUserRole;
 import com.ferrisys.common.entity.user.User;
+import com.ferrisys.service.menu.ModuleMenu;
 
 import java.util.UUID;
 
@@ -21,6 +23,8 @@ public interface UserService {
 
     AuthUserRole getUserRole(UUID userId);
 
+    AuthSnapshot getAuthSnapshot(String username);
+
     AuthResponse registerUser(RegisterRequest request);
 
     AuthResponse authenticate(String username, String password);
@@ -29,4 +33,6 @@ public interface UserService {
 
     PageResponse<ModuleDTO> getModulesForCurrentUser(int page, int size);
 
+    ModuleMenu getModuleMenuForCurrentUser();
+
 }
@@ -1,6 +1,7 @@
 package com.ferrisys.service.business;
 
 import com.ferrisys.common.dto.ClientDTO;
+import com.ferrisys.common.dto.CursorPage;
 import com.ferrisys.common.dto.PageResponse;
 
 import java.util.UUID;
@@ -8,5 +9,6 @@ import java.util.UUID;
 public interface ClientService {
     void saveOrUpdate(ClientDTO dto);
     void disable(UUID id);
-    PageResponse<ClientDTO> list(int page, int size);
+    PageResponse<ClientDTO> list(int status, int page, int size);
+    CursorPage<ClientDTO> scroll(int status, String cursor, int size, boolean includeTotal);
 }
@@ -1,5 +1,6 @@
 package com.ferrisys.service.business;
 
+import com.ferrisys.common.dto.CursorPage;
 import com.ferrisys.common.dto.PageResponse;
 import com.ferrisys.common.dto.ProviderDTO;
 
@@ -8,5 +9,6 @@ import java.util.UUID;
 public interface ProviderService {
     void saveOrUpdate(ProviderDTO dto);
     void disable(UUID id);
-    PageResponse<ProviderDTO> list(int page, int size);
+    PageResponse<ProviderDTO> list(int status, int page, int size);
+    CursorPage<ProviderDTO> scroll(int status, String cursor, int size, boolean includeTotal);
 }
@@ -1,5 +1,6 @@
 package com.ferrisys.service.business;
 
+import com.ferrisys.common.dto.CursorPage;
 import com.ferrisys.common.dto.PageResponse;
 import com.ferrisys.common.dto.PurchaseDTO;
 
@@ -8,5 +9,6 @@ import java.util.UUID;
 public interface PurchaseService {
     void saveOrUpdate(PurchaseDTO dto);
     void disable(UUID id);
-    PageResponse<PurchaseDTO> list(int page, int size);
+    PageResponse<PurchaseDTO> list(int status, int page, int size);
+    CursorPage<PurchaseDTO> scroll(int status, String cursor, int size, boolean includeTotal);
 }
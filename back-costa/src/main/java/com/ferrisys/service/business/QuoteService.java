@@ -1,5 +1,6 @@
 package com.ferrisys.service.business;
 
+import com.ferrisys.common.dto.CursorPage;
 import com.ferrisys.common.dto.PageResponse;
 import com.ferrisys.common.dto.QuoteDTO;
 
@@ -8,5 +9,6 @@ import java.util.UUID;
 public interface QuoteService {
     void saveOrUpdate(QuoteDTO dto);
     void disable(UUID id);
-    PageResponse<QuoteDTO> list(int page, int size);
+    PageResponse<QuoteDTO> list(int status, int page, int size);
+    CursorPage<QuoteDTO> scroll(int status, String cursor, int size, boolean includeTotal);
 }
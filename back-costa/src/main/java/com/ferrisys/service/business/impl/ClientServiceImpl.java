@@ -1,15 +1,20 @@
 package com.ferrisys.service.business.impl;
 
 import com.ferrisys.common.dto.ClientDTO;
+import com.ferrisys.common.dto.CursorPage;
 import com.ferrisys.common.dto.PageResponse;
 import com.ferrisys.common.entity.business.Client;
+import com.ferrisys.common.event.CacheInvalidationEvent.Target;
+import com.ferrisys.common.event.CacheInvalidationEvent;
+import com.ferrisys.common.pagination.Paging;
 import com.ferrisys.repository.ClientRepository;
+import com.ferrisys.repository.KeysetPageQuery;
 import com.ferrisys.service.business.ClientService;
 import java.util.UUID;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -19,6 +24,8 @@ import java.util.List;
 public class ClientServiceImpl implements ClientService {
 
     private final ClientRepository clientRepository;
+    private final KeysetPageQuery keysetPageQuery;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -32,6 +39,7 @@ public class ClientServiceImpl implements ClientService {
         client.setAddress(dto.getAddress());
         client.setStatus(dto.getStatus() != null ? dto.getStatus() : 1);
         clientRepository.save(client);
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.CLIENT, client.getId()));
     }
 
     @Override
@@ -41,11 +49,12 @@ public class ClientServiceImpl implements ClientService {
                 .orElseThrow(() -> new RuntimeException("Cliente no encontrado"));
         client.setStatus(0);
         clientRepository.save(client);
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.CLIENT, client.getId()));
     }
 
     @Override
-    public PageResponse<ClientDTO> list(int page, int size) {
-        Page<Client> result = clientRepository.findAll(PageRequest.of(page, size));
+    public PageResponse<ClientDTO> list(int status, int page, int size) {
+        Page<Client> result = clientRepository.findByStatus(status, Paging.newestFirst(page, size));
         List<ClientDTO> content = result.getContent().stream()
                 .map(c -> ClientDTO.builder()
                         .id(c.getId())
@@ -59,4 +68,18 @@ public class ClientServiceImpl implements ClientService {
         return new PageResponse<>(content, result.getTotalPages(), result.getTotalElements(),
                 result.getNumber(), result.getSize());
     }
+
+    @Override
+    public CursorPage<ClientDTO> scroll(int status, String cursor, int size, boolean includeTotal) {
+        return keysetPageQuery.find(KeysetPageQuery.Table.CLIENT, status, "id, name, email, phone, address, status",
+                cursor, size, includeTotal,
+                (rs, rowNum) -> ClientDTO.builder()
+                        .id(rs.getObject("id", UUID.class))
+                        .name(rs.getString("name"))
+                        .email(rs.getString("email"))
+                        .phone(rs.getString("phone"))
+                        .address(rs.getString("address"))
+                        .status(rs.getObject("status", Integer.class))
+                        .build());
+    }
 }
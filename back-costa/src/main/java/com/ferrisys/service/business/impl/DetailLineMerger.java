@@ -0,0 +1,137 @@
+package com.ferrisys.service.business.impl;
+
+import com.ferrisys.common.exception.impl.BadRequestException;
+import com.ferrisys.common.exception.impl.NotFoundException;
+import com.ferrisys.common.id.UuidV7;
+import com.ferrisys.repository.ProductRepository;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Replaces the detail lines of a purchase or quote with the incoming ones by diffing them against
+ * the stored rows. Lines are matched by product, in order, so an unchanged line keeps its row;
+ * only changed, new and removed lines are written, each kind as one JDBC batch. Products are
+ * validated with a single query.
+ */
+@Component
+@RequiredArgsConstructor
+public class DetailLineMerger {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductRepository productRepository;
+
+    public enum DetailTable {
+        PURCHASE("bus_purchase_detail", "purchase_id"),
+        QUOTE("bus_quote_detail", "quote_id");
+
+        private final String table;
+        private final String parentColumn;
+
+        DetailTable(String table, String parentColumn) {
+            this.table = table;
+            this.parentColumn = parentColumn;
+        }
+    }
+
+    public record Line(UUID productId, Integer quantity, BigDecimal unitPrice) {}
+
+    private record StoredLine(UUID id, UUID productId, int quantity, BigDecimal unitPrice) {}
+
+    public void merge(DetailTable target, UUID parentId, List<Line> incoming) {
+        List<Line> lines = incoming == null ? List.of() : incoming;
+        validate(lines);
+
+        Map<UUID, Deque<StoredLine>> storedByProduct = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT id, product_id, quantity, unit_price FROM " + target.table
+                        + " WHERE " + target.parentColumn + " = ? ORDER BY created_at, id",
+                rs -> {
+                    StoredLine stored = new StoredLine(
+                            rs.getObject("id", UUID.class),
+                            rs.getObject("product_id", UUID.class),
+                            rs.getInt("quantity"),
+                            rs.getBigDecimal("unit_price"));
+                    storedByProduct.computeIfAbsent(stored.productId(), key -> new ArrayDeque<>()).add(stored);
+                },
+                parentId);
+
+        List<Line> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        for (Line line : lines) {
+            Deque<StoredLine> candidates = storedByProduct.get(line.productId());
+            StoredLine stored = candidates != null ? candidates.pollFirst() : null;
+            if (stored == null) {
+                inserts.add(line);
+            } else if (stored.quantity() != line.quantity() || stored.unitPrice().compareTo(line.unitPrice()) != 0) {
+                updates.add(new Object[] {line.quantity(), line.unitPrice(), stored.id()});
+            }
+        }
+        List<UUID> deletes = new ArrayList<>();
+        storedByProduct.values().forEach(remaining -> remaining.forEach(stored -> deletes.add(stored.id())));
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.update(
+                    connection -> {
+                        PreparedStatement ps = connection.prepareStatement(
+                                "DELETE FROM " + target.table + " WHERE id = ANY (?)");
+                        ps.setArray(1, connection.createArrayOf("uuid", deletes.toArray()));
+                        return ps;
+                    });
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE " + target.table + " SET quantity = ?, unit_price = ?, updated_at = ? WHERE id = ?",
+                    updates,
+                    updates.size(),
+                    (ps, update) -> {
+                        ps.setInt(1, (Integer) update[0]);
+                        ps.setBigDecimal(2, (BigDecimal) update[1]);
+                        ps.setTimestamp(3, now);
+                        ps.setObject(4, update[2]);
+                    });
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO " + target.table + " (id, " + target.parentColumn
+                            + ", product_id, quantity, unit_price, created_at) VALUES (?, ?, ?, ?, ?, ?)",
+                    inserts,
+                    inserts.size(),
+                    (ps, line) -> {
+                        ps.setObject(1, UuidV7.generate());
+                        ps.setObject(2, parentId);
+                        ps.setObject(3, line.productId());
+                        ps.setInt(4, line.quantity());
+                        ps.setBigDecimal(5, line.unitPrice());
+                        ps.setTimestamp(6, now);
+                    });
+        }
+    }
+
+    private void validate(List<Line> lines) {
+        Set<UUID> productIds = new HashSet<>();
+        for (Line line : lines) {
+            if (line.productId() == null || line.quantity() == null || line.unitPrice() == null) {
+                throw new BadRequestException("Cada línea requiere producto, cantidad y precio unitario");
+            }
+            productIds.add(line.productId());
+        }
+        if (!productIds.isEmpty() && productRepository.countByIdIn(productIds) != productIds.size()) {
+            throw new NotFoundException("Producto no encontrado");
+        }
+    }
+}
@@ -1,15 +1,20 @@
 package com.ferrisys.service.business.impl;
 
+import com.ferrisys.common.dto.CursorPage;
 import com.ferrisys.common.dto.PageResponse;
 import com.ferrisys.common.dto.ProviderDTO;
 import com.ferrisys.common.entity.business.Provider;
+import com.ferrisys.common.event.CacheInvalidationEvent.Target;
+import com.ferrisys.common.event.CacheInvalidationEvent;
+import com.ferrisys.common.pagination.Paging;
 import com.ferrisys.mapper.ProviderMapper;
+import com.ferrisys.repository.KeysetPageQuery;
 import com.ferrisys.repository.ProviderRepository;
 import com.ferrisys.service.business.ProviderService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.UUID;
@@ -20,11 +25,14 @@ public class ProviderServiceImpl implements ProviderService {
 
     private final ProviderRepository providerRepository;
     private final ProviderMapper providerMapper;
+    private final KeysetPageQuery keysetPageQuery;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
     public void saveOrUpdate(ProviderDTO dto) {
-        providerRepository.save(providerMapper.toEntity(dto));
+        Provider provider = providerRepository.save(providerMapper.toEntity(dto));
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.PROVIDER, provider.getId()));
     }
 
     @Override
@@ -34,12 +42,27 @@ public class ProviderServiceImpl implements ProviderService {
                 .orElseThrow(() -> new RuntimeException("Proveedor no encontrado"));
         provider.setStatus(0);
         providerRepository.save(provider);
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.PROVIDER, provider.getId()));
     }
 
     @Override
-    public PageResponse<ProviderDTO> list(int page, int size) {
-        Page<ProviderDTO> pageDto = providerRepository.findAll(PageRequest.of(page, size))
+    public PageResponse<ProviderDTO> list(int status, int page, int size) {
+        Page<ProviderDTO> pageDto = providerRepository.findByStatus(status, Paging.newestFirst(page, size))
                 .map(providerMapper::toDto);
         return PageResponse.from(pageDto);
     }
+
+    @Override
+    public CursorPage<ProviderDTO> scroll(int status, String cursor, int size, boolean includeTotal) {
+        return keysetPageQuery.find(KeysetPageQuery.Table.PROVIDER, status, "id, name, contact, phone, address, ruc, status",
+                cursor, size, includeTotal,
+                (rs, rowNum) -> new ProviderDTO(
+                        rs.getString("id"),
+                        rs.getString("name"),
+                        rs.getString("contact"),
+                        rs.getString("phone"),
+                        rs.getString("address"),
+                        rs.getString("ruc"),
+                        rs.getObject("status", Integer.class)));
+    }
 }
@@ -1,20 +1,28 @@
 package com.ferrisys.service.business.impl;
 
+import com.ferrisys.common.dto.CursorPage;
 import com.ferrisys.common.dto.PageResponse;
 import com.ferrisys.common.dto.PurchaseDTO;
+import com.ferrisys.common.dto.PurchaseDetailDTO;
 import com.ferrisys.common.entity.business.Purchase;
-import com.ferrisys.common.entity.inventory.Product;
+import com.ferrisys.common.enums.StockMovementType;
+import com.ferrisys.common.pagination.Paging;
 import com.ferrisys.mapper.PurchaseMapper;
-import com.ferrisys.repository.ProductRepository;
+import com.ferrisys.repository.KeysetPageQuery;
 import com.ferrisys.repository.ProviderRepository;
 import com.ferrisys.repository.PurchaseDetailRepository;
 import com.ferrisys.repository.PurchaseRepository;
+import com.ferrisys.service.StockService;
 import com.ferrisys.service.business.PurchaseService;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -23,34 +31,55 @@ public class PurchaseServiceImpl implements PurchaseService {
 
     private final PurchaseRepository purchaseRepository;
     private final ProviderRepository providerRepository;
-    private final ProductRepository productRepository;
     private final PurchaseDetailRepository detailRepository;
     private final PurchaseMapper purchaseMapper;
+    private final DetailLineMerger detailLineMerger;
+    private final KeysetPageQuery keysetPageQuery;
+    private final StockService stockService;
 
     @Override
     @Transactional
     public void saveOrUpdate(PurchaseDTO dto) {
-        Purchase purchase = purchaseMapper.toEntity(dto);
+        Purchase incoming = purchaseMapper.toEntity(dto);
+        // read first: a new header is the incoming entity itself, and its details are cleared below
+        List<DetailLineMerger.Line> lines = incoming.getDetails() == null ? List.of() : incoming.getDetails().stream()
+                .map(detail -> new DetailLineMerger.Line(
+                        detail.getProduct() != null ? detail.getProduct().getId() : null,
+                        detail.getQuantity(),
+                        detail.getUnitPrice()))
+                .toList();
 
-        if (purchase.getProvider() != null && purchase.getProvider().getId() != null) {
-            UUID providerId = purchase.getProvider().getId();
+        Purchase purchase;
+        if (incoming.getId() != null) {
+            purchase = purchaseRepository.findById(incoming.getId())
+                    .orElseThrow(() -> new RuntimeException("Compra no encontrada"));
+            purchase.setDescription(incoming.getDescription());
+            purchase.setDate(incoming.getDate());
+            purchase.setTotal(incoming.getTotal());
+            if (incoming.getStatus() != null) {
+                purchase.setStatus(incoming.getStatus());
+            }
+        } else {
+            purchase = incoming;
+            // lines are written by the merger below, not cascaded
+            purchase.setDetails(new ArrayList<>());
+        }
+
+        if (incoming.getProvider() != null && incoming.getProvider().getId() != null) {
+            UUID providerId = incoming.getProvider().getId();
             purchase.setProvider(providerRepository.findById(providerId)
                     .orElseThrow(() -> new RuntimeException("Proveedor no encontrado")));
         }
 
-        purchase = purchaseRepository.save(purchase);
+        purchase = purchaseRepository.saveAndFlush(purchase);
+
+        detailLineMerger.merge(DetailLineMerger.DetailTable.PURCHASE, purchase.getId(), lines);
 
-        detailRepository.deleteByPurchase(purchase);
-        if (purchase.getDetails() != null) {
-            purchase.getDetails().forEach(detail -> {
-                if (detail.getProduct() != null && detail.getProduct().getId() != null) {
-                    Product product = productRepository.findById(detail.getProduct().getId())
-                            .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
-                    detail.setProduct(product);
-                }
-                detailRepository.save(detail);
-            });
+        Map<UUID, Long> received = new HashMap<>();
+        if (Integer.valueOf(1).equals(purchase.getStatus())) {
+            lines.forEach(line -> received.merge(line.productId(), line.quantity().longValue(), Long::sum));
         }
+        stockService.syncSource(StockMovementType.PURCHASE, purchase.getId(), received);
     }
 
     @Override
@@ -60,12 +89,45 @@ public class PurchaseServiceImpl implements PurchaseService {
                 .orElseThrow(() -> new RuntimeException("Compra no encontrada"));
         purchase.setStatus(0);
         purchaseRepository.save(purchase);
+        stockService.syncSource(StockMovementType.PURCHASE, purchase.getId(), Map.of());
     }
 
     @Override
-    public PageResponse<PurchaseDTO> list(int page, int size) {
-        Page<PurchaseDTO> pageDto = purchaseRepository.findAll(PageRequest.of(page, size))
-                .map(purchaseMapper::toDto);
+    public PageResponse<PurchaseDTO> list(int status, int page, int size) {
+        Page<Purchase> result = purchaseRepository.findByStatus(status, Paging.newestFirst(page, size));
+        Map<UUID, List<PurchaseDetailDTO>> lines = loadLines(result.getContent().stream().map(Purchase::getId).toList());
+        Page<PurchaseDTO> pageDto = result.map(purchase -> purchaseMapper.toDto(purchase, lines.getOrDefault(purchase.getId(), List.of())));
         return PageResponse.from(pageDto);
     }
+
+    @Override
+    public CursorPage<PurchaseDTO> scroll(int status, String cursor, int size, boolean includeTotal) {
+        CursorPage<PurchaseDTO> headers = keysetPageQuery.find(KeysetPageQuery.Table.PURCHASE, status,
+                "id, provider_id, description, purchase_date, total, status", cursor, size, includeTotal,
+                (rs, rowNum) -> new PurchaseDTO(
+                        rs.getString("id"),
+                        rs.getString("provider_id"),
+                        rs.getString("description"),
+                        rs.getObject("purchase_date", LocalDate.class),
+                        rs.getBigDecimal("total"),
+                        rs.getObject("status", Integer.class),
+                        List.of()));
+        Map<UUID, List<PurchaseDetailDTO>> lines = loadLines(headers.content().stream().map(dto -> UUID.fromString(dto.id())).toList());
+        List<PurchaseDTO> content = headers.content().stream()
+                .map(dto -> new PurchaseDTO(dto.id(), dto.providerId(), dto.description(), dto.date(), dto.total(), dto.status(),
+                        lines.getOrDefault(UUID.fromString(dto.id()), List.of())))
+                .toList();
+        return new CursorPage<>(content, headers.nextCursor(), headers.totalElements(), headers.size());
+    }
+
+    /** Lines of all the given purchases with one query, grouped by purchase id. */
+    private Map<UUID, List<PurchaseDetailDTO>> loadLines(List<UUID> purchaseIds) {
+        Map<UUID, List<PurchaseDetailDTO>> lines = new HashMap<>();
+        if (!purchaseIds.isEmpty()) {
+            detailRepository.findLinesByPurchaseIdIn(purchaseIds).forEach(line -> lines
+                    .computeIfAbsent(line.getParentId(), key -> new ArrayList<>())
+                    .add(new PurchaseDetailDTO(line.getProductId().toString(), line.getQuantity(), line.getUnitPrice())));
+        }
+        return lines;
+    }
 }
@@ -1,20 +1,26 @@
 package com.ferrisys.service.business.impl;
 
+import com.ferrisys.common.dto.CursorPage;
 import com.ferrisys.common.dto.PageResponse;
 import com.ferrisys.common.dto.QuoteDTO;
+import com.ferrisys.common.dto.QuoteDetailDTO;
 import com.ferrisys.common.entity.business.Quote;
-import com.ferrisys.common.entity.inventory.Product;
+import com.ferrisys.common.pagination.Paging;
 import com.ferrisys.mapper.QuoteMapper;
 import com.ferrisys.repository.ClientRepository;
-import com.ferrisys.repository.ProductRepository;
+import com.ferrisys.repository.KeysetPageQuery;
 import com.ferrisys.repository.QuoteDetailRepository;
 import com.ferrisys.repository.QuoteRepository;
 import com.ferrisys.service.business.QuoteService;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -23,34 +29,48 @@ public class QuoteServiceImpl implements QuoteService {
 
     private final QuoteRepository quoteRepository;
     private final ClientRepository clientRepository;
-    private final ProductRepository productRepository;
     private final QuoteDetailRepository detailRepository;
     private final QuoteMapper quoteMapper;
+    private final DetailLineMerger detailLineMerger;
+    private final KeysetPageQuery keysetPageQuery;
 
     @Override
     @Transactional
     public void saveOrUpdate(QuoteDTO dto) {
-        Quote quote = quoteMapper.toEntity(dto);
+        Quote incoming = quoteMapper.toEntity(dto);
+        // read first: a new header is the incoming entity itself, and its details are cleared below
+        List<DetailLineMerger.Line> lines = incoming.getDetails() == null ? List.of() : incoming.getDetails().stream()
+                .map(detail -> new DetailLineMerger.Line(
+                        detail.getProduct() != null ? detail.getProduct().getId() : null,
+                        detail.getQuantity(),
+                        detail.getUnitPrice()))
+                .toList();
 
-        if (quote.getClient() != null && quote.getClient().getId() != null) {
-            UUID clientId = quote.getClient().getId();
+        Quote quote;
+        if (incoming.getId() != null) {
+            quote = quoteRepository.findById(incoming.getId())
+                    .orElseThrow(() -> new RuntimeException("Cotización no encontrada"));
+            quote.setDescription(incoming.getDescription());
+            quote.setDate(incoming.getDate());
+            quote.setTotal(incoming.getTotal());
+            if (incoming.getStatus() != null) {
+                quote.setStatus(incoming.getStatus());
+            }
+        } else {
+            quote = incoming;
+            // lines are written by the merger below, not cascaded
+            quote.setDetails(new ArrayList<>());
+        }
+
+        if (incoming.getClient() != null && incoming.getClient().getId() != null) {
+            UUID clientId = incoming.getClient().getId();
             quote.setClient(clientRepository.findById(clientId)
                     .orElseThrow(() -> new RuntimeException("Cliente no encontrado")));
         }
 
-        quote = quoteRepository.save(quote);
+        quote = quoteRepository.saveAndFlush(quote);
 
-        detailRepository.deleteByQuote(quote);
-        if (quote.getDetails() != null) {
-            quote.getDetails().forEach(detail -> {
-                if (detail.getProduct() != null && detail.getProduct().getId() != null) {
-                    Product product = productRepository.findById(detail.getProduct().getId())
-                            .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
-                    detail.setProduct(product);
-                }
-                detailRepository.save(detail);
-            });
-        }
+        detailLineMerger.merge(DetailLineMerger.DetailTable.QUOTE, quote.getId(), lines);
     }
 
     @Override
@@ -63,9 +83,41 @@ public class QuoteServiceImpl implements QuoteService {
     }
 
     @Override
-    public PageResponse<QuoteDTO> list(int page, int size) {
-        Page<QuoteDTO> pageDto = quoteRepository.findAll(PageRequest.of(page, size))
-                .map(quoteMapper::toDto);
+    public PageResponse<QuoteDTO> list(int status, int page, int size) {
+        Page<Quote> result = quoteRepository.findByStatus(status, Paging.newestFirst(page, size));
+        Map<UUID, List<QuoteDetailDTO>> lines = loadLines(result.getContent().stream().map(Quote::getId).toList());
+        Page<QuoteDTO> pageDto = result.map(quote -> quoteMapper.toDto(quote, lines.getOrDefault(quote.getId(), List.of())));
         return PageResponse.from(pageDto);
     }
+
+    @Override
+    public CursorPage<QuoteDTO> scroll(int status, String cursor, int size, boolean includeTotal) {
+        CursorPage<QuoteDTO> headers = keysetPageQuery.find(KeysetPageQuery.Table.QUOTE, status,
+                "id, client_id, description, quote_date, total, status", cursor, size, includeTotal,
+                (rs, rowNum) -> new QuoteDTO(
+                        rs.getString("id"),
+                        rs.getString("client_id"),
+                        rs.getString("description"),
+                        rs.getObject("quote_date", LocalDate.class),
+                        rs.getBigDecimal("total"),
+                        rs.getObject("status", Integer.class),
+                        List.of()));
+        Map<UUID, List<QuoteDetailDTO>> lines = loadLines(headers.content().stream().map(dto -> UUID.fromString(dto.id())).toList());
+        List<QuoteDTO> content = headers.content().stream()
+                .map(dto -> new QuoteDTO(dto.id(), dto.clientId(), dto.description(), dto.date(), dto.total(), dto.status(),
+                        lines.getOrDefault(UUID.fromString(dto.id()), List.of())))
+                .toList();
+        return new CursorPage<>(content, headers.nextCursor(), headers.totalElements(), headers.size());
+    }
+
+    /** Lines of all the given quotes with one query, grouped by quote id. */
+    private Map<UUID, List<QuoteDetailDTO>> loadLines(List<UUID> quoteIds) {
+        Map<UUID, List<QuoteDetailDTO>> lines = new HashMap<>();
+        if (!quoteIds.isEmpty()) {
+            detailRepository.findLinesByQuoteIdIn(quoteIds).forEach(line -> lines
+                    .computeIfAbsent(line.getParentId(), key -> new ArrayList<>())
+                    .add(new QuoteDetailDTO(line.getProductId().toString(), line.getQuantity(), line.getUnitPrice())));
+        }
+        return lines;
+    }
 }
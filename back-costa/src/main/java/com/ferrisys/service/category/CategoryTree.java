@@ -0,0 +1,108 @@
+package com.ferrisys.service.category;
+
+import com.ferrisys.common.dto.CategoryNodeDTO;
+import com.ferrisys.repository.CategoryTreeRepository.Row;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable category tree. Nodes are stored in pre-order, so the subtree of a node is the
+ * contiguous range {@code [index, subtreeEnd[index])} and ancestors are a walk up
+ * {@code parentIndex}.
+ */
+final class CategoryTree {
+
+    private final List<CategoryNodeDTO> nodes;
+    private final int[] parentIndex;
+    private final int[] subtreeEnd;
+    private final Map<UUID, Integer> indexById;
+
+    private CategoryTree(List<CategoryNodeDTO> nodes, int[] parentIndex, int[] subtreeEnd, Map<UUID, Integer> indexById) {
+        this.nodes = nodes;
+        this.parentIndex = parentIndex;
+        this.subtreeEnd = subtreeEnd;
+        this.indexById = indexById;
+    }
+
+    /** Builds the tree from rows ordered by materialized path, which is a pre-order walk. */
+    static CategoryTree build(List<Row> rows) {
+        int size = rows.size();
+        List<CategoryNodeDTO> nodes = new ArrayList<>(size);
+        int[] parentIndex = new int[size];
+        int[] subtreeEnd = new int[size];
+        Map<UUID, Integer> indexById = new HashMap<>(size * 2);
+        Deque<Integer> open = new ArrayDeque<>();
+
+        for (int i = 0; i < size; i++) {
+            Row row = rows.get(i);
+            int depth = depthOf(row.path());
+            while (!open.isEmpty() && nodes.get(open.peek()).depth() >= depth) {
+                subtreeEnd[open.pop()] = i;
+            }
+            Integer parent = row.parentId() != null ? indexById.get(row.parentId()) : null;
+            parentIndex[i] = parent != null ? parent : -1;
+            nodes.add(new CategoryNodeDTO(row.id(), row.name(), row.parentId(), row.status(), depth));
+            indexById.put(row.id(), i);
+            open.push(i);
+        }
+        while (!open.isEmpty()) {
+            subtreeEnd[open.pop()] = size;
+        }
+        return new CategoryTree(List.copyOf(nodes), parentIndex, subtreeEnd, Collections.unmodifiableMap(indexById));
+    }
+
+    boolean contains(UUID id) {
+        return indexById.containsKey(id);
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    /** The node followed by all of its descendants, depth-first; empty for unknown ids. */
+    List<CategoryNodeDTO> subtree(UUID id) {
+        Integer index = indexById.get(id);
+        return index == null ? List.of() : nodes.subList(index, subtreeEnd[index]);
+    }
+
+    /** Ancestors from the root down to the direct parent; empty for roots and unknown ids. */
+    List<CategoryNodeDTO> ancestors(UUID id) {
+        Integer index = indexById.get(id);
+        if (index == null) {
+            return List.of();
+        }
+        List<CategoryNodeDTO> ancestors = new ArrayList<>();
+        for (int parent = parentIndex[index]; parent >= 0; parent = parentIndex[parent]) {
+            ancestors.add(nodes.get(parent));
+        }
+        Collections.reverse(ancestors);
+        return ancestors;
+    }
+
+    /** Ancestors plus the node itself, root first. */
+    List<CategoryNodeDTO> breadcrumb(UUID id) {
+        Integer index = indexById.get(id);
+        if (index == null) {
+            return List.of();
+        }
+        List<CategoryNodeDTO> breadcrumb = new ArrayList<>(ancestors(id));
+        breadcrumb.add(nodes.get(index));
+        return breadcrumb;
+    }
+
+    private static int depthOf(String path) {
+        int separators = 0;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == '/') {
+                separators++;
+            }
+        }
+        return Math.max(0, separators - 2);
+    }
+}
@@ -0,0 +1,83 @@
+package com.ferrisys.service.category;
+
+import com.ferrisys.common.dto.CategoryNodeDTO;
+import com.ferrisys.common.event.CacheInvalidationEvent;
+import com.ferrisys.common.event.CacheInvalidationEvent.Target;
+import com.ferrisys.common.exception.impl.NotFoundException;
+import com.ferrisys.repository.CategoryTreeRepository;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Holds the current {@link CategoryTree}. Any category write drops it and the next read loads a
+ * new one; a load that raced with a write is used once but not kept.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CategoryTreeService {
+
+    private final CategoryTreeRepository categoryTreeRepository;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile CategoryTree current;
+
+    public boolean exists(UUID categoryId) {
+        return snapshot().contains(categoryId);
+    }
+
+    public List<CategoryNodeDTO> subtree(UUID categoryId) {
+        return tree(categoryId).subtree(categoryId);
+    }
+
+    public List<CategoryNodeDTO> ancestors(UUID categoryId) {
+        return tree(categoryId).ancestors(categoryId);
+    }
+
+    public List<CategoryNodeDTO> breadcrumb(UUID categoryId) {
+        return tree(categoryId).breadcrumb(categoryId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvalidation(CacheInvalidationEvent event) {
+        if (event.target() != Target.CATEGORY) {
+            return;
+        }
+        generation.incrementAndGet();
+        synchronized (this) {
+            current = null;
+        }
+    }
+
+    private CategoryTree tree(UUID categoryId) {
+        CategoryTree tree = snapshot();
+        if (!tree.contains(categoryId)) {
+            throw new NotFoundException("Categoría no encontrada");
+        }
+        return tree;
+    }
+
+    private CategoryTree snapshot() {
+        CategoryTree tree = current;
+        if (tree != null) {
+            return tree;
+        }
+        synchronized (this) {
+            if (current != null) {
+                return current;
+            }
+            long loadedAt = generation.get();
+            tree = CategoryTree.build(categoryTreeRepository.findAllInPathOrder());
+            if (generation.get() == loadedAt) {
+                current = tree;
+            }
+            log.debug("Category tree loaded: {} categories", tree.size());
+            return tree;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.ferrisys.service.impl;
+
+import com.ferrisys.common.exception.impl.NotFoundException;
+import com.ferrisys.common.id.UuidV7;
+import com.ferrisys.repository.ModuleRepository;
+import com.ferrisys.repository.RoleRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Replaces the role assignments of a user, or the module assignments of a role, with a given set.
+ * Only the difference is written: one batched upsert for missing or inactive links and one
+ * delete for links that are no longer wanted, so unchanged rows keep their ids and index entries.
+ * Callers publish the cache invalidation event.
+ */
+@Service
+@RequiredArgsConstructor
+public class AssignmentSyncService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RoleRepository roleRepository;
+    private final ModuleRepository moduleRepository;
+    private final EntityManager entityManager;
+
+    /** @return {@code true} if any assignment changed */
+    @Transactional
+    public boolean syncUserRoles(UUID userId, Collection<UUID> roleIds) {
+        Set<UUID> desired = distinct(roleIds);
+        if (!desired.isEmpty() && roleRepository.findAllById(desired).size() != desired.size()) {
+            throw new NotFoundException("Role not found");
+        }
+        return sync(Link.USER_ROLES, userId, desired);
+    }
+
+    /** @return {@code true} if any assignment changed */
+    @Transactional
+    public boolean syncRoleModules(UUID roleId, Collection<UUID> moduleIds) {
+        Set<UUID> desired = distinct(moduleIds);
+        if (!desired.isEmpty() && moduleRepository.findAllById(desired).size() != desired.size()) {
+            throw new NotFoundException("Module not found");
+        }
+        return sync(Link.ROLE_MODULES, roleId, desired);
+    }
+
+    private boolean sync(Link link, UUID ownerId, Set<UUID> desired) {
+        // the owner may still be pending in the persistence context
+        entityManager.flush();
+
+        Map<UUID, Integer> current = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT " + link.targetColumn + ", status FROM " + link.table + " WHERE " + link.ownerColumn + " = ?",
+                rs -> {
+                    current.put(rs.getObject(1, UUID.class), rs.getInt(2));
+                },
+                ownerId);
+
+        List<UUID> toUpsert = desired.stream()
+                .filter(targetId -> !Objects.equals(current.get(targetId), 1))
+                .toList();
+        List<UUID> toDelete = current.keySet().stream()
+                .filter(targetId -> !desired.contains(targetId))
+                .toList();
+
+        if (!toUpsert.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO " + link.table + " (id, " + link.ownerColumn + ", " + link.targetColumn
+                            + ", status, created_at, updated_at) VALUES (?, ?, ?, 1, now(), now()) "
+                            + "ON CONFLICT (" + link.ownerColumn + ", " + link.targetColumn + ") "
+                            + "DO UPDATE SET status = 1, updated_at = now()",
+                    toUpsert,
+                    toUpsert.size(),
+                    (ps, targetId) -> {
+                        ps.setObject(1, UuidV7.generate());
+                        ps.setObject(2, ownerId);
+                        ps.setObject(3, targetId);
+                    });
+        }
+        if (!toDelete.isEmpty()) {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(
+                        "DELETE FROM " + link.table + " WHERE " + link.ownerColumn + " = ? AND "
+                                + link.targetColumn + " = ANY (?)");
+                ps.setObject(1, ownerId);
+                ps.setArray(2, connection.createArrayOf("uuid", toDelete.toArray()));
+                return ps;
+            });
+        }
+        return !toUpsert.isEmpty() || !toDelete.isEmpty();
+    }
+
+    private static Set<UUID> distinct(Collection<UUID> ids) {
+        Set<UUID> result = new LinkedHashSet<>();
+        if (ids != null) {
+            ids.stream().filter(Objects::nonNull).forEach(result::add);
+        }
+        return result;
+    }
+
+    private enum Link {
+        USER_ROLES("auth_user_role", "auth_user_id", "auth_role_id"),
+        ROLE_MODULES("auth_role_module", "auth_role_id", "auth_module_id");
+
+        private final String table;
+        private final String ownerColumn;
+        private final String targetColumn;
+
+        Link(String table, String ownerColumn, String targetColumn) {
+            this.table = table;
+            this.ownerColumn = ownerColumn;
+            this.targetColumn = targetColumn;
+        }
+    }
+}
@@ -1,38 +1,40 @@
 package com.ferrisys.service.impl;
 
-import com.ferrisys.common.entity.license.ModuleLicense;
-import com.ferrisys.common.entity.user.AuthModule;
 import com.ferrisys.common.entity.user.User;
+import com.ferrisys.config.security.AuthenticatedUser;
 import com.ferrisys.config.security.JWTUtil;
-import com.ferrisys.repository.ModuleLicenseRepository;
-import com.ferrisys.repository.ModuleRepository;
 import com.ferrisys.repository.UserRepository;
 import com.ferrisys.service.FeatureFlagService;
+import com.ferrisys.service.license.LicenseSnapshotEngine;
+import com.ferrisys.service.license.ModuleFlag;
 import java.text.Normalizer;
-import java.time.OffsetDateTime;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.core.env.Environment;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 @Service("featureFlagService")
 public class FeatureFlagServiceImpl implements FeatureFlagService {
 
-    private final ModuleRepository moduleRepository;
-    private final ModuleLicenseRepository moduleLicenseRepository;
+    private static final int MAX_CACHED_SLUGS = 4096;
+
+    private final LicenseSnapshotEngine licenseSnapshotEngine;
     private final UserRepository userRepository;
     private final JWTUtil jwtUtil;
     private final Environment environment;
+    private final Map<String, ModuleFlag> slugRules = new ConcurrentHashMap<>();
 
     public FeatureFlagServiceImpl(
-            ModuleRepository moduleRepository,
-            ModuleLicenseRepository moduleLicenseRepository,
+            LicenseSnapshotEngine licenseSnapshotEngine,
             UserRepository userRepository,
             JWTUtil jwtUtil,
             Environment environment) {
-        this.moduleRepository = moduleRepository;
-        this.moduleLicenseRepository = moduleLicenseRepository;
+        this.licenseSnapshotEngine = licenseSnapshotEngine;
         this.userRepository = userRepository;
         this.jwtUtil = jwtUtil;
         this.environment = environment;
@@ -44,38 +46,22 @@ public class FeatureFlagServiceImpl implements FeatureFlagService {
             return false;
         }
 
-        String propertySlug = normalizeForProperty(moduleSlug);
-        boolean propertyEnabled = environment.getProperty(
-                "modules." + propertySlug + ".enabled", Boolean.class, Boolean.TRUE);
-        if (!propertyEnabled) {
-            return false;
-        }
-
-        String moduleName = normalizeForModule(moduleSlug);
-        Optional<AuthModule> moduleOpt = moduleRepository.findByNameIgnoreCase(moduleName);
-        if (moduleOpt.isEmpty()) {
-            return propertyEnabled;
-        }
-
-        AuthModule module = moduleOpt.get();
-        Optional<ModuleLicense> licenseOpt = moduleLicenseRepository.findByTenantIdAndModule_Id(
-                tenantId, module.getId());
-
-        if (licenseOpt.isEmpty()) {
-            return propertyEnabled;
-        }
-
-        ModuleLicense license = licenseOpt.get();
-        if (Boolean.FALSE.equals(license.getEnabled())) {
-            return false;
-        }
+        return enabled(tenantId, resolve(moduleSlug));
+    }
 
-        OffsetDateTime expiresAt = license.getExpiresAt();
-        return expiresAt == null || expiresAt.isAfter(OffsetDateTime.now());
+    @Override
+    public boolean enabled(UUID tenantId, ModuleFlag flag) {
+        return tenantId != null && flag.propertyEnabled()
+                && licenseSnapshotEngine.isLicensed(tenantId, flag.moduleIndex());
     }
 
     @Override
     public boolean enabledForCurrentUser(String moduleSlug) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return enabled(principal.getUserId(), moduleSlug);
+        }
+
         String username = jwtUtil.getCurrentUser();
         if (username == null || username.isBlank()) {
             return false;
@@ -85,6 +71,29 @@ public class FeatureFlagServiceImpl implements FeatureFlagService {
         return userOpt.filter(user -> enabled(user.getId(), moduleSlug)).isPresent();
     }
 
+    /**
+     * Slug normalization and the {@code modules.<slug>.enabled} lookup only depend on the slug,
+     * so they are resolved once and reused.
+     */
+    @Override
+    public ModuleFlag resolve(String moduleSlug) {
+        ModuleFlag rule = slugRules.get(moduleSlug);
+        if (rule == null) {
+            rule = compile(moduleSlug);
+            if (slugRules.size() < MAX_CACHED_SLUGS) {
+                slugRules.putIfAbsent(moduleSlug, rule);
+            }
+        }
+        return rule;
+    }
+
+    private ModuleFlag compile(String moduleSlug) {
+        boolean propertyEnabled = environment.getProperty(
+                "modules." + normalizeForProperty(moduleSlug) + ".enabled", Boolean.class, Boolean.TRUE);
+        return new ModuleFlag(moduleSlug, propertyEnabled,
+                licenseSnapshotEngine.moduleIndex(normalizeForModule(moduleSlug)));
+    }
+
     private String normalizeForProperty(String slug) {
         return stripAccents(slug)
                 .trim()
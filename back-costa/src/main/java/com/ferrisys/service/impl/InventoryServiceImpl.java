@@ -1,18 +1,29 @@
 package com.ferrisys.service.impl;
 
 import com.ferrisys.common.dto.CategoryDTO;
+import com.ferrisys.common.dto.CategoryNodeDTO;
+import com.ferrisys.common.dto.CursorPage;
 import com.ferrisys.common.dto.ProductDTO;
 import com.ferrisys.common.dto.PageResponse;
 import com.ferrisys.common.entity.inventory.Category;
 import com.ferrisys.common.entity.inventory.Product;
+import com.ferrisys.common.event.CacheInvalidationEvent.Target;
+import com.ferrisys.common.event.CacheInvalidationEvent;
+import com.ferrisys.common.exception.impl.BadRequestException;
+import com.ferrisys.common.exception.impl.NotFoundException;
+import com.ferrisys.common.pagination.Paging;
 import com.ferrisys.repository.CategoryRepository;
+import com.ferrisys.repository.CategoryTreeRepository;
+import com.ferrisys.repository.KeysetPageQuery;
 import com.ferrisys.repository.ProductRepository;
+import com.ferrisys.repository.ProductSearchRepository;
 import com.ferrisys.service.InventoryService;
+import com.ferrisys.service.category.CategoryTreeService;
 import java.util.UUID;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -21,8 +32,15 @@ import java.util.List;
 @RequiredArgsConstructor
 public class InventoryServiceImpl implements InventoryService {
 
+    private static final int MIN_SEARCH_LENGTH = 2;
+
     private final CategoryRepository categoryRepository;
+    private final CategoryTreeRepository categoryTreeRepository;
+    private final CategoryTreeService categoryTreeService;
     private final ProductRepository productRepository;
+    private final KeysetPageQuery keysetPageQuery;
+    private final ProductSearchRepository productSearchRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     @Transactional
@@ -32,13 +50,12 @@ public class InventoryServiceImpl implements InventoryService {
                 : new Category();
         category.setName(dto.getName());
         category.setDescription(dto.getDescription());
-        if (dto.getParentCategoryId() != null) {
-            categoryRepository.findById(dto.getParentCategoryId())
-                    .orElseThrow(() -> new RuntimeException("Categoría padre no encontrada"));
-        }
         category.setParentCategoryId(dto.getParentCategoryId());
         category.setStatus(dto.getStatus() != null ? dto.getStatus() : 1);
-        categoryRepository.save(category);
+        categoryTreeRepository.checkParent(category.getId(), dto.getParentCategoryId());
+        categoryRepository.saveAndFlush(category);
+        categoryTreeRepository.place(category.getId(), dto.getParentCategoryId());
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.CATEGORY, category.getId()));
     }
 
     @Override
@@ -55,6 +72,7 @@ public class InventoryServiceImpl implements InventoryService {
         product.setCompanyId(dto.getCompanyId());
         product.setStatus(dto.getStatus() != null ? dto.getStatus() : 1);
         productRepository.save(product);
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.PRODUCT, product.getId()));
     }
 
     @Override
@@ -64,6 +82,7 @@ public class InventoryServiceImpl implements InventoryService {
                 .orElseThrow(() -> new RuntimeException("Categoría no encontrada"));
         category.setStatus(0);
         categoryRepository.save(category);
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.CATEGORY, category.getId()));
     }
 
     @Override
@@ -73,11 +92,12 @@ public class InventoryServiceImpl implements InventoryService {
                 .orElseThrow(() -> new RuntimeException("Producto no encontrado"));
         product.setStatus(0);
         productRepository.save(product);
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.PRODUCT, product.getId()));
     }
 
     @Override
-    public PageResponse<CategoryDTO> listCategories(int page, int size) {
-        Page<Category> result = categoryRepository.findAll(PageRequest.of(page, size));
+    public PageResponse<CategoryDTO> listCategories(int status, int page, int size) {
+        Page<Category> result = categoryRepository.findByStatus(status, Paging.newestFirst(page, size));
         List<CategoryDTO> content = result.getContent().stream()
                 .map(c -> new CategoryDTO(c.getId(), c.getName(), c.getDescription(),
                         c.getParentCategoryId(), c.getStatus()))
@@ -87,13 +107,67 @@ public class InventoryServiceImpl implements InventoryService {
     }
 
     @Override
-    public PageResponse<ProductDTO> listProducts(int page, int size) {
-        Page<Product> result = productRepository.findAll(PageRequest.of(page, size));
-        List<ProductDTO> content = result.getContent().stream()
-                .map(p -> new ProductDTO(p.getId(), p.getName(), p.getDescription(),
-                        p.getCompanyId(), p.getCategory().getId(), p.getStatus()))
-                .toList();
-        return new PageResponse<>(content, result.getTotalPages(), result.getTotalElements(),
+    public PageResponse<ProductDTO> listProducts(int status, int page, int size) {
+        Page<ProductDTO> result = productRepository.findPage(status, Paging.newestFirst(page, size));
+        return new PageResponse<>(result.getContent(), result.getTotalPages(), result.getTotalElements(),
                 result.getNumber(), result.getSize());
     }
+
+    @Override
+    public CursorPage<CategoryDTO> scrollCategories(int status, String cursor, int size, boolean includeTotal) {
+        return keysetPageQuery.find(KeysetPageQuery.Table.CATEGORY, status, "id, name, description, parent_category_id, status",
+                cursor, size, includeTotal,
+                (rs, rowNum) -> new CategoryDTO(
+                        rs.getObject("id", UUID.class),
+                        rs.getString("name"),
+                        rs.getString("description"),
+                        rs.getObject("parent_category_id", UUID.class),
+                        rs.getObject("status", Integer.class)));
+    }
+
+    @Override
+    public CursorPage<ProductDTO> scrollProducts(int status, String cursor, int size, boolean includeTotal) {
+        return keysetPageQuery.find(KeysetPageQuery.Table.PRODUCT, status, "id, name, description, company_id, category_id, status",
+                cursor, size, includeTotal,
+                (rs, rowNum) -> new ProductDTO(
+                        rs.getObject("id", UUID.class),
+                        rs.getString("name"),
+                        rs.getString("description"),
+                        rs.getObject("company_id", UUID.class),
+                        rs.getObject("category_id", UUID.class),
+                        rs.getObject("status", Integer.class)));
+    }
+
+    @Override
+    public List<ProductDTO> searchProducts(String query, Integer status, UUID categoryId, UUID companyId, int limit) {
+        String text = query == null ? "" : query.trim();
+        if (text.length() < MIN_SEARCH_LENGTH) {
+            throw new BadRequestException("La búsqueda requiere al menos " + MIN_SEARCH_LENGTH + " caracteres");
+        }
+        return productSearchRepository.search(
+                new ProductSearchRepository.Query(text, status, categoryId, companyId, limit));
+    }
+
+    @Override
+    public List<CategoryNodeDTO> getCategorySubtree(UUID categoryId) {
+        return categoryTreeService.subtree(categoryId);
+    }
+
+    @Override
+    public List<CategoryNodeDTO> getCategoryAncestors(UUID categoryId) {
+        return categoryTreeService.ancestors(categoryId);
+    }
+
+    @Override
+    public List<CategoryNodeDTO> getCategoryBreadcrumb(UUID categoryId) {
+        return categoryTreeService.breadcrumb(categoryId);
+    }
+
+    @Override
+    public PageResponse<ProductDTO> listProductsInCategory(UUID categoryId, int status, int page, int size) {
+        if (!categoryTreeService.exists(categoryId)) {
+            throw new NotFoundException("Categoría no encontrada");
+        }
+        return categoryTreeRepository.findProductsInSubtree(categoryId, status, page, size);
+    }
 }
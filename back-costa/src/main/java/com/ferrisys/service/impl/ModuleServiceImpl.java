@@ -3,10 +3,13 @@ package com.ferrisys.service.impl;
 import com.ferrisys.common.dto.ModuleDTO;
 import com.ferrisys.common.dto.PageResponse;
 import com.ferrisys.common.entity.user.AuthModule;
+import com.ferrisys.common.event.CacheInvalidationEvent;
+import com.ferrisys.common.event.CacheInvalidationEvent.Target;
 import com.ferrisys.mapper.ModuleMapper;
 import com.ferrisys.repository.ModuleRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
@@ -18,6 +21,7 @@ public class ModuleServiceImpl {
 
     private final ModuleRepository moduleRepository;
     private final ModuleMapper moduleMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public void saveOrUpdate(ModuleDTO dto) {
@@ -25,7 +29,8 @@ public class ModuleServiceImpl {
         if (module.getId() != null && !moduleRepository.existsById(module.getId())) {
             throw new RuntimeException("Módulo no encontrado");
         }
-        moduleRepository.save(module);
+        AuthModule saved = moduleRepository.save(module);
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.MODULE, saved.getId()));
     }
 
     public PageResponse<ModuleDTO> getAll(int page, int size) {
@@ -39,5 +44,6 @@ public class ModuleServiceImpl {
                 .orElseThrow(() -> new RuntimeException("Módulo no encontrado"));
         module.setStatus(0);
         moduleRepository.save(module);
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.MODULE, id));
     }
 }
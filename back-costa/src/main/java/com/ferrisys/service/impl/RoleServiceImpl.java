@@ -2,14 +2,13 @@ package com.ferrisys.service.impl;
 
 import com.ferrisys.common.dto.PageResponse;
 import com.ferrisys.common.dto.RoleDTO;
-import com.ferrisys.common.entity.user.AuthModule;
-import com.ferrisys.common.entity.user.AuthRoleModule;
 import com.ferrisys.common.entity.user.Role;
-import com.ferrisys.repository.ModuleRepository;
-import com.ferrisys.repository.RoleModuleRepository;
+import com.ferrisys.common.event.CacheInvalidationEvent;
+import com.ferrisys.common.event.CacheInvalidationEvent.Target;
 import com.ferrisys.repository.RoleRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
@@ -22,8 +21,8 @@ import java.util.List;
 public class RoleServiceImpl {
 
     private final RoleRepository roleRepository;
-    private final ModuleRepository moduleRepository;
-    private final RoleModuleRepository roleModuleRepository;
+    private final AssignmentSyncService assignmentSyncService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public void saveOrUpdate(RoleDTO dto) {
@@ -45,18 +44,8 @@ public class RoleServiceImpl {
         Role saved = roleRepository.save(role);
 
         // actualiza los módulos asociados
-        roleModuleRepository.deleteByRole(saved);
-        if (dto.getModuleIds() != null) {
-            for (UUID moduleId : dto.getModuleIds()) {
-                AuthModule module = moduleRepository.findById(moduleId)
-                        .orElseThrow(() -> new RuntimeException("Módulo no encontrado"));
-                roleModuleRepository.save(AuthRoleModule.builder()
-                        .role(saved)
-                        .module(module)
-                        .status(1)
-                        .build());
-            }
-        }
+        assignmentSyncService.syncRoleModules(saved.getId(), dto.getModuleIds());
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.ROLE, saved.getId()));
     }
 
     public PageResponse<RoleDTO> getAll(int page, int size) {
@@ -79,5 +68,6 @@ public class RoleServiceImpl {
                 .orElseThrow(() -> new RuntimeException("Rol no encontrado"));
         role.setStatus(0);
         roleRepository.save(role);
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.ROLE, id));
     }
 }
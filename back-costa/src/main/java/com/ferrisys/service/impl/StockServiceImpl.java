@@ -0,0 +1,170 @@
+package com.ferrisys.service.impl;
+
+import com.ferrisys.common.dto.KardexEntryDTO;
+import com.ferrisys.common.dto.StockAdjustmentDTO;
+import com.ferrisys.common.dto.StockBalanceDTO;
+import com.ferrisys.common.dto.StockDiscrepancyDTO;
+import com.ferrisys.common.enums.StockMovementType;
+import com.ferrisys.common.exception.impl.BadRequestException;
+import com.ferrisys.common.exception.impl.NotFoundException;
+import com.ferrisys.repository.ProductRepository;
+import com.ferrisys.repository.StockKardexRepository;
+import com.ferrisys.repository.StockLedgerRepository;
+import com.ferrisys.repository.StockLedgerRepository.Delta;
+import com.ferrisys.repository.StockLedgerRepository.Key;
+import com.ferrisys.repository.StockLedgerRepository.Movement;
+import com.ferrisys.service.StockService;
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Slf4j
+@Service
+public class StockServiceImpl implements StockService {
+
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::productId).thenComparing(Key::warehouseId);
+
+    private final StockLedgerRepository stockLedgerRepository;
+    private final StockKardexRepository stockKardexRepository;
+    private final ProductRepository productRepository;
+    private final int balanceShards;
+
+    public StockServiceImpl(
+            StockLedgerRepository stockLedgerRepository,
+            StockKardexRepository stockKardexRepository,
+            ProductRepository productRepository,
+            @Value("${inventory.stock.balance-shards:8}") int balanceShards) {
+        this.stockLedgerRepository = stockLedgerRepository;
+        this.stockKardexRepository = stockKardexRepository;
+        this.productRepository = productRepository;
+        this.balanceShards = Math.max(1, balanceShards);
+    }
+
+    /**
+     * Books whatever movements bring the document's net stock effect to {@code quantityByProduct}
+     * (signed: receipts positive, issues negative). Saving an unchanged document books nothing;
+     * an empty map reverses everything it booked before.
+     */
+    @Override
+    @Transactional
+    public void syncSource(StockMovementType type, UUID sourceId, Map<UUID, Long> quantityByProduct) {
+        stockLedgerRepository.lockSource(type, sourceId);
+        Map<Key, Long> booked = stockLedgerRepository.netBySource(type, sourceId);
+        Set<Key> keys = new HashSet<>(booked.keySet());
+        quantityByProduct.keySet().forEach(productId -> keys.add(new Key(productId, DEFAULT_WAREHOUSE_ID)));
+
+        List<Movement> movements = new ArrayList<>();
+        for (Key key : keys) {
+            long target = DEFAULT_WAREHOUSE_ID.equals(key.warehouseId())
+                    ? quantityByProduct.getOrDefault(key.productId(), 0L)
+                    : 0L;
+            long difference = target - booked.getOrDefault(key, 0L);
+            if (difference != 0) {
+                movements.add(new Movement(key.productId(), key.warehouseId(), Math.toIntExact(difference), type, sourceId, null));
+            }
+        }
+        record(movements);
+    }
+
+    @Override
+    @Transactional
+    public void adjust(StockAdjustmentDTO dto) {
+        if (dto.productId() == null || dto.quantity() == null || dto.quantity() == 0) {
+            throw new BadRequestException("El ajuste requiere producto y una cantidad distinta de cero");
+        }
+        if (!productRepository.existsById(dto.productId())) {
+            throw new NotFoundException("Producto no encontrado");
+        }
+        UUID warehouseId = dto.warehouseId() != null ? dto.warehouseId() : DEFAULT_WAREHOUSE_ID;
+        record(List.of(new Movement(dto.productId(), warehouseId, dto.quantity(), StockMovementType.ADJUSTMENT, null, dto.note())));
+    }
+
+    @Override
+    public List<StockBalanceDTO> getBalances(UUID productId) {
+        return stockLedgerRepository.findBalances(productId);
+    }
+
+    @Override
+    @Transactional
+    public List<StockDiscrepancyDTO> reconcile(UUID productId, boolean repair) {
+        if (!repair) {
+            return stockLedgerRepository.findDiscrepancies(productId);
+        }
+        List<StockDiscrepancyDTO> repaired = stockLedgerRepository.repairDiscrepancies(productId);
+        if (!repaired.isEmpty()) {
+            log.warn("Stock balances corrected against the ledger: {}", repaired);
+        }
+        int checkpoints = stockKardexRepository.repairCheckpoints(productId);
+        if (checkpoints > 0) {
+            log.warn("Stock checkpoints corrected against the ledger: {}", checkpoints);
+        }
+        return repaired;
+    }
+
+    /**
+     * Checks the product and the range and reads the opening balance at {@code from}, so the
+     * caller can reject a bad request before it starts writing. Open bounds mean the start of
+     * history and now.
+     */
+    @Override
+    public KardexRange openKardex(UUID productId, UUID warehouseId, LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new BadRequestException("El rango de fechas es inválido");
+        }
+        if (!productRepository.existsById(productId)) {
+            throw new NotFoundException("Producto no encontrado");
+        }
+        UUID warehouse = warehouseId != null ? warehouseId : DEFAULT_WAREHOUSE_ID;
+        long opening = from != null ? stockKardexRepository.findBalanceBefore(productId, warehouse, from) : 0L;
+        return new KardexRange(productId, warehouse, from, to, opening);
+    }
+
+    /**
+     * Emits the opening balance followed by every movement in {@code [from, to)} with its running
+     * balance. Runs outside a transaction: movements are read page by page, so no connection is
+     * held while the client downloads.
+     */
+    @Override
+    public void streamKardex(KardexRange range, Consumer<KardexEntryDTO> sink) {
+        sink.accept(KardexEntryDTO.opening(range.from(), range.opening()));
+        stockKardexRepository.streamMovements(range.productId(), range.warehouseId(), range.from(), range.to(),
+                range.opening(), sink);
+    }
+
+    /**
+     * Appends the movements and adds them to one randomly chosen shard per product/warehouse.
+     * Deltas are applied in key order so two documents touching the same products lock their
+     * rows in the same sequence.
+     */
+    private void record(List<Movement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        stockLedgerRepository.insertMovements(movements);
+
+        Map<Key, Long> totals = new TreeMap<>(KEY_ORDER);
+        for (Movement movement : movements) {
+            totals.merge(new Key(movement.productId(), movement.warehouseId()), (long) movement.quantity(), Long::sum);
+        }
+        List<Delta> deltas = new ArrayList<>(totals.size());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        totals.forEach((key, quantity) -> {
+            if (quantity != 0) {
+                deltas.add(new Delta(key.productId(), key.warehouseId(), random.nextInt(balanceShards), quantity));
+            }
+        });
+        stockLedgerRepository.addToBalances(deltas);
+    }
+}
@@ -2,31 +2,36 @@ package com.ferrisys.service.impl;
 
 import com.ferrisys.common.dto.ModuleDTO;
 import com.ferrisys.common.dto.PageResponse;
-import com.ferrisys.common.entity.user.AuthModule;
-import com.ferrisys.mapper.ModuleMapper;
+import com.ferrisys.common.dto.auth.AuthSnapshot;
+import com.ferrisys.common.event.CacheInvalidationEvent;
+import com.ferrisys.common.event.CacheInvalidationEvent.Target;
+import com.ferrisys.repository.AuthSnapshotRepository;
 import com.ferrisys.repository.AuthUserRoleRepository;
-import com.ferrisys.repository.RoleModuleRepository;
 import com.ferrisys.repository.RoleRepository;
 import com.ferrisys.repository.UserRepository;
 import com.ferrisys.repository.UserStatusRepository;
 import com.ferrisys.service.FeatureFlagService;
 import com.ferrisys.service.UserService;
+import com.ferrisys.service.menu.ModuleMenu;
+import com.ferrisys.service.menu.ModuleMenuCache;
 import com.ferrisys.common.dto.AuthResponse;
 import com.ferrisys.common.dto.RegisterRequest;
 import com.ferrisys.common.entity.user.Role;
 import com.ferrisys.common.entity.user.AuthUserRole;
 import com.ferrisys.common.entity.user.User;
 import com.ferrisys.common.entity.user.UserStatus;
+import com.ferrisys.config.security.AuthenticatedUser;
+import com.ferrisys.config.security.AuthorityResolver;
 import com.ferrisys.config.security.JWTUtil;
+import com.ferrisys.config.security.PasswordHashingService;
+import com.ferrisys.config.security.SecurityVersionTable;
 import com.ferrisys.common.exception.impl.BadRequestException;
 import com.ferrisys.common.exception.impl.NotFoundException;
-import io.jsonwebtoken.Claims;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import com.ferrisys.common.enums.DefaultRole;
 import com.ferrisys.common.enums.DefaultUserStatus;
@@ -43,10 +48,14 @@ public class UserServiceImpl implements UserService {
     private final AuthUserRoleRepository authUserRoleRepository;
     private final RoleRepository roleRepository ;
     private final UserStatusRepository userStatusRepository ;
-    private final RoleModuleRepository roleModuleRepository;
+    private final AuthSnapshotRepository authSnapshotRepository;
     private final JWTUtil jwtUtil;
     private final FeatureFlagService featureFlagService;
-    private final ModuleMapper moduleMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AuthorityResolver authorityResolver;
+    private final SecurityVersionTable securityVersionTable;
+    private final PasswordHashingService passwordHashingService;
+    private final ModuleMenuCache moduleMenuCache;
 
     @Override
     public User getAuthUser(String username) {
@@ -76,9 +85,10 @@ public class UserServiceImpl implements UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new NotFoundException("User not found"));
 
-        user.setPassword(new BCryptPasswordEncoder().encode(newPassword));
+        user.setPassword(passwordHashingService.encode(newPassword));
         user.setStatus(new UserStatus(DefaultUserStatus.ACTIVE.getId()));
         userRepository.save(user);
+        eventPublisher.publishEvent(CacheInvalidationEvent.of(Target.USER, userId));
     }
 
     @Override
@@ -87,8 +97,19 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new NotFoundException("User role not found"));
     }
 
+    @Override
+    public AuthSnapshot getAuthSnapshot(String username) {
+        AuthSnapshot snapshot = authSnapshotRepository.findActiveByUsername(username)
+                .orElseThrow(() -> new NotFoundException("User not found or inactive"));
+        if (snapshot.roleId() == null) {
+            throw new NotFoundException("User role not found");
+        }
+        return snapshot;
+    }
+
     @Override
     public AuthResponse registerUser(RegisterRequest request) {
+        long securityVersion = securityVersionTable.currentVersion();
         if (userRepository.findByUsername(request.getUsername()).isPresent()) {
             throw new BadRequestException("Username already exists");
         }
@@ -99,7 +120,7 @@ public class UserServiceImpl implements UserService {
         User user = User.builder()
                 .username(request.getUsername())
                 .email(request.getEmail())
-                .password(new BCryptPasswordEncoder().encode(request.getPassword()))
+                .password(passwordHashingService.encode(request.getPassword()))
                 .fullName(request.getFullName())
                 .status(activeStatus)
                 .build();
@@ -117,7 +138,7 @@ public class UserServiceImpl implements UserService {
 
         authUserRoleRepository.save(userRole);
 
-        String token = jwtUtil.generateToken(saved);
+        String token = issueToken(saved, defaultRole, securityVersion);
 
         return AuthResponse.builder()
                 .token(token)
@@ -129,58 +150,80 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public AuthResponse authenticate(String username, String password) {
-        User user = getAuthUser(username);
+        // read before the snapshot: a change committed while it loads must outdate this token
+        long securityVersion = securityVersionTable.currentVersion();
+        AuthSnapshot snapshot = authSnapshotRepository.findActiveByUsername(username)
+                .orElseThrow(() -> new NotFoundException("User not found or inactive"));
 
-        if (!new BCryptPasswordEncoder().matches(password, user.getPassword())) {
+        if (!passwordHashingService.matches(password, snapshot.password())) {
             throw new BadRequestException("Invalid credentials");
         }
+        if (snapshot.roleId() == null) {
+            throw new NotFoundException("User role not found");
+        }
+        if (passwordHashingService.needsRehash(snapshot.password())) {
+            userRepository.updatePassword(snapshot.userId(), passwordHashingService.encode(password));
+        }
 
-        String token = jwtUtil.generateToken(user);
-        AuthUserRole role = getUserRole(user.getId());
-
-        return AuthResponse.builder()
-                .token(token)
-                .username(user.getUsername())
-                .email(user.getEmail())
-                .role(role.getRole().getName())
-                .build();
+        return toAuthResponse(snapshot, issueToken(snapshot, securityVersion));
     }
 
     @Override
     public AuthResponse recoverPassword(String newPassword, String confirmPassword, String userToken) {
-        Claims claims = jwtUtil.getClaims(userToken);
-        String username = claims.getSubject();
+        String username = jwtUtil.verify(userToken).username();
 
         User user = getUserByUsername(username);
         changePassword(user.getId(), newPassword, confirmPassword);
 
-        String token = jwtUtil.generateToken(user);
-        AuthUserRole role = getUserRole(user.getId());
+        long securityVersion = securityVersionTable.currentVersion();
+        AuthSnapshot snapshot = getAuthSnapshot(username);
+        return toAuthResponse(snapshot, issueToken(snapshot, securityVersion));
+    }
 
+    @Override
+    public PageResponse<ModuleDTO> getModulesForCurrentUser(int page, int size) {
+        return getModuleMenuForCurrentUser().page(page, size);
+    }
+
+    @Override
+    public ModuleMenu getModuleMenuForCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return moduleMenuCache.get(principal.getUserId(),
+                    () -> buildModuleMenu(getAuthSnapshot(principal.getUsername())));
+        }
+        return buildModuleMenu(getAuthSnapshot(jwtUtil.getCurrentUser()));
+    }
+
+    private ModuleMenu buildModuleMenu(AuthSnapshot snapshot) {
+        List<ModuleDTO> visibleModules = snapshot.modules().stream()
+                .filter(module -> featureFlagService.enabled(snapshot.userId(), module.name()))
+                .toList();
+        return ModuleMenu.of(visibleModules);
+    }
+
+    private String issueToken(AuthSnapshot snapshot, long securityVersion) {
+        if (!jwtUtil.isSelfContainedAuthorities()) {
+            return jwtUtil.generateToken(snapshot.username());
+        }
+        return jwtUtil.generateToken(snapshot.userId(), snapshot.username(),
+                authorityResolver.resolve(snapshot), securityVersion);
+    }
+
+    private AuthResponse toAuthResponse(AuthSnapshot snapshot, String token) {
         return AuthResponse.builder()
                 .token(token)
-                .username(user.getUsername())
-                .email(user.getEmail())
-                .role(role.getRole().getName())
+                .username(snapshot.username())
+                .email(snapshot.email())
+                .role(snapshot.roleName())
                 .build();
     }
 
-    @Override
-    public PageResponse<ModuleDTO> getModulesForCurrentUser(int page, int size) {
-        String username = jwtUtil.getCurrentUser();
-        User user = getAuthUser(username);
-        AuthUserRole role = getUserRole(user.getId());
-
-        Page<AuthModule> result = roleModuleRepository.findModulesByRoleId(
-                role.getRole().getId(), PageRequest.of(page, size));
-        List<AuthModule> filteredModules = result.getContent().stream()
-                .filter(module -> featureFlagService.enabled(user.getId(), module.getName()))
-                .toList();
-        Page<ModuleDTO> pageDto = new PageImpl<>(
-                moduleMapper.toDtoList(filteredModules),
-                result.getPageable(),
-                result.getTotalElements());
-        return PageResponse.from(pageDto);
+    private String issueToken(User user, Role role, long securityVersion) {
+        if (!jwtUtil.isSelfContainedAuthorities()) {
+            return jwtUtil.generateToken(user);
+        }
+        return jwtUtil.generateToken(user, authorityResolver.resolve(user.getId(), role), securityVersion);
     }
 
 }
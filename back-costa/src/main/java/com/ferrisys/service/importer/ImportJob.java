@@ -0,0 +1,92 @@
+package com.ferrisys.service.importer;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one bulk import. Counters are updated by the worker and read by polling clients;
+ * only the first {@link #MAX_ERRORS} row errors are kept.
+ */
+public class ImportJob {
+
+    public static final int MAX_ERRORS = 1000;
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    public record RowError(long line, String username, String message) {}
+
+    public record View(UUID id, Status status, long processed, long created, long failed,
+                       List<RowError> errors, boolean errorsTruncated, String message,
+                       OffsetDateTime submittedAt, OffsetDateTime finishedAt) {}
+
+    private final UUID id = UUID.randomUUID();
+    private final OffsetDateTime submittedAt = OffsetDateTime.now();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final List<RowError> errors = new ArrayList<>();
+    private volatile Status status = Status.QUEUED;
+    private volatile String message;
+    private volatile OffsetDateTime finishedAt;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public OffsetDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    void start() {
+        status = Status.RUNNING;
+    }
+
+    void complete() {
+        finish(Status.COMPLETED, null);
+    }
+
+    void fail(String reason) {
+        finish(Status.FAILED, reason);
+    }
+
+    void recordProcessed(int rows) {
+        processed.addAndGet(rows);
+    }
+
+    void recordCreated(int rows) {
+        created.addAndGet(rows);
+    }
+
+    void recordError(long line, String username, String error) {
+        failed.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(new RowError(line, username, error));
+            }
+        }
+    }
+
+    public View view() {
+        List<RowError> snapshot;
+        synchronized (errors) {
+            snapshot = List.copyOf(errors);
+        }
+        long failedRows = failed.get();
+        return new View(id, status, processed.get(), created.get(), failedRows, snapshot,
+                failedRows > snapshot.size(), message, submittedAt, finishedAt);
+    }
+
+    private void finish(Status finalStatus, String reason) {
+        message = reason;
+        finishedAt = OffsetDateTime.now();
+        status = finalStatus;
+    }
+}
@@ -0,0 +1,185 @@
+package com.ferrisys.service.importer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ferrisys.common.exception.impl.BadRequestException;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads import rows one line at a time from a CSV file with a header row or from NDJSON. CSV
+ * roles are separated by {@code |}; quoted CSV fields may not span lines.
+ */
+class UserImportReader implements Closeable {
+
+    enum Format {
+        CSV,
+        NDJSON;
+
+        static Format from(String format, String filename) {
+            String value = format != null && !format.isBlank() ? format : extension(filename);
+            return switch (value.toLowerCase(Locale.ROOT)) {
+                case "csv" -> CSV;
+                case "ndjson", "jsonl" -> NDJSON;
+                default -> throw new BadRequestException("Unsupported import format: " + value);
+            };
+        }
+
+        private static String extension(String filename) {
+            int dot = filename == null ? -1 : filename.lastIndexOf('.');
+            return dot < 0 ? "" : filename.substring(dot + 1);
+        }
+    }
+
+    record Row(long line, String username, String email, String fullName, String password,
+               Integer status, List<String> roles, String error) {}
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectMapper objectMapper;
+    private Map<String, Integer> header;
+    private long line;
+
+    UserImportReader(Path file, Format format, ObjectMapper objectMapper) throws IOException {
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /** The next non-blank row, or {@code null} at the end of the file. */
+    Row next() throws IOException {
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            if (format == Format.NDJSON) {
+                return parseJson(text);
+            }
+            if (header == null) {
+                header = parseHeader(text);
+                continue;
+            }
+            return parseCsv(text);
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Row parseJson(String text) {
+        try {
+            JsonNode node = objectMapper.readTree(text);
+            List<String> roles = new ArrayList<>();
+            JsonNode rolesNode = node.path("roles");
+            if (rolesNode.isArray()) {
+                rolesNode.forEach(role -> roles.add(role.asText()));
+            } else if (rolesNode.isTextual()) {
+                roles.add(rolesNode.asText());
+            }
+            return new Row(line, text(node, "username"), text(node, "email"), text(node, "fullName"),
+                    text(node, "password"), node.hasNonNull("status") ? node.get("status").asInt() : null,
+                    roles, null);
+        } catch (IOException e) {
+            return invalid("Malformed JSON");
+        }
+    }
+
+    private Map<String, Integer> parseHeader(String text) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsv(text);
+        if (names == null) {
+            throw new BadRequestException("Malformed CSV header");
+        }
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("username", "email", "password")) {
+            if (!columns.containsKey(required)) {
+                throw new BadRequestException("CSV header is missing column: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private Row parseCsv(String text) {
+        List<String> fields = splitCsv(text);
+        if (fields == null) {
+            return invalid("Unterminated quoted field");
+        }
+        String status = column(fields, "status");
+        Integer statusCode;
+        try {
+            statusCode = status == null ? null : Integer.valueOf(status);
+        } catch (NumberFormatException e) {
+            return invalid("Invalid status: " + status);
+        }
+        String roles = column(fields, "roles");
+        List<String> roleList = roles == null ? List.of() : List.of(roles.split("\\|"));
+        return new Row(line, column(fields, "username"), column(fields, "email"), column(fields, "fullname"),
+                column(fields, "password"), statusCode, roleList, null);
+    }
+
+    private String column(List<String> fields, String name) {
+        Integer index = header.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private Row invalid(String error) {
+        return new Row(line, null, null, null, null, null, List.of(), error);
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    /** RFC 4180 fields on a single line; {@code null} when a quote is left open. */
+    private static List<String> splitCsv(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,364 @@
+package com.ferrisys.service.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ferrisys.common.entity.user.Role;
+import com.ferrisys.common.enums.DefaultRole;
+import com.ferrisys.common.enums.DefaultUserStatus;
+import com.ferrisys.common.exception.impl.BadRequestException;
+import com.ferrisys.common.exception.impl.NotFoundException;
+import com.ferrisys.common.exception.impl.TooManyRequestsException;
+import com.ferrisys.common.id.UuidV7;
+import com.ferrisys.config.security.PasswordHashingService;
+import com.ferrisys.repository.RoleRepository;
+import com.ferrisys.service.importer.UserImportReader.Format;
+import com.ferrisys.service.importer.UserImportReader.Row;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Bulk user import. The upload is spooled to a temp file and processed in the background one
+ * chunk at a time: rows are validated, passwords hashed in parallel on the shared hashing pool,
+ * and users plus role links written in one transaction per chunk. Only the current chunk is held
+ * in memory. Usernames already taken are skipped before hashing, and the insert itself skips any
+ * taken meanwhile, so each row is reported as created or failed even with concurrent writers.
+ *
+ * <p>Jobs and their progress live in this instance's memory: behind a load balancer the status
+ * endpoint must be routed to the node that accepted the upload (sticky sessions), and a restart
+ * loses queued and finished jobs.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    private static final int MAX_USERNAME_LENGTH = 100;
+    private static final int MAX_TEXT_LENGTH = 255;
+    private static final long FINISHED_JOB_RETENTION_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RoleRepository roleRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final ThreadPoolExecutor worker;
+    private final Map<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public UserImportService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            RoleRepository roleRepository,
+            PasswordHashingService passwordHashingService,
+            ObjectMapper objectMapper,
+            @Value("${import.users.chunk-size:500}") int chunkSize,
+            @Value("${import.users.max-queued-jobs:4}") int maxQueuedJobs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.roleRepository = roleRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.worker = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxQueuedJobs)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-import");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public ImportJob.View submit(MultipartFile file, String format) {
+        if (file == null || file.isEmpty()) {
+            throw new BadRequestException("Import file is empty");
+        }
+        Format importFormat = Format.from(format, file.getOriginalFilename());
+        Path spool;
+        try {
+            spool = Files.createTempFile("user-import-", "." + importFormat.name().toLowerCase(Locale.ROOT));
+            file.transferTo(spool);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store import file", e);
+        }
+
+        evictFinishedJobs();
+        ImportJob job = new ImportJob();
+        jobs.put(job.getId(), job);
+        try {
+            worker.execute(() -> run(job, spool, importFormat));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            deleteQuietly(spool);
+            throw new TooManyRequestsException("Too many imports in progress, please retry later");
+        }
+        return job.view();
+    }
+
+    public ImportJob.View get(UUID jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new NotFoundException("Import job not found");
+        }
+        return job.view();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    private void run(ImportJob job, Path spool, Format format) {
+        job.start();
+        try (UserImportReader reader = new UserImportReader(spool, format, objectMapper)) {
+            Map<String, UUID> roles = loadRoles();
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            Row row;
+            while ((row = reader.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    processChunk(job, chunk, roles);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(job, chunk, roles);
+            }
+            job.complete();
+        } catch (RuntimeException | IOException e) {
+            log.warn("User import {} failed", job.getId(), e);
+            job.fail(e.getMessage());
+        } finally {
+            deleteQuietly(spool);
+        }
+    }
+
+    private void processChunk(ImportJob job, List<Row> chunk, Map<String, UUID> roles) {
+        List<Row> candidates = new ArrayList<>(chunk.size());
+        List<List<UUID>> candidateRoles = new ArrayList<>(chunk.size());
+        Set<String> seen = new HashSet<>();
+        for (Row row : chunk) {
+            String error = validate(row);
+            List<UUID> roleIds = new ArrayList<>();
+            if (error == null) {
+                error = resolveRoles(row, roles, roleIds);
+            }
+            if (error == null && !seen.add(row.username())) {
+                error = "Duplicate username in file";
+            }
+            if (error != null) {
+                job.recordError(row.line(), row.username(), error);
+            } else {
+                candidates.add(row);
+                candidateRoles.add(roleIds);
+            }
+        }
+
+        Set<String> existing = existingUsernames(seen);
+        List<Row> accepted = new ArrayList<>(candidates.size());
+        List<List<UUID>> acceptedRoles = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            Row row = candidates.get(i);
+            if (existing.contains(row.username())) {
+                job.recordError(row.line(), row.username(), "Username already exists");
+            } else {
+                accepted.add(row);
+                acceptedRoles.add(candidateRoles.get(i));
+            }
+        }
+
+        if (!accepted.isEmpty()) {
+            try {
+                List<String> hashes = passwordHashingService.encodeAll(accepted.stream().map(Row::password).toList());
+                Set<String> created = transactionTemplate.execute(status -> insert(accepted, acceptedRoles, hashes));
+                for (Row row : accepted) {
+                    if (!created.contains(row.username())) {
+                        job.recordError(row.line(), row.username(), "Username already exists");
+                    }
+                }
+                job.recordCreated(created.size());
+            } catch (DataAccessException e) {
+                log.warn("User import {}: chunk ending at line {} failed", job.getId(),
+                        chunk.get(chunk.size() - 1).line(), e);
+                accepted.forEach(row -> job.recordError(row.line(), row.username(), "Could not be saved"));
+            }
+        }
+        job.recordProcessed(chunk.size());
+    }
+
+    /**
+     * Inserts the users with a single statement that skips usernames taken since the check, then
+     * links roles for the ones actually inserted. Returns the inserted usernames.
+     */
+    private Set<String> insert(List<Row> rows, List<List<UUID>> roleIds, List<String> hashes) {
+        int size = rows.size();
+        UUID[] ids = new UUID[size];
+        String[] usernames = new String[size];
+        String[] emails = new String[size];
+        String[] fullNames = new String[size];
+        UUID[] statuses = new UUID[size];
+        for (int i = 0; i < size; i++) {
+            Row row = rows.get(i);
+            ids[i] = UuidV7.generate();
+            usernames[i] = row.username();
+            emails[i] = row.email();
+            fullNames[i] = row.fullName();
+            statuses[i] = row.status() == null || row.status() == 1
+                    ? DefaultUserStatus.ACTIVE.getId()
+                    : DefaultUserStatus.INACTIVE.getId();
+        }
+
+        Set<String> created = new HashSet<>();
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement("""
+                            INSERT INTO auth_user (id, username, password, email, full_name, status_id, created_at)
+                            SELECT u.id, u.username, u.password, u.email, u.full_name, u.status_id, ?
+                            FROM unnest(?::uuid[], ?::varchar[], ?::varchar[], ?::varchar[], ?::varchar[], ?::uuid[])
+                                 AS u (id, username, password, email, full_name, status_id)
+                            ON CONFLICT (username) DO NOTHING
+                            RETURNING username""");
+                    ps.setObject(1, LocalDateTime.now());
+                    ps.setArray(2, connection.createArrayOf("uuid", ids));
+                    ps.setArray(3, connection.createArrayOf("varchar", usernames));
+                    ps.setArray(4, connection.createArrayOf("varchar", hashes.toArray()));
+                    ps.setArray(5, connection.createArrayOf("varchar", emails));
+                    ps.setArray(6, connection.createArrayOf("varchar", fullNames));
+                    ps.setArray(7, connection.createArrayOf("uuid", statuses));
+                    return ps;
+                },
+                rs -> {
+                    created.add(rs.getString(1));
+                });
+
+        List<UUID[]> links = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (created.contains(usernames[i])) {
+                for (UUID roleId : roleIds.get(i)) {
+                    links.add(new UUID[] {ids[i], roleId});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO auth_user_role (id, auth_user_id, auth_role_id, status, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, 1, now(), now())",
+                links,
+                links.size(),
+                (ps, link) -> {
+                    ps.setObject(1, UuidV7.generate());
+                    ps.setObject(2, link[0]);
+                    ps.setObject(3, link[1]);
+                });
+        return created;
+    }
+
+    private static String validate(Row row) {
+        if (row.error() != null) {
+            return row.error();
+        }
+        if (row.username() == null || row.username().isBlank()) {
+            return "username is required";
+        }
+        if (row.username().length() > MAX_USERNAME_LENGTH) {
+            return "username is too long";
+        }
+        if (row.email() == null || !row.email().contains("@") || row.email().length() > MAX_TEXT_LENGTH) {
+            return "email is invalid";
+        }
+        if (row.password() == null || row.password().isBlank()) {
+            return "password is required";
+        }
+        if (row.fullName() != null && row.fullName().length() > MAX_TEXT_LENGTH) {
+            return "fullName is too long";
+        }
+        if (row.status() != null && row.status() != 0 && row.status() != 1) {
+            return "status must be 0 or 1";
+        }
+        return null;
+    }
+
+    private static String resolveRoles(Row row, Map<String, UUID> roles, List<UUID> roleIds) {
+        if (row.roles().isEmpty()) {
+            roleIds.add(DefaultRole.USER.getId());
+            return null;
+        }
+        Set<UUID> distinct = new HashSet<>();
+        for (String role : row.roles()) {
+            UUID roleId = roles.get(role.trim().toUpperCase(Locale.ROOT));
+            if (roleId == null) {
+                return "Unknown role: " + role.trim();
+            }
+            if (distinct.add(roleId)) {
+                roleIds.add(roleId);
+            }
+        }
+        return null;
+    }
+
+    /** Roles by upper-cased name and by id, loaded once per job. */
+    private Map<String, UUID> loadRoles() {
+        Map<String, UUID> roles = new HashMap<>();
+        for (Role role : roleRepository.findAll()) {
+            roles.put(role.getId().toString().toUpperCase(Locale.ROOT), role.getId());
+            if (role.getName() != null) {
+                roles.put(role.getName().toUpperCase(Locale.ROOT), role.getId());
+            }
+        }
+        return roles;
+    }
+
+    private Set<String> existingUsernames(Set<String> usernames) {
+        if (usernames.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> existing = new HashSet<>();
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(
+                            "SELECT username FROM auth_user WHERE username = ANY (?)");
+                    ps.setArray(1, connection.createArrayOf("varchar", usernames.toArray()));
+                    return ps;
+                },
+                rs -> {
+                    existing.add(rs.getString(1));
+                });
+        return existing;
+    }
+
+    private void evictFinishedJobs() {
+        long cutoff = System.currentTimeMillis() - FINISHED_JOB_RETENTION_MILLIS;
+        jobs.values().removeIf(job -> job.getFinishedAt() != null
+                && job.getFinishedAt().toInstant().toEpochMilli() < cutoff);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete temp file {}", path);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.ferrisys.service.license;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable view of {@code auth_module} and {@code module_license}. Modules are addressed by a
+ * dense index; each tenant keeps a bitset of denied modules plus its pending expirations sorted
+ * by time, so a lookup is a map get and a bit test.
+ */
+final class LicenseSnapshot {
+
+    private final long[] knownModules;
+    private final Map<UUID, Integer> moduleIndexById;
+    private final Map<UUID, TenantLicenses> tenants;
+    private final long nextExpiryAt;
+
+    LicenseSnapshot(long[] knownModules, Map<UUID, Integer> moduleIndexById, Map<UUID, TenantLicenses> tenants) {
+        this.knownModules = knownModules;
+        this.moduleIndexById = Collections.unmodifiableMap(moduleIndexById);
+        this.tenants = Collections.unmodifiableMap(tenants);
+        long next = Long.MAX_VALUE;
+        for (TenantLicenses tenant : tenants.values()) {
+            next = Math.min(next, tenant.nextExpiryAt());
+        }
+        this.nextExpiryAt = next;
+    }
+
+    boolean isKnownModule(int moduleIndex) {
+        return isSet(knownModules, moduleIndex);
+    }
+
+    Integer moduleIndexOf(UUID moduleId) {
+        return moduleIndexById.get(moduleId);
+    }
+
+    Map<UUID, Integer> moduleIndexById() {
+        return moduleIndexById;
+    }
+
+    long[] knownModules() {
+        return knownModules;
+    }
+
+    TenantLicenses tenant(UUID tenantId) {
+        return tenants.get(tenantId);
+    }
+
+    Map<UUID, TenantLicenses> tenants() {
+        return tenants;
+    }
+
+    long nextExpiryAt() {
+        return nextExpiryAt;
+    }
+
+    static boolean isSet(long[] bits, int index) {
+        int word = index >>> 6;
+        return word < bits.length && (bits[word] & (1L << index)) != 0;
+    }
+
+    static long[] set(long[] bits, int index) {
+        int word = index >>> 6;
+        long[] target = word < bits.length ? bits : Arrays.copyOf(bits, word + 1);
+        target[word] |= 1L << index;
+        return target;
+    }
+
+    /**
+     * Licenses of one tenant. {@code denied} holds disabled or already expired modules; modules
+     * that expire later sit in {@code expiringModules}, ordered by {@code expiringAt}.
+     */
+    record TenantLicenses(long[] denied, int[] expiringModules, long[] expiringAt) {
+
+        boolean isDenied(int moduleIndex) {
+            return isSet(denied, moduleIndex);
+        }
+
+        long nextExpiryAt() {
+            return expiringAt.length > 0 ? expiringAt[0] : Long.MAX_VALUE;
+        }
+
+        /** Moves every expiration reached at {@code now} into the denied bitset. */
+        TenantLicenses advance(long now) {
+            int expired = 0;
+            while (expired < expiringAt.length && expiringAt[expired] <= now) {
+                expired++;
+            }
+            if (expired == 0) {
+                return this;
+            }
+            long[] nextDenied = denied.clone();
+            for (int i = 0; i < expired; i++) {
+                nextDenied = set(nextDenied, expiringModules[i]);
+            }
+            return new TenantLicenses(
+                    nextDenied,
+                    Arrays.copyOfRange(expiringModules, expired, expiringModules.length),
+                    Arrays.copyOfRange(expiringAt, expired, expiringAt.length));
+        }
+    }
+}
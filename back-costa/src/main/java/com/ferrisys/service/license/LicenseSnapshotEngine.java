@@ -0,0 +1,188 @@
+package com.ferrisys.service.license;
+
+import com.ferrisys.common.entity.license.ModuleLicense;
+import com.ferrisys.common.entity.user.AuthModule;
+import com.ferrisys.common.event.CacheInvalidationEvent;
+import com.ferrisys.repository.ModuleLicenseRepository;
+import com.ferrisys.repository.ModuleRepository;
+import com.ferrisys.service.license.LicenseSnapshot.TenantLicenses;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Keeps the current {@link LicenseSnapshot} and swaps in a new one when modules or licenses
+ * change. Reads never lock; rebuilds are serialized and only touch the tenants that changed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LicenseSnapshotEngine {
+
+    private final ModuleRepository moduleRepository;
+    private final ModuleLicenseRepository moduleLicenseRepository;
+
+    // Append-only: an index handed out once stays valid across rebuilds.
+    private final Map<String, Integer> moduleIndexes = new ConcurrentHashMap<>();
+    private final AtomicInteger nextModuleIndex = new AtomicInteger();
+    private final AtomicReference<LicenseSnapshot> current = new AtomicReference<>();
+    private final Object rebuildLock = new Object();
+
+    /**
+     * Dense index for a module name, compared case-insensitively like
+     * {@code ModuleRepository.findByNameIgnoreCase}.
+     */
+    public int moduleIndex(String moduleName) {
+        String key = moduleName.toUpperCase(Locale.ROOT);
+        Integer index = moduleIndexes.get(key);
+        return index != null ? index : moduleIndexes.computeIfAbsent(key, k -> nextModuleIndex.getAndIncrement());
+    }
+
+    /**
+     * {@code true} unless the tenant holds a disabled or expired license for the module. Unknown
+     * modules and tenants without a license row are allowed, as before.
+     */
+    public boolean isLicensed(UUID tenantId, int moduleIndex) {
+        LicenseSnapshot snapshot = snapshot();
+        if (!snapshot.isKnownModule(moduleIndex)) {
+            return true;
+        }
+        if (System.currentTimeMillis() >= snapshot.nextExpiryAt()) {
+            snapshot = advanceExpirations();
+        }
+        TenantLicenses tenant = snapshot.tenant(tenantId);
+        return tenant == null || !tenant.isDenied(moduleIndex);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvalidation(CacheInvalidationEvent event) {
+        switch (event.target()) {
+            case MODULE -> rebuildAll();
+            case LICENSE -> {
+                if (event.isFullFlush()) {
+                    rebuildAll();
+                } else {
+                    rebuildTenants(event.ids());
+                }
+            }
+            default -> {
+                // users and roles do not affect licensing
+            }
+        }
+    }
+
+    public void rebuildAll() {
+        synchronized (rebuildLock) {
+            long[] known = new long[0];
+            Map<UUID, Integer> indexById = new HashMap<>();
+            for (AuthModule module : moduleRepository.findAll()) {
+                if (module.getName() == null) {
+                    continue;
+                }
+                int index = moduleIndex(module.getName());
+                indexById.put(module.getId(), index);
+                known = LicenseSnapshot.set(known, index);
+            }
+            Map<UUID, TenantLicenses> tenants = buildTenants(moduleLicenseRepository.findAll(), indexById);
+            current.set(new LicenseSnapshot(known, indexById, tenants));
+            log.debug("License snapshot rebuilt: {} modules, {} tenants", indexById.size(), tenants.size());
+        }
+    }
+
+    public void rebuildTenants(Collection<UUID> tenantIds) {
+        synchronized (rebuildLock) {
+            LicenseSnapshot base = current.get();
+            if (base == null) {
+                rebuildAll();
+                return;
+            }
+            List<ModuleLicense> licenses = moduleLicenseRepository.findByTenantIdIn(tenantIds);
+            // a module this snapshot has never seen must be indexed first, or its licenses would be skipped
+            if (licenses.stream().anyMatch(license -> base.moduleIndexOf(license.getModule().getId()) == null)) {
+                rebuildAll();
+                return;
+            }
+            Map<UUID, TenantLicenses> tenants = new HashMap<>(base.tenants());
+            tenantIds.forEach(tenants::remove);
+            tenants.putAll(buildTenants(licenses, base.moduleIndexById()));
+            current.set(new LicenseSnapshot(base.knownModules(), new HashMap<>(base.moduleIndexById()), tenants));
+        }
+    }
+
+    private LicenseSnapshot snapshot() {
+        LicenseSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            synchronized (rebuildLock) {
+                if (current.get() == null) {
+                    rebuildAll();
+                }
+                snapshot = current.get();
+            }
+        }
+        return snapshot;
+    }
+
+    private LicenseSnapshot advanceExpirations() {
+        synchronized (rebuildLock) {
+            LicenseSnapshot base = current.get();
+            long now = System.currentTimeMillis();
+            if (now < base.nextExpiryAt()) {
+                return base;
+            }
+            Map<UUID, TenantLicenses> tenants = new HashMap<>(base.tenants());
+            tenants.replaceAll((tenantId, licenses) -> licenses.advance(now));
+            LicenseSnapshot next = new LicenseSnapshot(base.knownModules(), new HashMap<>(base.moduleIndexById()), tenants);
+            current.set(next);
+            return next;
+        }
+    }
+
+    private Map<UUID, TenantLicenses> buildTenants(List<ModuleLicense> licenses, Map<UUID, Integer> indexById) {
+        long now = System.currentTimeMillis();
+        Map<UUID, List<ModuleLicense>> byTenant = new HashMap<>();
+        for (ModuleLicense license : licenses) {
+            byTenant.computeIfAbsent(license.getTenantId(), key -> new ArrayList<>()).add(license);
+        }
+
+        Map<UUID, TenantLicenses> tenants = new HashMap<>();
+        byTenant.forEach((tenantId, tenantLicenses) -> {
+            long[] denied = new long[0];
+            List<long[]> expiring = new ArrayList<>();
+            for (ModuleLicense license : tenantLicenses) {
+                Integer index = indexById.get(license.getModule().getId());
+                if (index == null) {
+                    continue;
+                }
+                OffsetDateTime expiresAt = license.getExpiresAt();
+                if (Boolean.FALSE.equals(license.getEnabled())
+                        || (expiresAt != null && expiresAt.toInstant().toEpochMilli() <= now)) {
+                    denied = LicenseSnapshot.set(denied, index);
+                } else if (expiresAt != null) {
+                    expiring.add(new long[] {expiresAt.toInstant().toEpochMilli(), index});
+                }
+            }
+            expiring.sort(Comparator.comparingLong(entry -> entry[0]));
+            int[] modules = new int[expiring.size()];
+            long[] times = new long[expiring.size()];
+            for (int i = 0; i < expiring.size(); i++) {
+                times[i] = expiring.get(i)[0];
+                modules[i] = (int) expiring.get(i)[1];
+            }
+            tenants.put(tenantId, new TenantLicenses(denied, modules, times));
+        });
+        return tenants;
+    }
+}
@@ -0,0 +1,8 @@
+package com.ferrisys.service.license;
+
+/**
+ * A module slug resolved once: whether {@code modules.<slug>.enabled} allows it and the dense
+ * index it maps to in the license snapshot.
+ */
+public record ModuleFlag(String slug, boolean propertyEnabled, int moduleIndex) {
+}
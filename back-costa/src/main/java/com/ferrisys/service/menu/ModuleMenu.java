@@ -0,0 +1,50 @@
+package com.ferrisys.service.menu;
+
+import com.ferrisys.common.dto.ModuleDTO;
+import com.ferrisys.common.dto.PageResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * The modules a user may see, already filtered by license, plus a digest of their content used to
+ * build strong ETags.
+ */
+public record ModuleMenu(List<ModuleDTO> modules, String digest) {
+
+    public static ModuleMenu of(List<ModuleDTO> modules) {
+        return new ModuleMenu(List.copyOf(modules), digest(modules));
+    }
+
+    public PageResponse<ModuleDTO> page(int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        int from = (int) Math.min(pageable.getOffset(), modules.size());
+        int to = Math.min(from + pageable.getPageSize(), modules.size());
+        return PageResponse.from(new PageImpl<>(modules.subList(from, to), pageable, modules.size()));
+    }
+
+    /** Each page is its own representation, so the page coordinates are part of the tag. */
+    public String etag(int page, int size) {
+        return "\"" + digest + "-" + page + "-" + size + "\"";
+    }
+
+    private static String digest(List<ModuleDTO> modules) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            for (ModuleDTO module : modules) {
+                sha.update((module.id() + '\u0000' + module.name() + '\u0000' + module.description()
+                        + '\u0000' + module.status() + '\n').getBytes(StandardCharsets.UTF_8));
+            }
+            byte[] hash = sha.digest();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(hash, 12));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.ferrisys.service.menu;
+
+import com.ferrisys.common.cache.BoundedCache;
+import com.ferrisys.common.event.CacheInvalidationEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.UUID;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Per-user module menus. Entries are dropped on user, role, module and license writes; the TTL
+ * only exists so license expirations, which produce no event, show up eventually.
+ */
+@Slf4j
+@Component
+public class ModuleMenuCache {
+
+    private final BoundedCache<UUID, ModuleMenu> cache;
+
+    public ModuleMenuCache(
+            @Value("${menu.cache.max-size:10000}") int maxSize,
+            @Value("${menu.cache.ttl-seconds:300}") long ttlSeconds,
+            MeterRegistry meterRegistry) {
+        this.cache = new BoundedCache<>("menu.cache", maxSize, ttlSeconds * 1000, meterRegistry);
+    }
+
+    public ModuleMenu get(UUID userId, Supplier<ModuleMenu> loader) {
+        ModuleMenu menu = cache.get(userId);
+        if (menu != null) {
+            return menu;
+        }
+        long loadedAt = cache.generation();
+        menu = loader.get();
+        cache.put(userId, menu, loadedAt);
+        return menu;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvalidation(CacheInvalidationEvent event) {
+        switch (event.target()) {
+            case USER, LICENSE -> {
+                if (event.isFullFlush()) {
+                    cache.invalidateAll();
+                } else {
+                    event.ids().forEach(cache::invalidate);
+                }
+            }
+            case ROLE, MODULE -> cache.invalidateAll();
+            default -> {
+                // catalog data does not affect menus
+            }
+        }
+        log.debug("Module menus invalidated by {}", event);
+    }
+}
@@ -0,0 +1,88 @@
+package com.ferrisys.service.stock;
+
+import com.ferrisys.repository.StockKardexRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the monthly stock checkpoints the kardex starts from. Each run closes again the last
+ * closed month, picking up movements that committed into it after it was closed, then every
+ * month that ended since, oldest first. Runs are idempotent, so several nodes may run the job at
+ * once. Older months are rechecked by {@code StockService.reconcile} with repair.
+ */
+@Slf4j
+@Component
+public class StockCheckpointJob {
+
+    // movements are stamped before commit: leave slow transactions time to land in the month they belong to
+    private static final Duration CLOSE_GRACE = Duration.ofHours(1);
+
+    private final StockKardexRepository stockKardexRepository;
+    private final long intervalHours;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stock-checkpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public StockCheckpointJob(
+            StockKardexRepository stockKardexRepository,
+            @Value("${inventory.stock.checkpoint-interval-hours:6}") long intervalHours) {
+        this.stockKardexRepository = stockKardexRepository;
+        this.intervalHours = intervalHours;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (intervalHours > 0) {
+            scheduler.scheduleWithFixedDelay(this::run, 0, intervalHours, TimeUnit.HOURS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public void run() {
+        try {
+            closePendingMonths(LocalDateTime.now());
+        } catch (RuntimeException e) {
+            log.error("Stock checkpoint run failed", e);
+        }
+    }
+
+    void closePendingMonths(LocalDateTime now) {
+        LocalDateTime latest = stockKardexRepository.findLatestCheckpointAt();
+        LocalDateTime from = latest != null ? latest.minusMonths(1) : null;
+        if (from == null) {
+            LocalDateTime firstMovement = stockKardexRepository.findFirstMovementAt();
+            if (firstMovement == null) {
+                return;
+            }
+            from = monthStart(firstMovement);
+        }
+        LocalDateTime closable = monthStart(now.minus(CLOSE_GRACE));
+        int written = 0;
+        for (LocalDateTime at = from.plusMonths(1); !at.isAfter(closable); at = at.plusMonths(1)) {
+            written += stockKardexRepository.closePeriod(at.minusMonths(1), at);
+        }
+        if (written > 0) {
+            log.info("Stock checkpoints written: {} up to {}", written, closable);
+        }
+    }
+
+    private static LocalDateTime monthStart(LocalDateTime time) {
+        return LocalDate.from(time).withDayOfMonth(1).atStartOfDay();
+    }
+}
@@ -0,0 +1,6 @@
+package com.ferrisys.service.typeahead;
+
+import java.util.UUID;
+
+/** One typeahead match: the entity id, its display name and its secondary key (e.g. RUC), if any. */
+public record Suggestion(UUID id, String label, String secondaryKey) {}
@@ -0,0 +1,184 @@
+package com.ferrisys.service.typeahead;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable prefix index over one partition of a catalog. Every word start of an entry's name
+ * (and of its secondary key, e.g. a RUC) becomes a normalized key; keys are kept in one sorted
+ * array with a parallel {@code int[]} of entry positions, so a lookup is a binary search followed
+ * by a sequential scan of the matching range. Entries themselves are stored column-wise.
+ */
+final class TypeaheadIndex {
+
+    static final TypeaheadIndex EMPTY = build(List.of());
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private final long[] idBits;
+    private final String[] labels;
+    private final String[] secondaryKeys;
+    private final String[] keys;
+    private final int[] postings;
+
+    private TypeaheadIndex(long[] idBits, String[] labels, String[] secondaryKeys, String[] keys, int[] postings) {
+        this.idBits = idBits;
+        this.labels = labels;
+        this.secondaryKeys = secondaryKeys;
+        this.keys = keys;
+        this.postings = postings;
+    }
+
+    record Entry(UUID id, String label, String secondaryKey) {}
+
+    static TypeaheadIndex build(List<Entry> entries) {
+        int size = entries.size();
+        long[] idBits = new long[size * 2];
+        String[] labels = new String[size];
+        String[] secondaryKeys = new String[size];
+        List<String> keyList = new ArrayList<>(size * 2);
+        List<Integer> postingList = new ArrayList<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            Entry entry = entries.get(i);
+            idBits[i * 2] = entry.id().getMostSignificantBits();
+            idBits[i * 2 + 1] = entry.id().getLeastSignificantBits();
+            labels[i] = entry.label();
+            secondaryKeys[i] = entry.secondaryKey();
+            for (String key : keysOf(entry)) {
+                keyList.add(key);
+                postingList.add(i);
+            }
+        }
+
+        Integer[] order = new Integer[keyList.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(keyList::get));
+        String[] keys = new String[order.length];
+        int[] postings = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            // equal neighbours share one String instance
+            String key = keyList.get(order[i]);
+            keys[i] = i > 0 && key.equals(keys[i - 1]) ? keys[i - 1] : key;
+            postings[i] = postingList.get(order[i]);
+        }
+        return new TypeaheadIndex(idBits, labels, secondaryKeys, keys, postings);
+    }
+
+    /** Up to {@code limit} entries with a key starting with {@code prefix}, skipping {@code excluded} ids. */
+    List<Suggestion> search(String prefix, int limit, Set<UUID> excluded) {
+        List<Suggestion> result = new ArrayList<>(Math.min(limit, 16));
+        if (prefix.isEmpty() || keys.length == 0) {
+            return result;
+        }
+        BitSet seen = new BitSet(labels.length);
+        for (int i = lowerBound(prefix); i < keys.length && keys[i].startsWith(prefix); i++) {
+            int position = postings[i];
+            if (seen.get(position)) {
+                continue;
+            }
+            seen.set(position);
+            UUID id = idAt(position);
+            if (!excluded.contains(id)) {
+                result.add(new Suggestion(id, labels[position], secondaryKeys[position]));
+                if (result.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>(labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            entries.add(new Entry(idAt(i), labels[i], secondaryKeys[i]));
+        }
+        return entries;
+    }
+
+    int size() {
+        return labels.length;
+    }
+
+    /** Rough retained size: arrays plus compact (Latin-1) strings with their headers. */
+    long estimatedBytes() {
+        long bytes = 16L * idBits.length / 2 + 4L * postings.length + 8L * (labels.length * 2L + keys.length);
+        for (int i = 0; i < labels.length; i++) {
+            bytes += stringBytes(labels[i]) + stringBytes(secondaryKeys[i]);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                bytes += stringBytes(keys[i]);
+            }
+        }
+        return bytes;
+    }
+
+    static boolean matches(Entry entry, String prefix) {
+        for (String key : keysOf(entry)) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Lower-cased, accent-free, single-spaced form used for keys and queries. */
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return SPACES.matcher(MARKS.matcher(decomposed).replaceAll("")).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static List<String> keysOf(Entry entry) {
+        List<String> keys = new ArrayList<>(4);
+        addWordStarts(normalize(entry.label()), keys);
+        addWordStarts(normalize(entry.secondaryKey()), keys);
+        return keys;
+    }
+
+    private static void addWordStarts(String text, List<String> keys) {
+        if (text.isEmpty()) {
+            return;
+        }
+        keys.add(text);
+        for (int i = text.indexOf(' '); i >= 0; i = text.indexOf(' ', i + 1)) {
+            keys.add(text.substring(i + 1));
+        }
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private UUID idAt(int position) {
+        return new UUID(idBits[position * 2], idBits[position * 2 + 1]);
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 40L + value.length();
+    }
+}
@@ -0,0 +1,319 @@
+package com.ferrisys.service.typeahead;
+
+import com.ferrisys.common.event.CacheInvalidationEvent;
+import com.ferrisys.common.event.CacheInvalidationEvent.Target;
+import com.ferrisys.service.typeahead.TypeaheadIndex.Entry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory typeahead over active products, clients and providers. Products are partitioned by
+ * company; clients and providers have no tenant column and share one partition each.
+ *
+ * <p>Each partition is an immutable {@link TypeaheadIndex} plus a small overlay of rows changed
+ * since it was built. Writes publish {@link CacheInvalidationEvent}s (relayed to other instances
+ * by the invalidation bus); the affected rows are re-read by id into the overlay, which is folded
+ * into a new index once it grows. The whole index is rebuilt from the database at startup, after
+ * a full flush and periodically.
+ */
+@Slf4j
+@Component
+public class TypeaheadService {
+
+    public enum Catalog {
+        PRODUCT(Target.PRODUCT, "SELECT id, name, NULL AS secondary_key, company_id AS partition_id FROM inv_product"),
+        CLIENT(Target.CLIENT, "SELECT id, name, NULL AS secondary_key, NULL::uuid AS partition_id FROM bus_client"),
+        PROVIDER(Target.PROVIDER, "SELECT id, name, ruc AS secondary_key, NULL::uuid AS partition_id FROM bus_provider");
+
+        private final Target target;
+        private final String select;
+
+        Catalog(Target target, String select) {
+            this.target = target;
+            this.select = select;
+        }
+    }
+
+    // partition key for rows without a company
+    private static final UUID SHARED = new UUID(0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int compactThreshold;
+    private final Map<Catalog, Map<UUID, Partition>> catalogs = new EnumMap<>(Catalog.class);
+    private final Map<Catalog, Timer> queryTimers = new EnumMap<>(Catalog.class);
+    private final ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "typeahead-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final long rebuildIntervalMinutes;
+    private volatile boolean ready;
+
+    public TypeaheadService(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${typeahead.compact-threshold:1000}") int compactThreshold,
+            @Value("${typeahead.rebuild-interval-minutes:30}") long rebuildIntervalMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.compactThreshold = compactThreshold;
+        this.rebuildIntervalMinutes = rebuildIntervalMinutes;
+        for (Catalog catalog : Catalog.values()) {
+            Map<UUID, Partition> partitions = new ConcurrentHashMap<>();
+            catalogs.put(catalog, partitions);
+            String tag = catalog.name().toLowerCase(Locale.ROOT);
+            queryTimers.put(catalog, Timer.builder("typeahead.query.duration").tag("catalog", tag).register(meterRegistry));
+            Gauge.builder("typeahead.index.bytes", partitions, TypeaheadService::estimatedBytes)
+                    .tag("catalog", tag).baseUnit("bytes").register(meterRegistry);
+            Gauge.builder("typeahead.index.entries", partitions, TypeaheadService::entryCount)
+                    .tag("catalog", tag).register(meterRegistry);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuilder.execute(this::rebuildAll);
+        if (rebuildIntervalMinutes > 0) {
+            rebuilder.scheduleWithFixedDelay(this::rebuildAll, rebuildIntervalMinutes, rebuildIntervalMinutes,
+                    TimeUnit.MINUTES);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * Active entries with a name word (or secondary key) starting with {@code query}, sorted by
+     * name. {@code partitionId} narrows products to one company; {@code null} searches them all.
+     */
+    public List<Suggestion> search(Catalog catalog, String query, UUID partitionId, int limit) {
+        return queryTimers.get(catalog).record(() -> {
+            String prefix = TypeaheadIndex.normalize(query);
+            if (prefix.isEmpty() || !ready) {
+                return List.<Suggestion>of();
+            }
+            Map<UUID, Partition> partitions = catalogs.get(catalog);
+            List<Suggestion> matches = new ArrayList<>();
+            if (partitionId != null) {
+                Partition partition = partitions.get(partitionId);
+                if (partition != null) {
+                    matches.addAll(partition.search(prefix, limit));
+                }
+            } else {
+                partitions.values().forEach(partition -> matches.addAll(partition.search(prefix, limit)));
+            }
+            matches.sort(Comparator.comparing(Suggestion::label, String.CASE_INSENSITIVE_ORDER).thenComparing(Suggestion::id));
+            return matches.size() > limit ? List.copyOf(matches.subList(0, limit)) : matches;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onInvalidation(CacheInvalidationEvent event) {
+        Catalog catalog = catalogOf(event.target());
+        if (catalog == null) {
+            return;
+        }
+        if (event.isFullFlush()) {
+            rebuilder.execute(() -> rebuild(catalog));
+        } else {
+            refresh(catalog, event.ids());
+        }
+    }
+
+    /** Re-reads the given rows and records them in the overlay of their partition. */
+    private void refresh(Catalog catalog, Set<UUID> ids) {
+        Map<UUID, Row> rows = new HashMap<>();
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement ps = connection.prepareStatement(
+                            catalog.select + " WHERE id = ANY (?) AND status = 1");
+                    ps.setArray(1, connection.createArrayOf("uuid", ids.toArray()));
+                    return ps;
+                },
+                rs -> {
+                    Row row = mapRow(rs);
+                    rows.put(row.entry().id(), row);
+                });
+
+        Map<UUID, Partition> partitions = catalogs.get(catalog);
+        for (UUID id : ids) {
+            Row row = rows.get(id);
+            // a row can move between companies: drop it everywhere, then add it where it belongs now
+            partitions.forEach((partitionId, partition) -> {
+                if (row == null || !partitionId.equals(row.partitionId())) {
+                    partition.remove(id);
+                }
+            });
+            if (row != null) {
+                partitions.computeIfAbsent(row.partitionId(), key -> new Partition()).put(row.entry());
+            }
+        }
+        partitions.values().forEach(partition -> {
+            if (partition.overlaySize() > compactThreshold) {
+                rebuilder.execute(partition::compact);
+            }
+        });
+    }
+
+    private void rebuildAll() {
+        for (Catalog catalog : Catalog.values()) {
+            rebuild(catalog);
+        }
+        ready = true;
+    }
+
+    private void rebuild(Catalog catalog) {
+        try {
+            long started = System.nanoTime();
+            Map<UUID, Partition> partitions = catalogs.get(catalog);
+            // overlay entries recorded before the query are covered by what it reads
+            Map<UUID, Map<UUID, Entry>> covered = new HashMap<>();
+            partitions.forEach((partitionId, partition) -> covered.put(partitionId, partition.overlay()));
+            Map<UUID, List<Entry>> entries = new HashMap<>();
+            jdbcTemplate.query(catalog.select + " WHERE status = 1", rs -> {
+                Row row = mapRow(rs);
+                entries.computeIfAbsent(row.partitionId(), key -> new ArrayList<>()).add(row.entry());
+            });
+            entries.forEach((partitionId, partitionEntries) -> partitions
+                    .computeIfAbsent(partitionId, key -> new Partition())
+                    .replace(TypeaheadIndex.build(partitionEntries), covered.getOrDefault(partitionId, Map.of())));
+            partitions.forEach((partitionId, partition) -> {
+                if (!entries.containsKey(partitionId)) {
+                    partition.replace(TypeaheadIndex.EMPTY, covered.getOrDefault(partitionId, Map.of()));
+                }
+            });
+            log.info("Typeahead {} rebuilt: {} partitions in {} ms", catalog, partitions.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (RuntimeException e) {
+            log.warn("Typeahead {} rebuild failed", catalog, e);
+        }
+    }
+
+    private static Row mapRow(ResultSet rs) throws SQLException {
+        UUID partitionId = rs.getObject("partition_id", UUID.class);
+        return new Row(
+                partitionId != null ? partitionId : SHARED,
+                new Entry(rs.getObject("id", UUID.class), rs.getString("name"), rs.getString("secondary_key")));
+    }
+
+    private static Catalog catalogOf(Target target) {
+        for (Catalog catalog : Catalog.values()) {
+            if (catalog.target == target) {
+                return catalog;
+            }
+        }
+        return null;
+    }
+
+    private static double estimatedBytes(Map<UUID, Partition> partitions) {
+        return partitions.values().stream().mapToLong(Partition::estimatedBytes).sum();
+    }
+
+    private static double entryCount(Map<UUID, Partition> partitions) {
+        return partitions.values().stream().mapToLong(Partition::size).sum();
+    }
+
+    private record Row(UUID partitionId, Entry entry) {}
+
+    /**
+     * An index plus the rows changed since it was built; an entry without a label marks a removed
+     * row. Rebuilds and compactions swap in a fresh index and then drop the overlay entries it
+     * already reflects, compared by identity, so a change recorded meanwhile survives even when it
+     * equals an older one.
+     */
+    static final class Partition {
+
+        private volatile TypeaheadIndex index = TypeaheadIndex.EMPTY;
+        private final Map<UUID, Entry> overlay = new ConcurrentHashMap<>();
+
+        List<Suggestion> search(String prefix, int limit) {
+            Set<UUID> changed = overlay.keySet();
+            List<Suggestion> result = new ArrayList<>(index.search(prefix, limit, changed));
+            overlay.values().forEach(entry -> {
+                if (!isRemoved(entry) && TypeaheadIndex.matches(entry, prefix)) {
+                    result.add(new Suggestion(entry.id(), entry.label(), entry.secondaryKey()));
+                }
+            });
+            return result;
+        }
+
+        void put(Entry entry) {
+            overlay.put(entry.id(), entry);
+        }
+
+        void remove(UUID id) {
+            overlay.put(id, new Entry(id, null, null));
+        }
+
+        Map<UUID, Entry> overlay() {
+            return new HashMap<>(overlay);
+        }
+
+        int overlaySize() {
+            return overlay.size();
+        }
+
+        long size() {
+            return index.size();
+        }
+
+        long estimatedBytes() {
+            return index.estimatedBytes() + 100L * overlay.size();
+        }
+
+        /** Swaps in {@code fresh}, built from data at least as new as the {@code covered} overlay. */
+        synchronized void replace(TypeaheadIndex fresh, Map<UUID, Entry> covered) {
+            index = fresh;
+            dropApplied(covered);
+        }
+
+        synchronized void compact() {
+            Map<UUID, Entry> applied = overlay();
+            Map<UUID, Entry> merged = new HashMap<>();
+            index.entries().forEach(entry -> merged.put(entry.id(), entry));
+            applied.forEach((id, entry) -> {
+                if (isRemoved(entry)) {
+                    merged.remove(id);
+                } else {
+                    merged.put(id, entry);
+                }
+            });
+            index = TypeaheadIndex.build(new ArrayList<>(merged.values()));
+            dropApplied(applied);
+        }
+
+        private void dropApplied(Map<UUID, Entry> applied) {
+            applied.forEach((id, entry) -> overlay.computeIfPresent(id, (key, current) -> current == entry ? null : current));
+        }
+
+        private static boolean isRemoved(Entry entry) {
+            return entry.label() == null;
+        }
+    }
+}
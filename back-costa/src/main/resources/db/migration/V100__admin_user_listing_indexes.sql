@@ -0,0 +1,14 @@
+-- V100: Índices para el listado paginado por cursor de usuarios (admin)
+
+-- Orden por email / fecha de creación con desempate por id
+CREATE INDEX IF NOT EXISTS idx_auth_user_email_id ON auth_user (email, id);
+CREATE INDEX IF NOT EXISTS idx_auth_user_created_id
+    ON auth_user ((COALESCE(created_at, TIMESTAMP '1970-01-01 00:00:00')), id);
+
+-- Búsqueda por prefijo de username / email
+CREATE INDEX IF NOT EXISTS idx_auth_user_username_prefix ON auth_user (lower(username) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_auth_user_email_prefix ON auth_user (lower(email) text_pattern_ops);
+
+-- Filtro por rol
+CREATE INDEX IF NOT EXISTS idx_auth_user_role_active_role
+    ON auth_user_role (auth_role_id, auth_user_id) WHERE status = 1;
@@ -0,0 +1,6 @@
+-- V101: Índice para consultar licencias por vencer en una ventana de tiempo
+
+-- Paginación por (expires_at, id); las licencias sin vencimiento no se indexan
+CREATE INDEX IF NOT EXISTS idx_module_license_expires_at
+    ON module_license (expires_at, id)
+    WHERE expires_at IS NOT NULL;
@@ -0,0 +1,43 @@
+-- V102: Paginación por cursor (keyset) sobre (created_at, id) en catálogos y documentos
+
+-- inv_category: created_at obligatorio para que el cursor sea total
+UPDATE inv_category SET created_at = COALESCE(updated_at, NOW()) WHERE created_at IS NULL;
+ALTER TABLE inv_category
+    ALTER COLUMN created_at SET DEFAULT NOW(),
+    ALTER COLUMN created_at SET NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_inv_category_created_id ON inv_category (created_at, id);
+
+-- inv_product: created_at obligatorio para que el cursor sea total
+UPDATE inv_product SET created_at = COALESCE(updated_at, NOW()) WHERE created_at IS NULL;
+ALTER TABLE inv_product
+    ALTER COLUMN created_at SET DEFAULT NOW(),
+    ALTER COLUMN created_at SET NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_inv_product_created_id ON inv_product (created_at, id);
+
+-- bus_client: created_at obligatorio para que el cursor sea total
+UPDATE bus_client SET created_at = COALESCE(updated_at, NOW()) WHERE created_at IS NULL;
+ALTER TABLE bus_client
+    ALTER COLUMN created_at SET DEFAULT NOW(),
+    ALTER COLUMN created_at SET NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_bus_client_created_id ON bus_client (created_at, id);
+
+-- bus_provider: created_at obligatorio para que el cursor sea total
+UPDATE bus_provider SET created_at = COALESCE(updated_at, NOW()) WHERE created_at IS NULL;
+ALTER TABLE bus_provider
+    ALTER COLUMN created_at SET DEFAULT NOW(),
+    ALTER COLUMN created_at SET NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_bus_provider_created_id ON bus_provider (created_at, id);
+
+-- bus_quote: created_at obligatorio para que el cursor sea total
+UPDATE bus_quote SET created_at = COALESCE(updated_at, NOW()) WHERE created_at IS NULL;
+ALTER TABLE bus_quote
+    ALTER COLUMN created_at SET DEFAULT NOW(),
+    ALTER COLUMN created_at SET NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_bus_quote_created_id ON bus_quote (created_at, id);
+
+-- bus_purchase: created_at obligatorio para que el cursor sea total
+UPDATE bus_purchase SET created_at = COALESCE(updated_at, NOW()) WHERE created_at IS NULL;
+ALTER TABLE bus_purchase
+    ALTER COLUMN created_at SET DEFAULT NOW(),
+    ALTER COLUMN created_at SET NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_bus_purchase_created_id ON bus_purchase (created_at, id);
@@ -0,0 +1,22 @@
+-- V103: Listados solo de registros activos (status = 1) con índices parciales
+
+-- Los registros deshabilitados (status = 0) quedan fuera de estos índices; los listados de
+-- inactivos usan idx_<tabla>_created_id. Los índices simples sobre status dejan de ser útiles.
+
+CREATE INDEX IF NOT EXISTS idx_inv_category_active_created_id ON inv_category (created_at, id) WHERE status = 1;
+DROP INDEX IF EXISTS idx_inv_category_status;
+
+CREATE INDEX IF NOT EXISTS idx_inv_product_active_created_id ON inv_product (created_at, id) WHERE status = 1;
+DROP INDEX IF EXISTS idx_inv_product_status;
+
+CREATE INDEX IF NOT EXISTS idx_bus_client_active_created_id ON bus_client (created_at, id) WHERE status = 1;
+DROP INDEX IF EXISTS idx_bus_client_status;
+
+CREATE INDEX IF NOT EXISTS idx_bus_provider_active_created_id ON bus_provider (created_at, id) WHERE status = 1;
+DROP INDEX IF EXISTS idx_bus_provider_status;
+
+CREATE INDEX IF NOT EXISTS idx_bus_quote_active_created_id ON bus_quote (created_at, id) WHERE status = 1;
+DROP INDEX IF EXISTS idx_bus_quote_status;
+
+CREATE INDEX IF NOT EXISTS idx_bus_purchase_active_created_id ON bus_purchase (created_at, id) WHERE status = 1;
+DROP INDEX IF EXISTS idx_bus_purchase_status;
@@ -0,0 +1,16 @@
+-- V104: Búsqueda de productos por texto completo y por similitud (trigramas)
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Vector de búsqueda generado: el nombre pesa más que la descripción
+ALTER TABLE inv_product
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+        GENERATED ALWAYS AS (
+            setweight(to_tsvector('spanish'::regconfig, COALESCE(name, '')), 'A')
+                || setweight(to_tsvector('spanish'::regconfig, COALESCE(description, '')), 'B')
+        ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_inv_product_search_vector ON inv_product USING GIN (search_vector);
+
+-- Coincidencias tolerantes a errores de escritura sobre el nombre
+CREATE INDEX IF NOT EXISTS idx_inv_product_name_trgm ON inv_product USING GIN (lower(name) gin_trgm_ops);
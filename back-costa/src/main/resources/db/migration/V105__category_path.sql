@@ -0,0 +1,55 @@
+-- V105: Ruta materializada del árbol de categorías ('/raiz/.../id/')
+
+ALTER TABLE inv_category
+    ADD COLUMN IF NOT EXISTS path TEXT COLLATE "C" NOT NULL DEFAULT '';
+
+WITH RECURSIVE tree AS (
+    SELECT id, '/' || id::text || '/' AS path
+    FROM inv_category
+    WHERE parent_category_id IS NULL
+    UNION ALL
+    SELECT c.id, t.path || c.id::text || '/'
+    FROM inv_category c
+    JOIN tree t ON c.parent_category_id = t.id
+)
+UPDATE inv_category c
+SET path = tree.path
+FROM tree
+WHERE c.id = tree.id;
+
+-- Las filas sin ruta cuelgan de un ciclo: se rompe cada ciclo convirtiendo uno de sus nodos en raíz
+DO $$
+DECLARE
+    node UUID;
+    remaining INT;
+BEGIN
+    LOOP
+        SELECT count(*) INTO remaining FROM inv_category WHERE path = '';
+        EXIT WHEN remaining = 0;
+
+        -- Tras subir tantos niveles como filas pendientes, el nodo está dentro del ciclo
+        SELECT id INTO node FROM inv_category WHERE path = '' ORDER BY id LIMIT 1;
+        FOR i IN 1..remaining LOOP
+            SELECT parent_category_id INTO node FROM inv_category WHERE id = node;
+        END LOOP;
+
+        UPDATE inv_category SET parent_category_id = NULL WHERE id = node;
+
+        WITH RECURSIVE tree AS (
+            SELECT id, '/' || id::text || '/' AS path
+            FROM inv_category
+            WHERE id = node
+            UNION ALL
+            SELECT c.id, t.path || c.id::text || '/'
+            FROM inv_category c
+            JOIN tree t ON c.parent_category_id = t.id
+        )
+        UPDATE inv_category c
+        SET path = tree.path
+        FROM tree
+        WHERE c.id = tree.id;
+    END LOOP;
+END $$;
+
+-- Subárbol = rango de rutas con el mismo prefijo
+CREATE INDEX IF NOT EXISTS idx_inv_category_path ON inv_category (path);
@@ -0,0 +1,49 @@
+-- V106: Libro de movimientos de stock y saldos repartidos en fragmentos (shards)
+
+-- Cada movimiento es inmutable; la cantidad lleva signo (entrada > 0, salida < 0)
+CREATE TABLE IF NOT EXISTS inv_stock_movement (
+    id UUID PRIMARY KEY,
+    product_id UUID NOT NULL,
+    warehouse_id UUID NOT NULL,
+    quantity INTEGER NOT NULL CHECK (quantity <> 0),
+    movement_type VARCHAR(20) NOT NULL,
+    source_id UUID,
+    note TEXT,
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT NOW(),
+    CONSTRAINT fk_inv_stock_movement_product FOREIGN KEY (product_id)
+        REFERENCES inv_product (id)
+        ON UPDATE CASCADE ON DELETE RESTRICT
+);
+CREATE INDEX IF NOT EXISTS idx_inv_stock_movement_product_created
+    ON inv_stock_movement (product_id, warehouse_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_inv_stock_movement_source
+    ON inv_stock_movement (source_id) WHERE source_id IS NOT NULL;
+
+-- Saldo por producto/almacén repartido en varias filas: los incrementos concurrentes
+-- de un mismo producto bloquean filas distintas y el saldo es la suma de los fragmentos
+CREATE TABLE IF NOT EXISTS inv_stock_balance (
+    product_id UUID NOT NULL,
+    warehouse_id UUID NOT NULL,
+    shard SMALLINT NOT NULL,
+    quantity BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (product_id, warehouse_id, shard),
+    CONSTRAINT fk_inv_stock_balance_product FOREIGN KEY (product_id)
+        REFERENCES inv_product (id)
+        ON UPDATE CASCADE ON DELETE RESTRICT
+);
+
+-- Saldo inicial: las compras activas existentes entran al almacén por defecto
+INSERT INTO inv_stock_movement (id, product_id, warehouse_id, quantity, movement_type, source_id, created_at)
+SELECT gen_random_uuid(), d.product_id, '00000000-0000-0000-0000-000000000000', SUM(d.quantity),
+       'PURCHASE', p.id, MIN(p.created_at)
+FROM bus_purchase p
+JOIN bus_purchase_detail d ON d.purchase_id = p.id
+WHERE p.status = 1
+GROUP BY p.id, d.product_id
+HAVING SUM(d.quantity) <> 0;
+
+INSERT INTO inv_stock_balance (product_id, warehouse_id, shard, quantity)
+SELECT product_id, warehouse_id, 0, SUM(quantity)
+FROM inv_stock_movement
+GROUP BY product_id, warehouse_id;
@@ -0,0 +1,15 @@
+-- V107: Cortes mensuales de saldo para el kardex
+
+-- quantity = suma de los movimientos anteriores a checkpoint_at (inicio de mes).
+-- Solo se guarda un corte cuando el producto tuvo movimientos en el mes que cierra;
+-- el saldo en cualquier fecha parte del último corte anterior.
+CREATE TABLE IF NOT EXISTS inv_stock_checkpoint (
+    product_id UUID NOT NULL,
+    warehouse_id UUID NOT NULL,
+    checkpoint_at TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    quantity BIGINT NOT NULL,
+    PRIMARY KEY (product_id, warehouse_id, checkpoint_at)
+);
+
+-- Cierre de un mes completo sin recorrer todo el libro
+CREATE INDEX IF NOT EXISTS idx_inv_stock_movement_created ON inv_stock_movement (created_at);
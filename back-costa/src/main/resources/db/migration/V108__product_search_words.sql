@@ -0,0 +1,61 @@
+-- V108: Vocabulario de los nombres de producto para corregir errores de escritura
+
+-- Cada palabra distinta de los nombres (sin dígitos, 3+ caracteres). La similitud por trigramas
+-- se calcula contra este vocabulario, mucho menor que el catálogo, y no contra cada nombre.
+-- Las palabras de nombres ya cambiados se conservan: corregir hacia ellas no encuentra nada.
+CREATE TABLE IF NOT EXISTS inv_product_word (
+    word TEXT PRIMARY KEY
+);
+
+CREATE INDEX IF NOT EXISTS idx_inv_product_word_trgm ON inv_product_word USING GIN (word gin_trgm_ops);
+
+CREATE OR REPLACE FUNCTION inv_product_name_words(name TEXT)
+RETURNS SETOF TEXT AS $$
+    SELECT DISTINCT w
+    FROM regexp_split_to_table(lower(name), '[[:space:][:punct:]]+') AS w
+    WHERE length(w) >= 3 AND w !~ '[[:digit:]]'
+$$ LANGUAGE sql IMMUTABLE;
+
+-- En orden: dos transacciones que agregan las mismas palabras nuevas no se bloquean en cruz
+CREATE OR REPLACE FUNCTION add_inserted_product_words()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO inv_product_word (word)
+    SELECT DISTINCT inv_product_name_words(name) AS word FROM inserted_products ORDER BY word
+    ON CONFLICT DO NOTHING;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION add_renamed_product_words()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO inv_product_word (word)
+    SELECT word FROM inv_product_name_words(NEW.name) AS word ORDER BY word
+    ON CONFLICT DO NOTHING;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_inv_product_words_insert ON inv_product;
+DROP TRIGGER IF EXISTS trg_inv_product_words_update ON inv_product;
+
+-- Una vez por sentencia: las cargas masivas no pagan una inserción por fila
+CREATE TRIGGER trg_inv_product_words_insert
+AFTER INSERT ON inv_product
+REFERENCING NEW TABLE AS inserted_products
+FOR EACH STATEMENT
+EXECUTE FUNCTION add_inserted_product_words();
+
+CREATE TRIGGER trg_inv_product_words_update
+AFTER UPDATE OF name ON inv_product
+FOR EACH ROW
+WHEN (OLD.name IS DISTINCT FROM NEW.name)
+EXECUTE FUNCTION add_renamed_product_words();
+
+INSERT INTO inv_product_word (word)
+SELECT DISTINCT inv_product_name_words(name) FROM inv_product
+ON CONFLICT DO NOTHING;
+
+-- Los nombres ya no se comparan por similitud directamente
+DROP INDEX IF EXISTS idx_inv_product_name_trgm;
@@ -0,0 +1,82 @@
+package com.ferrisys.common.id;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ferrisys.support.PostgresIntegrationTest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Insert throughput, WAL volume and primary-key index size for random v4 keys against
+ * {@link UuidV7}. Rows go in as the application writes them, in JDBC batches, with a checkpoint
+ * every {@value #CHECKPOINT_EVERY} rows as a busy server would run, so every index page a random
+ * key dirties again is logged as a full page image. Run with {@code mvn test -Pbenchmarks}.
+ */
+@Slf4j
+@Tag("benchmark")
+class UuidV7InsertBenchmarkTest extends PostgresIntegrationTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final int BATCH = 1_000;
+    private static final int CHECKPOINT_EVERY = 100_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS uuid_benchmark_v4, uuid_benchmark_v7");
+    }
+
+    @Test
+    void timeOrderedKeysWriteLessWalAndASmallerIndex() {
+        Load random = load("uuid_benchmark_v4", UUID::randomUUID);
+        Load ordered = load("uuid_benchmark_v7", UuidV7::generate);
+        log.info("v4: {}", random);
+        log.info("v7: {}", ordered);
+
+        assertThat(ordered.walBytes()).isLessThan(random.walBytes());
+        assertThat(ordered.indexBytes()).isLessThan(random.indexBytes());
+    }
+
+    private Load load(String table, Supplier<UUID> ids) {
+        jdbcTemplate.execute("CREATE TABLE " + table + " (id UUID PRIMARY KEY, name TEXT NOT NULL, "
+                + "created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        String insert = "INSERT INTO " + table + " (id, name) VALUES (?, ?)";
+        jdbcTemplate.execute("CHECKPOINT");
+        String walBefore = jdbcTemplate.queryForObject("SELECT pg_current_wal_insert_lsn()::text", String.class);
+        long started = System.nanoTime();
+        for (int row = 0; row < ROWS; row += BATCH) {
+            List<Object[]> batch = new ArrayList<>(BATCH);
+            for (int i = row; i < row + BATCH; i++) {
+                batch.add(new Object[] {ids.get(), "Producto " + i});
+            }
+            jdbcTemplate.batchUpdate(insert, batch);
+            if ((row + BATCH) % CHECKPOINT_EVERY == 0) {
+                jdbcTemplate.execute("CHECKPOINT");
+            }
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        Long walBytes = jdbcTemplate.queryForObject("SELECT pg_wal_lsn_diff(pg_current_wal_insert_lsn(), ?::pg_lsn)::bigint",
+                Long.class, walBefore);
+        Long indexBytes = jdbcTemplate.queryForObject("SELECT pg_relation_size(?::regclass)", Long.class, table + "_pkey");
+        return new Load(ROWS * 1000L / Math.max(millis, 1), walBytes, indexBytes);
+    }
+
+    private record Load(long rowsPerSecond, long walBytes, long indexBytes) {
+
+        @Override
+        public String toString() {
+            return "%d rows/s, %d MB of WAL, %d MB of index".formatted(rowsPerSecond, walBytes >> 20, indexBytes >> 20);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.ferrisys.config.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ferrisys.common.event.CacheInvalidationEvent;
+import com.ferrisys.common.event.CacheInvalidationEvent.Target;
+import com.ferrisys.support.PostgresIntegrationTest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/** Two buses on one channel, standing in for two application nodes. */
+class PostgresInvalidationBusTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    private final BlockingQueue<CacheInvalidationEvent> receivedByFirst = new LinkedBlockingQueue<>();
+    private final BlockingQueue<CacheInvalidationEvent> receivedBySecond = new LinkedBlockingQueue<>();
+    private final List<PostgresInvalidationBus> buses = new ArrayList<>();
+
+    private PostgresInvalidationBus first;
+    private PostgresInvalidationBus second;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        String channel = "test_invalidation_" + System.nanoTime();
+        first = bus(channel, receivedByFirst);
+        second = bus(channel, receivedBySecond);
+        awaitListening(first, receivedBySecond);
+        awaitListening(second, receivedByFirst);
+    }
+
+    @AfterEach
+    void tearDown() {
+        buses.forEach(PostgresInvalidationBus::stop);
+    }
+
+    @Test
+    void notificationsReachTheOtherNodeOnly() throws InterruptedException {
+        UUID productId = UUID.randomUUID();
+        first.onLocalEvent(CacheInvalidationEvent.of(Target.PRODUCT, productId));
+
+        CacheInvalidationEvent received = receivedBySecond.poll(5, TimeUnit.SECONDS);
+        assertThat(received).isNotNull();
+        assertThat(received.target()).isEqualTo(Target.PRODUCT);
+        assertThat(received.ids()).containsExactly(productId);
+        assertThat(received.remote()).isTrue();
+
+        second.onLocalEvent(CacheInvalidationEvent.all(Target.ROLE));
+
+        assertThat(receivedByFirst.poll(5, TimeUnit.SECONDS)).isEqualTo(CacheInvalidationEvent.all(Target.ROLE).asRemote());
+        assertThat(receivedByFirst.poll(200, TimeUnit.MILLISECONDS)).isNull();
+        assertThat(receivedBySecond.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void listenerReconnectsAndFlushesAfterLosingItsConnection() throws InterruptedException {
+        jdbcTemplate.queryForList("""
+                SELECT pg_terminate_backend(pid) FROM pg_stat_activity
+                WHERE application_name = 'cache-invalidation-listener'""");
+
+        // every cache is flushed once the listener is back, since notifications may have been missed
+        List<Target> flushed = new ArrayList<>();
+        for (int i = 0; i < Target.values().length; i++) {
+            CacheInvalidationEvent event = receivedBySecond.poll(15, TimeUnit.SECONDS);
+            assertThat(event).isNotNull();
+            assertThat(event.isFullFlush()).isTrue();
+            flushed.add(event.target());
+        }
+        assertThat(flushed).containsExactlyInAnyOrder(Target.values());
+
+        receivedByFirst.clear();
+        UUID clientId = UUID.randomUUID();
+        first.onLocalEvent(CacheInvalidationEvent.of(Target.CLIENT, clientId));
+        assertThat(receivedBySecond.poll(5, TimeUnit.SECONDS)).isEqualTo(CacheInvalidationEvent.of(Target.CLIENT, clientId).asRemote());
+    }
+
+    private PostgresInvalidationBus bus(String channel, BlockingQueue<CacheInvalidationEvent> received) {
+        PostgresInvalidationBus bus = new PostgresInvalidationBus(jdbcTemplate, transactionManager, event -> {
+            if (event instanceof CacheInvalidationEvent invalidation) {
+                received.add(invalidation);
+            }
+        }, objectMapper, dataSourceProperties, channel);
+        bus.start();
+        buses.add(bus);
+        return bus;
+    }
+
+    /** LISTEN runs on the bus thread, so notify until the other side hears one. */
+    private static void awaitListening(PostgresInvalidationBus sender, BlockingQueue<CacheInvalidationEvent> received)
+            throws InterruptedException {
+        for (int attempt = 0; attempt < 50; attempt++) {
+            sender.onLocalEvent(CacheInvalidationEvent.of(Target.CATEGORY, UUID.randomUUID()));
+            if (received.poll(200, TimeUnit.MILLISECONDS) != null) {
+                Thread.sleep(200);
+                received.clear();
+                return;
+            }
+        }
+        throw new IllegalStateException("Invalidation listener did not start");
+    }
+}
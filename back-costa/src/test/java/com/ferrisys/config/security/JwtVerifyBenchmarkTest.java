@@ -0,0 +1,96 @@
+package com.ferrisys.config.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * CPU per request spent authenticating a token the principal cache has not seen: one
+ * {@link JWTUtil#verify} against the previous filter, which rebuilt the key and parser and parsed
+ * the token four times (username, validate = username + expiry, expiry for the cache). Run with
+ * {@code mvn test -Pbenchmarks}.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerifyBenchmarkTest {
+
+    private static final String SECRET = "benchmark-secret-with-at-least-32-characters";
+
+    private JWTUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JWTUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        jwtUtil.init();
+        token = jwtUtil.generateToken(UUID.randomUUID(), "benchmark.user", List.of(
+                new SimpleGrantedAuthority("ROLE_ADMIN"),
+                new SimpleGrantedAuthority("MODULE_inventory"),
+                new SimpleGrantedAuthority("MODULE_purchases"),
+                new SimpleGrantedAuthority("MODULE_quotes")), 1L);
+    }
+
+    @Benchmark
+    public VerifiedToken verifyOnce() {
+        return jwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public Date previousFilter() {
+        String username = legacyClaims(token).getSubject();
+        boolean valid = username.equals(legacyClaims(token).getSubject())
+                && !legacyClaims(token).getExpiration().before(new Date());
+        return valid ? legacyClaims(token).getExpiration() : null;
+    }
+
+    private static Claims legacyClaims(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Test
+    void verifyingOnceCostsAFractionOfThePreviousFilter() throws Exception {
+        Map<String, Double> microsPerOp = new Runner(new OptionsBuilder()
+                .include(getClass().getName() + "\\.")
+                .build())
+                .run().stream()
+                .collect(Collectors.toMap(result -> result.getParams().getBenchmark().replaceAll(".*\\.", ""),
+                        (RunResult result) -> result.getPrimaryResult().getScore()));
+
+        assertThat(microsPerOp.get("verifyOnce")).isLessThan(microsPerOp.get("previousFilter") / 2);
+    }
+}
@@ -0,0 +1,119 @@
+package com.ferrisys.config.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ferrisys.common.enums.DefaultRole;
+import com.ferrisys.common.enums.DefaultUserStatus;
+import com.ferrisys.support.PostgresIntegrationTest;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+/**
+ * Cost of authorizing one call to a module endpoint: the SpEL {@code @PreAuthorize} every handler
+ * used to carry, whose feature-flag check looked the user up by name, against the compiled
+ * {@link RequiresModule} check. Run with {@code mvn test -Pbenchmarks}.
+ */
+@Slf4j
+@Tag("benchmark")
+class ModuleAuthorizationBenchmarkTest extends PostgresIntegrationTest {
+
+    private static final int WARMUP = 2_000;
+    private static final int CHECKS = 20_000;
+
+    @Autowired
+    private ModuleAuthorizationManager moduleAuthorizationManager;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private PreAuthorizeAuthorizationManager spelManager;
+    private MethodInvocation invocation;
+    private Authentication byName;
+    private Authentication byPrincipal;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        String username = "authorized" + System.nanoTime();
+        UUID userId = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO auth_user (id, username, password, email, full_name, status_id)
+                VALUES (?, ?, 'unused', ?, 'Authorized User', ?)""",
+                userId, username, username + "@example.com", DefaultUserStatus.ACTIVE.getId());
+        jdbcTemplate.update("INSERT INTO auth_user_role (id, auth_user_id, auth_role_id, status) VALUES (gen_random_uuid(), ?, ?, 1)",
+                userId, DefaultRole.ADMIN.getId());
+
+        DefaultMethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+        expressionHandler.setApplicationContext(applicationContext);
+        spelManager = new PreAuthorizeAuthorizationManager();
+        spelManager.setExpressionHandler(expressionHandler);
+        invocation = new SimpleMethodInvocation(new InventoryEndpoint(), InventoryEndpoint.class.getMethod("save"));
+
+        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_ADMIN"));
+        // before the principal carried the user id, the flag check resolved it from the name
+        byName = new UsernamePasswordAuthenticationToken(username, null, authorities);
+        byPrincipal = new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(userId, username, "unused", authorities), null, authorities);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void compiledCheckCostsAFractionOfTheSpelExpression() {
+        SecurityContextHolder.getContext().setAuthentication(byName);
+        double spelMicros = microsPerCheck(() -> spelManager.authorize(() -> byName, invocation));
+        SecurityContextHolder.getContext().setAuthentication(byPrincipal);
+        double compiledMicros = microsPerCheck(() -> moduleAuthorizationManager.authorize(() -> byPrincipal, invocation));
+        log.info("Authorization check: SpEL {} us, compiled {} us", spelMicros, compiledMicros);
+
+        assertThat(moduleAuthorizationManager.authorize(() -> byPrincipal, invocation).isGranted())
+                .isEqualTo(spelManager.authorize(() -> byName, invocation).isGranted());
+        assertThat(compiledMicros).isLessThan(spelMicros / 10);
+    }
+
+    private static double microsPerCheck(Supplier<? extends AuthorizationResult> check) {
+        for (int i = 0; i < WARMUP; i++) {
+            check.get();
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < CHECKS; i++) {
+            check.get();
+        }
+        return (double) TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started) / CHECKS;
+    }
+
+    /** A handler annotated both ways, as the inventory endpoints were before and are now. */
+    @RequiresModule(value = "inventory", requireAuthority = true)
+    public static class InventoryEndpoint {
+
+        @PreAuthorize("@featureFlagService.enabledForCurrentUser('inventory') and (hasAuthority('MODULE_INVENTORY') or hasRole('ADMIN'))")
+        public void save() {
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.ferrisys.config.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ferrisys.common.event.CacheInvalidationEvent;
+import com.ferrisys.common.event.CacheInvalidationEvent.Target;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class SecurityVersionTableTest {
+
+    private final SecurityVersionTable table = new SecurityVersionTable();
+
+    @Test
+    void versionReadInTheSameMillisecondAsAChangeIsRejected() {
+        long issued = versionAfterBoot();
+        waitForNextMillisecond(issued);
+
+        // retry until the revocation lands inside one millisecond, so its floor is known exactly
+        UUID userId;
+        long floor;
+        do {
+            userId = UUID.randomUUID();
+            floor = System.currentTimeMillis();
+            table.onInvalidation(CacheInvalidationEvent.of(Target.USER, userId));
+        } while (System.currentTimeMillis() != floor);
+
+        assertThat(table.isCurrent(userId, issued)).isFalse();
+        assertThat(table.isCurrent(userId, floor)).isFalse();
+        assertThat(table.isCurrent(userId, floor + 1)).isTrue();
+        assertThat(table.isCurrent(UUID.randomUUID(), issued)).isTrue();
+    }
+
+    @Test
+    void roleChangeOutdatesEveryUser() {
+        long issued = versionAfterBoot();
+        waitForNextMillisecond(issued);
+
+        table.onInvalidation(CacheInvalidationEvent.of(Target.ROLE, List.of()));
+
+        assertThat(table.isCurrent(UUID.randomUUID(), issued)).isFalse();
+        assertThat(table.isCurrent(null, System.currentTimeMillis() + 1)).isTrue();
+    }
+
+    /** Versions read in the millisecond the table was created are at its boot floor, so never current. */
+    private long versionAfterBoot() {
+        waitForNextMillisecond(table.currentVersion());
+        return table.currentVersion();
+    }
+
+    private static void waitForNextMillisecond(long millis) {
+        while (System.currentTimeMillis() <= millis) {
+            Thread.onSpinWait();
+        }
+    }
+}
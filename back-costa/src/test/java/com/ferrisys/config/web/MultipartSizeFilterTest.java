@@ -0,0 +1,55 @@
+package com.ferrisys.config.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+class MultipartSizeFilterTest {
+
+    private final MultipartSizeFilter filter = new MultipartSizeFilter(DataSize.ofKilobytes(1));
+
+    @Test
+    void largeMultipartIsRefusedOutsideTheImport() throws Exception {
+        assertThat(status(multipart("/v1/inventory/products", 2048))).isEqualTo(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+        assertThat(status(multipart("/v1/inventory/products", 512))).isEqualTo(HttpServletResponse.SC_OK);
+    }
+
+    @Test
+    void importAcceptsLargeMultipart() throws Exception {
+        assertThat(status(multipart("/v1/auth/admin/users/import", 2048))).isEqualTo(HttpServletResponse.SC_OK);
+    }
+
+    @Test
+    void multipartWithoutLengthIsRefused() throws Exception {
+        MockHttpServletRequest request = multipart("/v1/inventory/products", 0);
+        request.setContent(null);
+
+        assertThat(status(request)).isEqualTo(HttpServletResponse.SC_LENGTH_REQUIRED);
+    }
+
+    @Test
+    void otherBodiesAreLeftAlone() throws Exception {
+        MockHttpServletRequest request = multipart("/v1/inventory/products", 2048);
+        request.setContentType("application/json");
+
+        assertThat(status(request)).isEqualTo(HttpServletResponse.SC_OK);
+    }
+
+    private static MockHttpServletRequest multipart(String path, int bytes) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setContentType("multipart/form-data; boundary=x");
+        request.setContent(new byte[bytes]);
+        return request;
+    }
+
+    private int status(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,144 @@
+package com.ferrisys.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ferrisys.service.InventoryService;
+import com.ferrisys.support.PostgresIntegrationTest;
+import com.ferrisys.support.StatementLog;
+import com.ferrisys.support.TestCatalog;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Runs {@code EXPLAIN} on the statements the active product listings actually send, over a table
+ * where most rows are disabled, and checks they are served by the partial index from V103.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ActiveListingIndexTest extends PostgresIntegrationTest {
+
+    private static final String ACTIVE_INDEX = "idx_inv_product_active_created_id";
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestCatalog catalog;
+
+    @BeforeAll
+    void seed() {
+        UUID categoryId = catalog.category("Indexed").getId();
+        // one active product in twenty, as in a long-lived tenant
+        jdbcTemplate.update("""
+                INSERT INTO inv_product (id, name, category_id, status, created_at)
+                SELECT gen_random_uuid(), 'Indexed product ' || g, ?, CASE WHEN g % 20 = 0 THEN 1 ELSE 0 END,
+                       NOW() - g * INTERVAL '1 second'
+                FROM generate_series(1, 20000) g""", categoryId);
+        jdbcTemplate.execute("VACUUM ANALYZE inv_product");
+    }
+
+    @Test
+    void offsetPageReadsThePartialIndex() {
+        StatementLog.clear();
+        inventoryService.listProducts(1, 0, 20);
+        List<String> statements = StatementLog.statements();
+
+        assertThat(scans(statements.get(0), 1, 20)).contains("Index Scan using " + ACTIVE_INDEX);
+        assertThat(scans(statements.get(1), 1)).containsExactly("Index Only Scan using " + ACTIVE_INDEX);
+    }
+
+    @Test
+    void keysetPageReadsThePartialIndex() {
+        StatementLog.clear();
+        inventoryService.scrollProducts(1, null, 20, false);
+
+        assertThat(scans(StatementLog.statements().get(0), 21)).containsExactly("Index Scan using " + ACTIVE_INDEX);
+    }
+
+    @Test
+    void keysetPageKeepsThePartialIndexOncePrepared() {
+        // past the driver's prepareThreshold of 5 the listing runs as a server-side prepared statement
+        for (int i = 0; i < 6; i++) {
+            StatementLog.clear();
+            inventoryService.scrollProducts(1, null, 20, false);
+        }
+        String sql = StatementLog.statements().get(0);
+
+        // a generic plan is what the server settles on for a prepared statement it no longer replans
+        String plan = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET plan_cache_mode = force_generic_plan");
+                statement.execute("PREPARE keyset_page AS " + numberPlaceholders(sql));
+                try (ResultSet rs = statement.executeQuery("EXPLAIN (FORMAT JSON) EXECUTE keyset_page(21)")) {
+                    StringBuilder json = new StringBuilder();
+                    while (rs.next()) {
+                        json.append(rs.getString(1));
+                    }
+                    return json.toString();
+                } finally {
+                    statement.execute("DEALLOCATE keyset_page");
+                    statement.execute("RESET plan_cache_mode");
+                }
+            }
+        });
+
+        assertThat(scansOf(plan)).containsExactly("Index Scan using " + ACTIVE_INDEX);
+    }
+
+    /** JDBC {@code ?} placeholders as the {@code $1, $2...} that PREPARE expects. */
+    private static String numberPlaceholders(String sql) {
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    /** Scan nodes of the plan, as "node type using index" or "node type on table". */
+    private List<String> scans(String sql, Object... args) {
+        return scansOf(String.join("", jdbcTemplate.queryForList("EXPLAIN (FORMAT JSON) " + sql, String.class, args)));
+    }
+
+    private List<String> scansOf(String plan) {
+        List<String> scans = new ArrayList<>();
+        try {
+            collectScans(objectMapper.readTree(plan).get(0).get("Plan"), scans);
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable plan: " + plan, e);
+        }
+        return scans;
+    }
+
+    private static void collectScans(JsonNode node, List<String> scans) {
+        String type = node.get("Node Type").asText();
+        if (node.has("Index Name")) {
+            scans.add(type + " using " + node.get("Index Name").asText());
+        } else if (type.endsWith("Scan")) {
+            scans.add(type + " on " + node.get("Relation Name").asText());
+        }
+        if (node.has("Plans")) {
+            node.get("Plans").forEach(child -> collectScans(child, scans));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.ferrisys.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ferrisys.common.entity.business.Client;
+import com.ferrisys.common.entity.business.Purchase;
+import com.ferrisys.common.entity.business.PurchaseDetail;
+import com.ferrisys.common.entity.inventory.Category;
+import com.ferrisys.common.entity.inventory.Product;
+import com.ferrisys.support.PostgresIntegrationTest;
+import com.ferrisys.support.TestCatalog;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Rows per second persisting products, clients and purchase lines through JPA with the configured
+ * JDBC batching against the same session held to one statement per row. Entities are persisted in
+ * chunks of {@value #CHUNK} with a flush and clear in between, as a bulk write would. Run with
+ * {@code mvn test -Pbenchmarks}.
+ */
+@Slf4j
+@Tag("benchmark")
+class BatchInsertBenchmarkTest extends PostgresIntegrationTest {
+
+    private static final int ROWS = 20_000;
+    private static final int WARMUP = 2_000;
+    private static final int CHUNK = 1_000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestCatalog catalog;
+
+    private Category category;
+    private Product product;
+    private Purchase purchase;
+    private String clientPrefix;
+
+    @BeforeEach
+    void setUp() {
+        category = catalog.category("Batch benchmark");
+        product = catalog.product(category, "Batch benchmark");
+        purchase = new TransactionTemplate(transactionManager).execute(status -> {
+            Purchase saved = Purchase.builder().provider(catalog.provider("Batch benchmark")).status(1).build();
+            entityManager.persist(saved);
+            return saved;
+        });
+        clientPrefix = "Batch benchmark " + System.nanoTime() + " ";
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM bus_purchase_detail WHERE purchase_id = ?", purchase.getId());
+        jdbcTemplate.update("DELETE FROM bus_purchase WHERE id = ?", purchase.getId());
+        jdbcTemplate.update("DELETE FROM inv_product WHERE category_id = ?", category.getId());
+        jdbcTemplate.update("DELETE FROM bus_client WHERE name LIKE ?", clientPrefix + "%");
+    }
+
+    @Test
+    void batchedInsertsOutrunOneStatementPerRow() {
+        assertFaster("products", i -> Product.builder()
+                .name("Producto " + i)
+                .category(entityManager.getReference(Category.class, category.getId()))
+                .status(1)
+                .build());
+        assertFaster("clients", i -> Client.builder()
+                .name(clientPrefix + i)
+                .email("cliente" + i + "@example.com")
+                .status(1)
+                .build());
+        assertFaster("purchase lines", i -> PurchaseDetail.builder()
+                .purchase(entityManager.getReference(Purchase.class, purchase.getId()))
+                .product(entityManager.getReference(Product.class, product.getId()))
+                .quantity(i % 10 + 1)
+                .unitPrice(BigDecimal.valueOf(i % 500 + 1, 2))
+                .build());
+    }
+
+    private void assertFaster(String kind, IntFunction<Object> entity) {
+        persist(entity, WARMUP, 1);
+        persist(entity, WARMUP, null);
+        long unbatched = persist(entity, ROWS, 1);
+        long batched = persist(entity, ROWS, null);
+        log.info("Inserting {}: {} rows/s one per statement, {} rows/s batched", kind, unbatched, batched);
+
+        assertThat(batched).as("batched rows/s for %s", kind).isGreaterThan(unbatched * 3 / 2);
+    }
+
+    /** Rows per second; {@code batchSize} overrides the configured JDBC batch size when set. */
+    private long persist(IntFunction<Object> entity, int rows, Integer batchSize) {
+        long started = System.nanoTime();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            for (int i = 0; i < rows; i++) {
+                entityManager.persist(entity.apply(i));
+                if ((i + 1) % CHUNK == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        });
+        return rows * TimeUnit.SECONDS.toNanos(1) / (System.nanoTime() - started);
+    }
+}
@@ -0,0 +1,113 @@
+package com.ferrisys.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ferrisys.common.dto.CategoryDTO;
+import com.ferrisys.common.exception.impl.BadRequestException;
+import com.ferrisys.common.exception.impl.NotFoundException;
+import com.ferrisys.service.InventoryService;
+import com.ferrisys.support.PostgresIntegrationTest;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class CategoryTreeRepositoryTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String prefix;
+
+    @BeforeEach
+    void setUp() {
+        prefix = "Tree " + System.nanoTime() + " ";
+    }
+
+    @Test
+    void unknownParentIsNotFoundAndNothingIsSaved() {
+        assertThatThrownBy(() -> save(null, "orphan", UUID.randomUUID()))
+                .isInstanceOf(NotFoundException.class);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM inv_category WHERE name = ?", Integer.class,
+                prefix + "orphan")).isZero();
+    }
+
+    @Test
+    void categoryCannotMoveUnderItsOwnDescendant() {
+        UUID a = save(null, "a", null);
+        UUID b = save(null, "b", a);
+        UUID c = save(null, "c", b);
+
+        assertThatThrownBy(() -> save(a, "a", c)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> save(a, "a", a)).isInstanceOf(BadRequestException.class);
+
+        assertThat(parentOf(a)).isNull();
+        assertThat(pathOf(c)).isEqualTo("/" + a + "/" + b + "/" + c + "/");
+    }
+
+    @Test
+    void movingACategoryMovesItsSubtree() {
+        UUID a = save(null, "a", null);
+        UUID b = save(null, "b", a);
+        UUID c = save(null, "c", b);
+        UUID d = save(null, "d", null);
+
+        save(b, "b", d);
+
+        assertThat(pathOf(b)).isEqualTo("/" + d + "/" + b + "/");
+        assertThat(pathOf(c)).isEqualTo("/" + d + "/" + b + "/" + c + "/");
+        assertThat(pathOf(a)).isEqualTo("/" + a + "/");
+    }
+
+    @Test
+    void migrationBreaksParentCycles() throws IOException {
+        // x -> y -> x with z hanging off the cycle, as rows written before V105 could be
+        UUID x = insert("x", null);
+        UUID y = insert("y", x);
+        UUID z = insert("z", y);
+        jdbcTemplate.update("UPDATE inv_category SET parent_category_id = ? WHERE id = ?", y, x);
+        jdbcTemplate.update("UPDATE inv_category SET path = '' WHERE id IN (?, ?, ?)", x, y, z);
+
+        jdbcTemplate.execute(new ClassPathResource("db/migration/V105__category_path.sql")
+                .getContentAsString(StandardCharsets.UTF_8));
+
+        List<UUID> roots = jdbcTemplate.queryForList(
+                "SELECT id FROM inv_category WHERE id IN (?, ?) AND parent_category_id IS NULL", UUID.class, x, y);
+        assertThat(roots).hasSize(1);
+        UUID root = roots.get(0);
+        UUID child = root.equals(x) ? y : x;
+        assertThat(pathOf(root)).isEqualTo("/" + root + "/");
+        assertThat(pathOf(child)).isEqualTo("/" + root + "/" + child + "/");
+        assertThat(pathOf(z)).isEqualTo(pathOf(y) + z + "/");
+    }
+
+    private UUID save(UUID id, String name, UUID parentId) {
+        inventoryService.saveOrUpdateCategory(new CategoryDTO(id, prefix + name, null, parentId, 1));
+        return jdbcTemplate.queryForObject("SELECT id FROM inv_category WHERE name = ?", UUID.class, prefix + name);
+    }
+
+    private UUID insert(String name, UUID parentId) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO inv_category (id, name, parent_category_id, status) VALUES (?, ?, ?, 1)",
+                id, prefix + name, parentId);
+        return id;
+    }
+
+    private UUID parentOf(UUID id) {
+        return jdbcTemplate.queryForObject("SELECT parent_category_id FROM inv_category WHERE id = ?", UUID.class, id);
+    }
+
+    private String pathOf(UUID id) {
+        return jdbcTemplate.queryForObject("SELECT path FROM inv_category WHERE id = ?", String.class, id);
+    }
+}
@@ -0,0 +1,113 @@
+package com.ferrisys.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ferrisys.common.dto.ProductDTO;
+import com.ferrisys.repository.ProductSearchRepository.Query;
+import com.ferrisys.support.PostgresIntegrationTest;
+import com.ferrisys.support.TestCatalog;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * A million hardware-store products, then the kinds of searches the catalog screen sends: a
+ * common word, two words, a filtered search, typos and a reference code. Each must answer under
+ * 50 ms at p99. Run with {@code mvn test -Pbenchmarks}.
+ */
+@Slf4j
+@Tag("benchmark")
+class ProductSearchBenchmarkTest extends PostgresIntegrationTest {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int CATEGORIES = 10;
+    private static final int RUNS = 100;
+
+    @Autowired
+    private ProductSearchRepository productSearchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestCatalog catalog;
+
+    private UUID[] categories;
+
+    @BeforeEach
+    void setUp() {
+        categories = new UUID[CATEGORIES];
+        for (int i = 0; i < CATEGORIES; i++) {
+            categories[i] = catalog.category("Search benchmark").getId();
+        }
+        long started = System.nanoTime();
+        jdbcTemplate.update("""
+                INSERT INTO inv_product (id, name, description, category_id, status)
+                SELECT gen_random_uuid(),
+                       (ARRAY['Tornillo','Tuerca','Arandela','Bisagra','Candado','Cerradura','Clavo','Taladro',
+                              'Martillo','Alicate','Destornillador','Llave','Broca','Lija','Pintura','Brocha',
+                              'Rodillo','Cinta','Pegamento','Silicona','Manguera','Grifo','Valvula','Tubo',
+                              'Codo','Cable','Enchufe','Interruptor','Foco','Escalera','Carretilla','Pala',
+                              'Rastrillo','Serrucho','Nivel','Metro','Guante','Casco','Gafas','Mascarilla'])[g % 40 + 1]
+                       || ' ' || (ARRAY['acero','inoxidable','galvanizado','bronce','cobre','aluminio','hierro',
+                              'plastico','pvc','madera','latón','niquelado','cromado','negro','blanco','rojo',
+                              'industrial'])[g % 17 + 1]
+                       || ' ' || (g % 97 + 1) || 'mm REF-' || g,
+                       'Uso ' || (ARRAY['domestico','profesional','exterior','interior','marino','electrico',
+                              'sanitario','automotriz','jardin','obra','taller','cocina','baño'])[g % 13 + 1]
+                       || ', marca ' || (ARRAY['Truper','Stanley','Bosch','Makita','Pretul','Urrea','Surtek',
+                              'Dewalt','Black','Tramontina','Foset'])[g % 11 + 1],
+                       (?::uuid[])[abs(hashint4(g)) % ? + 1], CASE WHEN hashint4(g + 1) % 10 = 0 THEN 0 ELSE 1 END
+                FROM generate_series(1, ?) g""",
+                categories, CATEGORIES, PRODUCTS);
+        jdbcTemplate.execute("VACUUM ANALYZE inv_product");
+        log.info("Seeded {} products in {} ms", PRODUCTS, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM inv_product WHERE category_id = ANY (?::uuid[])", (Object) categories);
+    }
+
+    @Test
+    void searchesOverAMillionProductsStayUnderFiftyMillis() {
+        assertFast(new Query("tornillo", null, null, null, 20));
+        assertFast(new Query("tornillo inoxidable", 1, null, null, 20));
+        assertFast(new Query("candado bronce", 1, categories[3], null, 20));
+
+        assertThat(assertFast(new Query("destornilador", null, null, null, 20)))
+                .first().extracting(ProductDTO::getName).asString().startsWith("Destornillador");
+        assertThat(assertFast(new Query("tornilo inoxidabel", 1, null, null, 20)))
+                .first().extracting(ProductDTO::getName).asString().startsWith("Tornillo inoxidable");
+        assertThat(assertFast(new Query("REF-123457", null, null, null, 20)))
+                .first().extracting(ProductDTO::getName).asString().endsWith("REF-123457");
+    }
+
+    private List<ProductDTO> assertFast(Query query) {
+        List<ProductDTO> found = productSearchRepository.search(query);
+        for (int i = 0; i < 10; i++) {
+            productSearchRepository.search(query);
+        }
+        long[] nanos = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long started = System.nanoTime();
+            productSearchRepository.search(query);
+            nanos[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(nanos);
+        long p99 = TimeUnit.NANOSECONDS.toMillis(nanos[RUNS * 99 / 100]);
+        log.info("Search '{}': p50 {} ms, p99 {} ms, {} results", query.text(),
+                TimeUnit.NANOSECONDS.toMillis(nanos[RUNS / 2]), p99, found.size());
+        assertThat(found).isNotEmpty();
+        assertThat(p99).as("p99 search latency in ms for '%s'", query.text()).isLessThan(50);
+        return found;
+    }
+}
@@ -0,0 +1,80 @@
+package com.ferrisys.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ferrisys.common.dto.ProductDTO;
+import com.ferrisys.common.entity.inventory.Category;
+import com.ferrisys.common.entity.inventory.Product;
+import com.ferrisys.repository.ProductSearchRepository.Query;
+import com.ferrisys.support.PostgresIntegrationTest;
+import com.ferrisys.support.TestCatalog;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class ProductSearchRepositoryTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private ProductSearchRepository productSearchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestCatalog catalog;
+
+    private Category category;
+    private String word;
+
+    @BeforeEach
+    void setUp() {
+        category = catalog.category("Search");
+        // letters only, so it enters the name vocabulary, and unique per test
+        StringBuilder letters = new StringBuilder("zafiro");
+        ThreadLocalRandom.current().ints(6, 'a', 'z' + 1).forEach(c -> letters.append((char) c));
+        word = letters.toString();
+    }
+
+    @Test
+    void typoInAWordIsCorrectedFromTheNameVocabulary() {
+        Product grifo = product("Grifo " + word);
+
+        assertThat(search(typo(word), 10)).extracting(ProductDTO::getId).containsExactly(grifo.getId());
+        assertThat(search("grifp " + typo(word), 10)).extracting(ProductDTO::getId).containsExactly(grifo.getId());
+    }
+
+    @Test
+    void fullTextMatchesComeBeforeCorrectedOnes() {
+        Product corrected = product("Grifo " + word);
+        Product described = product("Llave de paso");
+        jdbcTemplate.update("UPDATE inv_product SET description = ? WHERE id = ?", "Compatible con " + typo(word),
+                described.getId());
+
+        assertThat(search(typo(word), 10)).extracting(ProductDTO::getId)
+                .containsExactly(described.getId(), corrected.getId());
+    }
+
+    @Test
+    void enoughFullTextMatchesSkipTheCorrection() {
+        product("Grifo " + word);
+        product("Llave " + word);
+        product("Grifo " + word + "x");
+
+        assertThat(search(word, 2)).extracting(ProductDTO::getName).allMatch(name -> name.split(" ")[1].equals(word));
+    }
+
+    private List<ProductDTO> search(String text, int limit) {
+        return productSearchRepository.search(new Query(text, 1, category.getId(), null, limit));
+    }
+
+    private Product product(String name) {
+        return catalog.product(category, name);
+    }
+
+    private static String typo(String word) {
+        return word.substring(0, word.length() - 1) + (word.endsWith("q") ? "w" : "q");
+    }
+}
@@ -0,0 +1,108 @@
+package com.ferrisys.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ferrisys.common.dto.AuthResponse;
+import com.ferrisys.common.enums.DefaultRole;
+import com.ferrisys.common.enums.DefaultUserStatus;
+import com.ferrisys.config.security.AuthenticatedUser;
+import com.ferrisys.config.security.CustomUserDetailsService;
+import com.ferrisys.config.security.PasswordHashingService;
+import com.ferrisys.support.PostgresIntegrationTest;
+import com.ferrisys.support.StatementLog;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Pins the statements behind authentication: the user, role and modules come from one query on
+ * login and on principal load, and a repeated menu request is served from the caches.
+ */
+@AutoConfigureMockMvc
+class AuthStatementCountTest extends PostgresIntegrationTest {
+
+    private static final String PASSWORD = "statement-count-password";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Autowired
+    private FeatureFlagService featureFlagService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private String username;
+
+    @BeforeEach
+    void setUp() {
+        username = "counted" + System.nanoTime();
+        UUID userId = UUID.randomUUID();
+        UUID retiredRoleId = UUID.randomUUID();
+        jdbcTemplate.update("""
+                INSERT INTO auth_user (id, username, password, email, full_name, status_id)
+                VALUES (?, ?, ?, ?, 'Counted User', ?)""",
+                userId, username, passwordHashingService.encode(PASSWORD), username + "@example.com",
+                DefaultUserStatus.ACTIVE.getId());
+        jdbcTemplate.update("INSERT INTO auth_role (id, name, description, status) VALUES (?, ?, 'Retired', 1)",
+                retiredRoleId, "RETIRED_" + username);
+        // an inactive assignment next to the active one must be ignored
+        jdbcTemplate.update("""
+                INSERT INTO auth_user_role (id, auth_user_id, auth_role_id, status)
+                VALUES (gen_random_uuid(), ?, ?, 0), (gen_random_uuid(), ?, ?, 1)""",
+                userId, retiredRoleId, userId, DefaultRole.ADMIN.getId());
+        // load the license snapshot so it does not count against the first menu
+        featureFlagService.enabled(userId, "inventory");
+    }
+
+    @Test
+    void loginIsOneStatement() {
+        StatementLog.clear();
+        AuthResponse response = userService.authenticate(username, PASSWORD);
+
+        assertThat(StatementLog.statements()).hasSize(1);
+        assertThat(response.getRole()).isEqualToIgnoringCase("ADMIN");
+    }
+
+    @Test
+    void principalLoadIsOneStatement() {
+        StatementLog.clear();
+        AuthenticatedUser principal = customUserDetailsService.loadUserByUsername(username);
+
+        assertThat(StatementLog.statements()).hasSize(1);
+        assertThat(principal.getAuthorities()).map(GrantedAuthority::getAuthority).contains("ROLE_ADMIN");
+    }
+
+    @Test
+    void repeatedModuleMenuIsServedFromTheCaches() throws Exception {
+        String bearer = "Bearer " + userService.authenticate(username, PASSWORD).getToken();
+
+        // principal load, then the snapshot the menu is built from
+        StatementLog.clear();
+        mockMvc.perform(get("/v1/auth/modules").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+        assertThat(StatementLog.statements()).hasSize(2);
+
+        StatementLog.clear();
+        mockMvc.perform(get("/v1/auth/modules").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk());
+        assertThat(StatementLog.statements()).isEmpty();
+    }
+}
@@ -0,0 +1,109 @@
+package com.ferrisys.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ferrisys.common.dto.PageResponse;
+import com.ferrisys.common.dto.PurchaseDTO;
+import com.ferrisys.common.dto.PurchaseDetailDTO;
+import com.ferrisys.common.dto.QuoteDTO;
+import com.ferrisys.common.dto.QuoteDetailDTO;
+import com.ferrisys.common.entity.inventory.Category;
+import com.ferrisys.service.business.PurchaseService;
+import com.ferrisys.service.business.QuoteService;
+import com.ferrisys.support.PostgresIntegrationTest;
+import com.ferrisys.support.StatementLog;
+import com.ferrisys.support.TestCatalog;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * A list page costs the same statements whatever its size: the page, its count and, for
+ * documents, one query for the lines of the whole page.
+ */
+class ListStatementCountTest extends PostgresIntegrationTest {
+
+    private static final int ROWS = 30;
+    private static final int LINES = 3;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private QuoteService quoteService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        Category category = catalog.category("Listing");
+        List<UUID> products = new ArrayList<>();
+        for (int i = 0; i < LINES; i++) {
+            products.add(catalog.product(category, "Listed product " + i).getId());
+        }
+        for (int i = 0; i < ROWS; i++) {
+            catalog.product(category, "Listed product");
+        }
+
+        String providerId = catalog.provider("Listing").getId().toString();
+        String clientId = catalog.client("Listing").getId().toString();
+        for (int i = 0; i < ROWS; i++) {
+            purchaseService.saveOrUpdate(new PurchaseDTO(null, providerId, "Listed purchase", LocalDate.now(), BigDecimal.TEN, 1,
+                    products.stream().map(id -> new PurchaseDetailDTO(id.toString(), 1, BigDecimal.ONE)).toList()));
+            quoteService.saveOrUpdate(new QuoteDTO(null, clientId, "Listed quote", LocalDate.now(), BigDecimal.TEN, 1,
+                    products.stream().map(id -> new QuoteDetailDTO(id.toString(), 1, BigDecimal.ONE)).toList()));
+        }
+    }
+
+    @Test
+    void productPageIsTwoStatements() {
+        assertStatementsPerPage(2, size -> inventoryService.listProducts(1, 0, size));
+    }
+
+    @Test
+    void purchasePageIsThreeStatements() {
+        assertStatementsPerPage(3, size -> purchaseService.list(1, 0, size));
+        assertThat(purchaseService.list(1, 0, 5).content()).allSatisfy(purchase -> assertThat(purchase.details())
+                .hasSize(storedLines("bus_purchase_detail", "purchase_id", purchase.id())));
+    }
+
+    @Test
+    void quotePageIsThreeStatements() {
+        assertStatementsPerPage(3, size -> quoteService.list(1, 0, size));
+        assertThat(quoteService.list(1, 0, 5).content()).allSatisfy(quote -> assertThat(quote.details())
+                .hasSize(storedLines("bus_quote_detail", "quote_id", quote.id())));
+    }
+
+    private int storedLines(String table, String parentColumn, String parentId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table + " WHERE " + parentColumn + " = ?",
+                Integer.class, UUID.fromString(parentId));
+    }
+
+    private static void assertStatementsPerPage(int expected, PageLoader loader) {
+        for (int size : new int[] {5, 25}) {
+            StatementLog.clear();
+            PageResponse<?> page = loader.load(size);
+
+            assertThat(page.content()).hasSize(size);
+            assertThat(StatementLog.statements()).as("statements for a page of %d", size).hasSize(expected);
+        }
+    }
+
+    @FunctionalInterface
+    private interface PageLoader {
+        PageResponse<?> load(int size);
+    }
+}
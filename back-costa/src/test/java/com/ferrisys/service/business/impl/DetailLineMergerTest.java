@@ -0,0 +1,127 @@
+package com.ferrisys.service.business.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ferrisys.common.dto.PurchaseDTO;
+import com.ferrisys.common.dto.PurchaseDetailDTO;
+import com.ferrisys.common.entity.inventory.Category;
+import com.ferrisys.common.exception.impl.NotFoundException;
+import com.ferrisys.service.business.PurchaseService;
+import com.ferrisys.service.business.impl.DetailLineMerger.DetailTable;
+import com.ferrisys.service.business.impl.DetailLineMerger.Line;
+import com.ferrisys.support.PostgresIntegrationTest;
+import com.ferrisys.support.StatementLog;
+import com.ferrisys.support.TestCatalog;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/** Pins the statements a purchase save costs: fixed, whatever the number of lines. */
+class DetailLineMergerTest extends PostgresIntegrationTest {
+
+    private static final int MANY_LINES = 200;
+
+    @Autowired
+    private DetailLineMerger detailLineMerger;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestCatalog catalog;
+
+    private String providerId;
+    private List<UUID> products;
+
+    @BeforeEach
+    void setUp() {
+        providerId = catalog.provider("Lines").getId().toString();
+        Category category = catalog.category("Lines");
+        products = new ArrayList<>();
+        for (int i = 0; i < MANY_LINES; i++) {
+            products.add(catalog.product(category, "Line product " + i).getId());
+        }
+    }
+
+    @Test
+    void savingAPurchaseCostsTheSameForFewOrManyLines() {
+        StatementLog.clear();
+        save("few", lines(products.subList(0, 10), 1));
+        List<String> few = StatementLog.statements();
+
+        StatementLog.clear();
+        save("many", lines(products, 1));
+        List<String> many = StatementLog.statements();
+
+        assertThat(many).hasSameSizeAs(few);
+        assertThat(storedLines(purchaseId("many"))).hasSize(MANY_LINES);
+    }
+
+    @Test
+    void mergeWritesEachKindOfChangeAsOneStatement() {
+        save("merge", lines(products.subList(0, 100), 1));
+        UUID purchaseId = purchaseId("merge");
+
+        // lines 0-79 kept, 80-89 changed, 90-99 removed, 100-109 added
+        List<Line> incoming = new ArrayList<>();
+        products.subList(0, 80).forEach(productId -> incoming.add(new Line(productId, 1, BigDecimal.TEN)));
+        products.subList(80, 90).forEach(productId -> incoming.add(new Line(productId, 5, BigDecimal.TEN)));
+        products.subList(100, 110).forEach(productId -> incoming.add(new Line(productId, 2, BigDecimal.TEN)));
+
+        StatementLog.clear();
+        detailLineMerger.merge(DetailTable.PURCHASE, purchaseId, incoming);
+
+        // stored lines, product check, delete, update batch, insert batch
+        assertThat(StatementLog.statements()).hasSize(5);
+        assertThat(storedLines(purchaseId)).isEqualTo(incoming.stream()
+                .collect(Collectors.toMap(Line::productId, Line::quantity)));
+
+        StatementLog.clear();
+        detailLineMerger.merge(DetailTable.PURCHASE, purchaseId, incoming);
+
+        assertThat(StatementLog.statements()).hasSize(2);
+    }
+
+    @Test
+    void unknownProductIsNotFound() {
+        List<Line> incoming = List.of(new Line(UUID.randomUUID(), 1, BigDecimal.ONE));
+
+        assertThatThrownBy(() -> detailLineMerger.merge(DetailTable.PURCHASE, UUID.randomUUID(), incoming))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    private void save(String description, List<PurchaseDetailDTO> details) {
+        purchaseService.saveOrUpdate(new PurchaseDTO(null, providerId, description + " " + providerId, LocalDate.now(),
+                BigDecimal.ZERO, 1, details));
+    }
+
+    private UUID purchaseId(String description) {
+        return jdbcTemplate.queryForObject("SELECT id FROM bus_purchase WHERE description = ?", UUID.class,
+                description + " " + providerId);
+    }
+
+    private Map<UUID, Integer> storedLines(UUID purchaseId) {
+        return jdbcTemplate.query("SELECT product_id, quantity FROM bus_purchase_detail WHERE purchase_id = ?",
+                        (rs, rowNum) -> Map.entry(rs.getObject("product_id", UUID.class), rs.getInt("quantity")), purchaseId)
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    private static List<PurchaseDetailDTO> lines(List<UUID> productIds, int quantity) {
+        return productIds.stream()
+                .map(productId -> new PurchaseDetailDTO(productId.toString(), quantity, BigDecimal.TEN))
+                .toList();
+    }
+}
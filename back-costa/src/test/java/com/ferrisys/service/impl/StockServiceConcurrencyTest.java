@@ -0,0 +1,149 @@
+package com.ferrisys.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ferrisys.common.dto.StockAdjustmentDTO;
+import com.ferrisys.common.dto.StockBalanceDTO;
+import com.ferrisys.common.enums.StockMovementType;
+import com.ferrisys.repository.StockLedgerRepository;
+import com.ferrisys.repository.StockLedgerRepository.Key;
+import com.ferrisys.service.StockService;
+import com.ferrisys.support.PostgresIntegrationTest;
+import com.ferrisys.support.TestCatalog;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Hammers one product from many threads with document saves, adjustments and repairs, then checks
+ * that the sharded balance still equals the ledger and that nothing was booked twice.
+ */
+class StockServiceConcurrencyTest extends PostgresIntegrationTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 40;
+    private static final int SOURCES = 4;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private StockLedgerRepository stockLedgerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestCatalog catalog;
+
+    private ExecutorService executor;
+    private UUID productId;
+    private List<UUID> sources;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(THREADS);
+        productId = catalog.product(catalog.category("Stock"), "Hot product").getId();
+        sources = new ArrayList<>();
+        for (int i = 0; i < SOURCES; i++) {
+            sources.add(UUID.randomUUID());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentBookingsKeepShardsEqualToLedger() throws Exception {
+        AtomicLong adjusted = new AtomicLong();
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int round = 0; round < ROUNDS; round++) {
+                if (random.nextBoolean()) {
+                    int quantity = random.nextInt(1, 20) * (random.nextBoolean() ? 1 : -1);
+                    stockService.adjust(new StockAdjustmentDTO(productId, null, quantity, "stress"));
+                    adjusted.addAndGet(quantity);
+                } else {
+                    UUID source = sources.get(random.nextInt(SOURCES));
+                    stockService.syncSource(StockMovementType.PURCHASE, source, Map.of(productId, (long) random.nextInt(0, 50)));
+                }
+            }
+            return null;
+        });
+
+        // every thread re-saves each document with the same lines: only one of them may book the difference
+        runConcurrently(() -> {
+            for (int i = 0; i < SOURCES; i++) {
+                stockService.syncSource(StockMovementType.PURCHASE, sources.get(i), Map.of(productId, 10L * (i + 1)));
+            }
+            return null;
+        });
+
+        long booked = 0;
+        for (int i = 0; i < SOURCES; i++) {
+            Map<Key, Long> net = stockLedgerRepository.netBySource(StockMovementType.PURCHASE, sources.get(i));
+            assertThat(net).containsExactly(Map.entry(new Key(productId, StockService.DEFAULT_WAREHOUSE_ID), 10L * (i + 1)));
+            booked += 10L * (i + 1);
+        }
+
+        long ledger = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(quantity), 0) FROM inv_stock_movement WHERE product_id = ?", Long.class, productId);
+        long shards = stockService.getBalances(productId).stream().mapToLong(StockBalanceDTO::quantity).sum();
+
+        assertThat(ledger).isEqualTo(booked + adjusted.get());
+        assertThat(shards).isEqualTo(ledger);
+        assertThat(stockService.reconcile(productId, false)).isEmpty();
+    }
+
+    @Test
+    void concurrentRepairsBookTheCorrectionOnce() throws Exception {
+        stockService.adjust(new StockAdjustmentDTO(productId, null, 25, "stock"));
+        // a balance that drifted from the ledger
+        jdbcTemplate.update("UPDATE inv_stock_balance SET quantity = quantity + 7 WHERE product_id = ? AND shard = ("
+                + "SELECT min(shard) FROM inv_stock_balance WHERE product_id = ?)", productId, productId);
+
+        AtomicLong repairs = new AtomicLong();
+        runConcurrently(() -> {
+            if (!stockService.reconcile(productId, true).isEmpty()) {
+                repairs.incrementAndGet();
+            }
+            return null;
+        });
+
+        long shards = stockService.getBalances(productId).stream().mapToLong(StockBalanceDTO::quantity).sum();
+        assertThat(repairs.get()).isEqualTo(1);
+        assertThat(shards).isEqualTo(25);
+        assertThat(stockService.reconcile(productId, false)).isEmpty();
+    }
+
+    private void runConcurrently(Callable<Void> task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.call();
+            }));
+        }
+        start.countDown();
+        for (Future<Void> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.ferrisys.service.importer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ferrisys.common.enums.DefaultRole;
+import com.ferrisys.common.enums.DefaultUserStatus;
+import com.ferrisys.config.security.PasswordHashingService;
+import com.ferrisys.repository.RoleRepository;
+import com.ferrisys.service.importer.ImportJob.RowError;
+import com.ferrisys.service.importer.ImportJob.Status;
+import com.ferrisys.support.PostgresIntegrationTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class UserImportServiceTest extends PostgresIntegrationTest {
+
+    private static final String HEADER = "username,email,fullName,password,status,roles";
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String prefix;
+
+    @BeforeEach
+    void setUp() {
+        prefix = "imported" + System.nanoTime() + "_";
+    }
+
+    @Test
+    void everyRowIsReportedAsCreatedOrFailed() throws InterruptedException {
+        insertUser(prefix + "taken");
+        String csv = String.join("\n", HEADER,
+                row("new", "ADMIN"),
+                row("taken", "ADMIN"),
+                row("new", "ADMIN"),
+                prefix + "mail,not-an-email,Mail,secret,1,ADMIN",
+                row("role", "NO_SUCH_ROLE"));
+
+        ImportJob.View job = await(userImportService, userImportService.submit(csv(csv), null).id());
+
+        assertThat(job.status()).isEqualTo(Status.COMPLETED);
+        assertThat(job.processed()).isEqualTo(5);
+        assertThat(job.created()).isEqualTo(1);
+        assertThat(job.errors()).extracting(RowError::line, RowError::message).containsExactlyInAnyOrder(
+                tuple(3L, "Username already exists"),
+                tuple(4L, "Duplicate username in file"),
+                tuple(5L, "email is invalid"),
+                tuple(6L, "Unknown role: NO_SUCH_ROLE"));
+        assertThat(roleLinks(prefix + "new")).isEqualTo(1);
+    }
+
+    @Test
+    void usernameTakenAfterTheCheckIsReportedOnItsRow() throws InterruptedException {
+        // another writer creates the user while the chunk's passwords are being hashed
+        PasswordHashingService racingHasher = new PasswordHashingService(4, 1, 16, new SimpleMeterRegistry()) {
+            @Override
+            public List<String> encodeAll(List<String> rawPasswords) {
+                insertUser(prefix + "raced");
+                return super.encodeAll(rawPasswords);
+            }
+        };
+        UserImportService service = new UserImportService(jdbcTemplate, transactionManager, roleRepository,
+                racingHasher, objectMapper, 500, 1);
+        try {
+            String csv = String.join("\n", HEADER, row("raced", "ADMIN"), row("other", "ADMIN"));
+
+            ImportJob.View job = await(service, service.submit(csv(csv), null).id());
+
+            assertThat(job.status()).isEqualTo(Status.COMPLETED);
+            assertThat(job.created()).isEqualTo(1);
+            assertThat(job.errors()).containsExactly(new RowError(2, prefix + "raced", "Username already exists"));
+            assertThat(roleLinks(prefix + "other")).isEqualTo(1);
+            assertThat(roleLinks(prefix + "raced")).isZero();
+        } finally {
+            service.shutdown();
+            racingHasher.shutdown();
+        }
+    }
+
+    private String row(String name, String roles) {
+        return prefix + name + "," + prefix + name + "@example.com," + name + ",secret,1," + roles;
+    }
+
+    private void insertUser(String username) {
+        jdbcTemplate.update("""
+                INSERT INTO auth_user (id, username, password, email, full_name, status_id)
+                VALUES (?, ?, 'x', ?, 'Existing', ?)""",
+                UUID.randomUUID(), username, username + "@example.com", DefaultUserStatus.ACTIVE.getId());
+    }
+
+    private int roleLinks(String username) {
+        return jdbcTemplate.queryForObject("""
+                SELECT count(*) FROM auth_user_role ur JOIN auth_user u ON u.id = ur.auth_user_id
+                WHERE u.username = ? AND ur.auth_role_id = ?""", Integer.class, username, DefaultRole.ADMIN.getId());
+    }
+
+    private static MockMultipartFile csv(String content) {
+        return new MockMultipartFile("file", "users.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ImportJob.View await(UserImportService service, UUID jobId) throws InterruptedException {
+        for (int i = 0; i < 300; i++) {
+            ImportJob.View job = service.get(jobId);
+            if (job.finishedAt() != null) {
+                return job;
+            }
+            Thread.sleep(100);
+        }
+        throw new IllegalStateException("Import " + jobId + " did not finish");
+    }
+}
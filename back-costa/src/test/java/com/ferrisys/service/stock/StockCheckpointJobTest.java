@@ -0,0 +1,113 @@
+package com.ferrisys.service.stock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ferrisys.repository.StockKardexRepository;
+import com.ferrisys.service.StockService;
+import com.ferrisys.support.PostgresIntegrationTest;
+import com.ferrisys.support.TestCatalog;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Movements are stamped before they commit, so one can land in a month that is already closed.
+ * The next run must pick it up for the last closed month, and a repair for any older one.
+ */
+class StockCheckpointJobTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private StockCheckpointJob stockCheckpointJob;
+
+    @Autowired
+    private StockKardexRepository stockKardexRepository;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestCatalog catalog;
+
+    private UUID productId;
+    private LocalDateTime now;
+    private LocalDateTime lastClosed;
+
+    @BeforeEach
+    void setUp() {
+        productId = catalog.product(catalog.category("Kardex"), "Checkpointed product").getId();
+        now = LocalDateTime.now();
+        // the month the job closes last, past its grace period
+        lastClosed = LocalDate.from(now.minusHours(1)).withDayOfMonth(1).atStartOfDay();
+    }
+
+    @Test
+    void lateMovementInTheLastClosedMonthIsPickedUpByTheNextRun() {
+        move(10, lastClosed.minusMonths(2).plusDays(3));
+        move(5, lastClosed.minusMonths(1).plusDays(3));
+        stockCheckpointJob.closePendingMonths(now);
+        assertThat(checkpoint(lastClosed)).isEqualTo(15);
+
+        move(3, lastClosed.minusMonths(1).plusDays(1));
+        stockCheckpointJob.closePendingMonths(now);
+
+        assertThat(checkpoint(lastClosed)).isEqualTo(18);
+        assertThat(opening(lastClosed.plusDays(1))).isEqualTo(18);
+    }
+
+    @Test
+    void repairRewritesCheckpointsAfterALateMovementInAnOlderMonth() {
+        // each month closed by the run that followed it
+        move(10, lastClosed.minusMonths(3).plusDays(3));
+        close(lastClosed.minusMonths(2));
+        move(5, lastClosed.minusMonths(2).plusDays(3));
+        close(lastClosed.minusMonths(1));
+        move(1, lastClosed.minusMonths(1).plusDays(3));
+        close(lastClosed);
+
+        move(4, lastClosed.minusMonths(3).plusDays(1));
+        stockCheckpointJob.closePendingMonths(now);
+        assertThat(checkpoint(lastClosed)).isEqualTo(16);
+
+        assertThat(stockService.reconcile(productId, true)).isEmpty();
+
+        assertThat(checkpoint(lastClosed.minusMonths(2))).isEqualTo(14);
+        assertThat(checkpoint(lastClosed.minusMonths(1))).isEqualTo(19);
+        assertThat(checkpoint(lastClosed)).isEqualTo(20);
+        assertThat(opening(lastClosed.minusMonths(1).plusDays(5))).isEqualTo(20);
+    }
+
+    /** Books a movement dated {@code at}, with its balance, as a transaction stamped then would. */
+    private void move(int quantity, LocalDateTime at) {
+        jdbcTemplate.update("""
+                INSERT INTO inv_stock_movement (id, product_id, warehouse_id, quantity, movement_type, created_at)
+                VALUES (gen_random_uuid(), ?, ?, ?, 'ADJUSTMENT', ?)""",
+                productId, StockService.DEFAULT_WAREHOUSE_ID, quantity, Timestamp.valueOf(at));
+        jdbcTemplate.update("""
+                INSERT INTO inv_stock_balance (product_id, warehouse_id, shard, quantity)
+                VALUES (?, ?, 0, ?)
+                ON CONFLICT (product_id, warehouse_id, shard) DO UPDATE SET quantity = inv_stock_balance.quantity + EXCLUDED.quantity""",
+                productId, StockService.DEFAULT_WAREHOUSE_ID, quantity);
+    }
+
+    private void close(LocalDateTime at) {
+        stockKardexRepository.closePeriod(at.minusMonths(1), at);
+    }
+
+    private long checkpoint(LocalDateTime at) {
+        return jdbcTemplate.queryForObject(
+                "SELECT quantity FROM inv_stock_checkpoint WHERE product_id = ? AND warehouse_id = ? AND checkpoint_at = ?",
+                Long.class, productId, StockService.DEFAULT_WAREHOUSE_ID, Timestamp.valueOf(at));
+    }
+
+    private long opening(LocalDateTime from) {
+        return stockService.openKardex(productId, null, from, null).opening();
+    }
+}
@@ -0,0 +1,146 @@
+package com.ferrisys.service.stock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ferrisys.repository.StockKardexRepository;
+import com.ferrisys.service.StockService;
+import com.ferrisys.service.StockService.KardexRange;
+import com.ferrisys.support.PostgresIntegrationTest;
+import com.ferrisys.support.TestCatalog;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Two million movements over two years: closes every month, checks the checkpoints against the
+ * full ledger, repairs them after late movements and times kardex openings at the end of the
+ * history. Run with {@code mvn test -Pbenchmarks}.
+ */
+@Slf4j
+@Tag("benchmark")
+class StockKardexBenchmarkTest extends PostgresIntegrationTest {
+
+    private static final int PRODUCTS = 1_000;
+    private static final int MOVEMENTS_PER_PRODUCT = 2_000;
+    private static final int MONTHS = 24;
+    private static final LocalDateTime START = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    @Autowired
+    private StockKardexRepository stockKardexRepository;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TestCatalog catalog;
+
+    private UUID categoryId;
+    private List<UUID> products;
+
+    @BeforeEach
+    void setUp() {
+        categoryId = catalog.category("Kardex benchmark").getId();
+        jdbcTemplate.update("""
+                INSERT INTO inv_product (id, name, category_id, status)
+                SELECT gen_random_uuid(), 'Kardex benchmark ' || g, ?, 1
+                FROM generate_series(1, ?) g""", categoryId, PRODUCTS);
+        products = jdbcTemplate.queryForList("SELECT id FROM inv_product WHERE category_id = ?", UUID.class, categoryId);
+
+        long started = System.nanoTime();
+        // spread evenly over the two years, a third of them issues
+        jdbcTemplate.update("""
+                INSERT INTO inv_stock_movement (id, product_id, warehouse_id, quantity, movement_type, created_at)
+                SELECT gen_random_uuid(), p.id, ?,
+                       CASE WHEN g % 3 = 0 THEN -(g % 7 + 1) ELSE g % 11 + 1 END, 'ADJUSTMENT',
+                       CAST(? AS timestamp) + (g * 31500 + p.n) * INTERVAL '1 second'
+                FROM (SELECT id, row_number() OVER () AS n FROM inv_product WHERE category_id = ?) p
+                CROSS JOIN generate_series(0, ? - 1) g""",
+                StockService.DEFAULT_WAREHOUSE_ID, Timestamp.valueOf(START), categoryId, MOVEMENTS_PER_PRODUCT);
+        jdbcTemplate.execute("ANALYZE inv_stock_movement");
+        log.info("Seeded {} movements in {} ms", PRODUCTS * MOVEMENTS_PER_PRODUCT, millisSince(started));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM inv_stock_checkpoint WHERE product_id IN (SELECT id FROM inv_product WHERE category_id = ?)",
+                categoryId);
+        jdbcTemplate.update("DELETE FROM inv_stock_movement WHERE product_id IN (SELECT id FROM inv_product WHERE category_id = ?)",
+                categoryId);
+        jdbcTemplate.update("DELETE FROM inv_product WHERE category_id = ?", categoryId);
+    }
+
+    @Test
+    void checkpointsHoldOverMillionsOfMovements() {
+        long started = System.nanoTime();
+        for (int month = 1; month <= MONTHS; month++) {
+            stockKardexRepository.closePeriod(START.plusMonths(month - 1), START.plusMonths(month));
+        }
+        log.info("Closed {} months in {} ms", MONTHS, millisSince(started));
+        assertThat(staleCheckpoints()).isZero();
+
+        // a late movement per product into the third month, after the whole history was closed
+        jdbcTemplate.update("""
+                INSERT INTO inv_stock_movement (id, product_id, warehouse_id, quantity, movement_type, created_at)
+                SELECT gen_random_uuid(), id, ?, 1, 'ADJUSTMENT', ?
+                FROM inv_product WHERE category_id = ?""",
+                StockService.DEFAULT_WAREHOUSE_ID, Timestamp.valueOf(START.plusMonths(2).plusDays(1)), categoryId);
+        started = System.nanoTime();
+        int repaired = stockKardexRepository.repairCheckpoints(null);
+        log.info("Repaired {} checkpoints in {} ms", repaired, millisSince(started));
+        assertThat(repaired).isEqualTo(PRODUCTS * (MONTHS - 2));
+        assertThat(staleCheckpoints()).isZero();
+
+        // the opening of the last month starts from its checkpoint instead of two years of history
+        LocalDateTime lastMonth = START.plusMonths(MONTHS - 1);
+        long[] nanos = new long[500];
+        for (int i = 0; i < nanos.length; i++) {
+            UUID productId = products.get(i % products.size());
+            long opened = System.nanoTime();
+            KardexRange range = stockService.openKardex(productId, null, lastMonth, null);
+            AtomicLong rows = new AtomicLong();
+            stockService.streamKardex(range, entry -> rows.incrementAndGet());
+            nanos[i] = System.nanoTime() - opened;
+            assertThat(range.opening()).isEqualTo(fullBalanceBefore(productId, lastMonth));
+        }
+        Arrays.sort(nanos);
+        long p99 = TimeUnit.NANOSECONDS.toMillis(nanos[nanos.length * 99 / 100]);
+        log.info("Last-month kardex p50 {} ms, p99 {} ms", TimeUnit.NANOSECONDS.toMillis(nanos[nanos.length / 2]), p99);
+        assertThat(p99).as("p99 last-month kardex in ms").isLessThan(50);
+    }
+
+    /** Checkpoints of the seeded products that differ from a plain sum of everything before them. */
+    private int staleCheckpoints() {
+        return jdbcTemplate.queryForObject("""
+                SELECT count(*)
+                FROM inv_stock_checkpoint c
+                JOIN inv_product p ON p.id = c.product_id AND p.category_id = ?
+                WHERE c.quantity <> (
+                    SELECT SUM(m.quantity) FROM inv_stock_movement m
+                    WHERE m.product_id = c.product_id AND m.warehouse_id = c.warehouse_id AND m.created_at < c.checkpoint_at)""",
+                Integer.class, categoryId);
+    }
+
+    private long fullBalanceBefore(UUID productId, LocalDateTime at) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(quantity), 0) FROM inv_stock_movement WHERE product_id = ? AND created_at < ?",
+                Long.class, productId, Timestamp.valueOf(at));
+    }
+
+    private static long millisSince(long started) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+}
@@ -0,0 +1,144 @@
+package com.ferrisys.service.typeahead;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ferrisys.service.typeahead.TypeaheadIndex.Entry;
+import com.ferrisys.service.typeahead.TypeaheadService.Partition;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+class TypeaheadPartitionTest {
+
+    private final Partition partition = new Partition();
+
+    @Test
+    void replaceDropsTheOverlayItsSnapshotCovers() {
+        Entry bolt = entry("Steel bolt");
+        partition.put(bolt);
+        Map<UUID, Entry> covered = partition.overlay();
+
+        partition.replace(TypeaheadIndex.build(List.of(bolt)), covered);
+
+        assertThat(partition.overlaySize()).isZero();
+        assertThat(labels(partition.search("bolt", 10))).containsExactly("Steel bolt");
+    }
+
+    @Test
+    void replaceKeepsChangesRecordedAfterItsSnapshot() {
+        Entry bolt = entry("Steel bolt");
+        partition.put(bolt);
+        Map<UUID, Entry> covered = partition.overlay();
+        Entry renamed = new Entry(bolt.id(), "Brass bolt", null);
+        partition.put(renamed);
+        partition.put(entry("Steel nut"));
+
+        partition.replace(TypeaheadIndex.build(List.of(bolt)), covered);
+
+        assertThat(partition.overlaySize()).isEqualTo(2);
+        assertThat(labels(partition.search("bolt", 10))).containsExactly("Brass bolt");
+        assertThat(labels(partition.search("steel", 10))).containsExactly("Steel nut");
+    }
+
+    @Test
+    void removalRepeatedAfterTheSnapshotSurvivesIt() {
+        Entry bolt = entry("Steel bolt");
+        partition.remove(bolt.id());
+        Map<UUID, Entry> covered = partition.overlay();
+        // re-enabled, read by the rebuild, then disabled again before the rebuild swaps in
+        partition.put(bolt);
+        partition.remove(bolt.id());
+
+        partition.replace(TypeaheadIndex.build(List.of(bolt)), covered);
+
+        assertThat(partition.search("bolt", 10)).isEmpty();
+    }
+
+    @Test
+    void compactionKeepsTheLatestChangeOfEveryRow() throws Exception {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        int versions = 2000;
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = threads.submit(() -> {
+                start.await();
+                for (int version = 0; version < versions; version++) {
+                    for (UUID id : ids) {
+                        partition.put(new Entry(id, "Item v" + version, null));
+                    }
+                }
+                writing.set(false);
+                return null;
+            });
+            Future<?> compactor = threads.submit(() -> {
+                start.await();
+                while (writing.get()) {
+                    partition.compact();
+                }
+                return null;
+            });
+            start.countDown();
+            writer.get(1, TimeUnit.MINUTES);
+            compactor.get(1, TimeUnit.MINUTES);
+        } finally {
+            threads.shutdownNow();
+        }
+        partition.compact();
+
+        assertThat(labels(partition.search("item", ids.size() * 2)))
+                .hasSize(ids.size())
+                .containsOnly("Item v" + (versions - 1));
+    }
+
+    @Test
+    void searchOverALargePartitionStaysFast() {
+        String[] words = {"steel", "brass", "bolt", "nut", "washer", "screw", "hinge", "pipe", "valve", "cable"};
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            entries.add(new Entry(UUID.randomUUID(),
+                    words[i % 10] + " " + words[(i / 10) % 10] + " " + Integer.toString(i, 36), null));
+        }
+        partition.replace(TypeaheadIndex.build(entries), Map.of());
+        for (int i = 0; i < 500; i++) {
+            partition.put(new Entry(UUID.randomUUID(), "Steel overlay " + i, null));
+        }
+        String[] prefixes = {"st", "bra", "bolt", "w", "scr", "hin", "pi", "val", "ca", "1a"};
+        for (int i = 0; i < 2_000; i++) {
+            partition.search(prefixes[i % prefixes.length], 20);
+        }
+
+        long[] nanos = new long[2_000];
+        for (int i = 0; i < nanos.length; i++) {
+            long started = System.nanoTime();
+            partition.search(prefixes[i % prefixes.length], 20);
+            nanos[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(nanos);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(nanos[nanos.length * 99 / 100]))
+                .as("p99 search latency in ms")
+                .isLessThan(10);
+    }
+
+    private static Entry entry(String label) {
+        return new Entry(UUID.randomUUID(), label, null);
+    }
+
+    private static List<String> labels(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::label).toList();
+    }
+}
@@ -0,0 +1,64 @@
+package com.ferrisys.support;
+
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Boots the application against a real PostgreSQL migrated by Flyway. The database is a
+ * Testcontainers container shared by every test class; set {@code TEST_DATASOURCE_URL} (plus
+ * {@code TEST_DATASOURCE_USERNAME} and {@code TEST_DATASOURCE_PASSWORD}) to use an existing one
+ * instead. Without Docker or that variable the tests are skipped.
+ */
+@SpringBootTest(properties = {
+        "jwt.secret=integration-test-secret-with-at-least-32-chars",
+        "spring.jpa.show-sql=false",
+        "rate-limit.enabled=false"
+})
+@Import({TestCatalog.class, StatementLog.class})
+@ExtendWith(PostgresIntegrationTest.DatabaseAvailable.class)
+public abstract class PostgresIntegrationTest {
+
+    private static final String EXTERNAL_URL = System.getenv("TEST_DATASOURCE_URL");
+
+    private static PostgreSQLContainer<?> container;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        if (EXTERNAL_URL != null) {
+            registry.add("spring.datasource.url", () -> EXTERNAL_URL);
+            registry.add("spring.datasource.username", () -> System.getenv().getOrDefault("TEST_DATASOURCE_USERNAME", "postgres"));
+            registry.add("spring.datasource.password", () -> System.getenv().getOrDefault("TEST_DATASOURCE_PASSWORD", ""));
+            return;
+        }
+        registry.add("spring.datasource.url", () -> container().getJdbcUrl());
+        registry.add("spring.datasource.username", () -> container().getUsername());
+        registry.add("spring.datasource.password", () -> container().getPassword());
+    }
+
+    /** Decided before the test instance, and so the application context, is created. */
+    static class DatabaseAvailable implements ExecutionCondition {
+
+        @Override
+        public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+            return EXTERNAL_URL != null || DockerClientFactory.instance().isDockerAvailable()
+                    ? ConditionEvaluationResult.enabled("PostgreSQL available")
+                    : ConditionEvaluationResult.disabled("Needs Docker or TEST_DATASOURCE_URL");
+        }
+    }
+
+    private static synchronized PostgreSQLContainer<?> container() {
+        if (container == null) {
+            container = new PostgreSQLContainer<>("postgres:16-alpine");
+            container.start();
+        }
+        return container;
+    }
+}
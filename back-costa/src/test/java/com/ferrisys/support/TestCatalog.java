@@ -0,0 +1,47 @@
+package com.ferrisys.support;
+
+import com.ferrisys.common.entity.business.Client;
+import com.ferrisys.common.entity.business.Provider;
+import com.ferrisys.common.entity.inventory.Category;
+import com.ferrisys.common.entity.inventory.Product;
+import com.ferrisys.repository.CategoryRepository;
+import com.ferrisys.repository.ClientRepository;
+import com.ferrisys.repository.ProductRepository;
+import com.ferrisys.repository.ProviderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.test.context.TestComponent;
+
+/** Creates catalog rows for integration tests; names are unique so tests can share a database. */
+@TestComponent
+@RequiredArgsConstructor
+public class TestCatalog {
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final ProviderRepository providerRepository;
+    private final ClientRepository clientRepository;
+
+    public Category category(String name) {
+        return categoryRepository.save(Category.builder().name(unique(name)).status(1).build());
+    }
+
+    public Product product(Category category, String name) {
+        return product(category, name, 1);
+    }
+
+    public Product product(Category category, String name, int status) {
+        return productRepository.save(Product.builder().name(unique(name)).category(category).status(status).build());
+    }
+
+    public Provider provider(String name) {
+        return providerRepository.save(Provider.builder().name(unique(name)).status(1).build());
+    }
+
+    public Client client(String name) {
+        return clientRepository.save(Client.builder().name(unique(name)).status(1).build());
+    }
+
+    private static String unique(String name) {
+        return name + " " + System.nanoTime();
+    }
+}
@@ -35,6 +35,24 @@ export interface RoleModulesDto {
   moduleIds: string[];
 }
 
+export interface CursorPage<T> {
+  content: T[];
+  nextCursor: string | null;
+  totalElements: number | null;
+  size: number;
+}
+
+export interface UserListQuery {
+  status?: number;
+  roleId?: string;
+  q?: string;
+  sort?: 'username' | 'email' | 'createdAt';
+  direction?: 'asc' | 'desc';
+  cursor?: string;
+  size?: number;
+  includeTotal?: boolean;
+}
+
 export interface UserRoleAssignment {
   userId: string;
   roleId: string;
@@ -44,10 +62,23 @@ export interface ModuleLicenseDTO {
   id?: string;
   tenantId: string;
   moduleId: string;
+  moduleName?: string;
   enabled: boolean;
   expiresAt?: string | null;
 }
 
+export interface BulkModuleLicenseRequest {
+  tenantIds: string[];
+  moduleIds: string[];
+  enabled: boolean;
+  expiresAt?: string | null;
+}
+
+export interface BulkModuleLicenseResult {
+  inserted: number;
+  updated: number;
+}
+
 export interface PermissionMatrixCell {
   roleId: string;
   moduleId: string;
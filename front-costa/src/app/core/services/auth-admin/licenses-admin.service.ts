@@ -1,8 +1,13 @@
 import { Injectable, inject } from '@angular/core';
-import { Observable } from 'rxjs';
+import { Observable, map } from 'rxjs';
 
 import { ApiService } from '../api.service';
-import { ModuleLicenseDTO } from '../../models/auth-admin.models';
+import {
+  BulkModuleLicenseRequest,
+  BulkModuleLicenseResult,
+  CursorPage,
+  ModuleLicenseDTO,
+} from '../../models/auth-admin.models';
 
 @Injectable({ providedIn: 'root' })
 export class LicensesAdminService {
@@ -10,7 +15,30 @@ export class LicensesAdminService {
   private readonly base = '/v1/auth/admin/module-licenses';
 
   list(): Observable<ModuleLicenseDTO[]> {
-    return this.api.get<ModuleLicenseDTO[]>(this.base);
+    return this.page().pipe(map((page) => page.content));
+  }
+
+  page(tenantId?: string, cursor?: string, size = 500): Observable<CursorPage<ModuleLicenseDTO>> {
+    const params: Record<string, string | number> = { size };
+    if (tenantId) {
+      params['tenantId'] = tenantId;
+    }
+    if (cursor) {
+      params['cursor'] = cursor;
+    }
+    return this.api.get<CursorPage<ModuleLicenseDTO>>(this.base, { params });
+  }
+
+  expiring(to: string, cursor?: string, size = 100): Observable<CursorPage<ModuleLicenseDTO>> {
+    const params: Record<string, string | number> = { to, size };
+    if (cursor) {
+      params['cursor'] = cursor;
+    }
+    return this.api.get<CursorPage<ModuleLicenseDTO>>(`${this.base}/expiring`, { params });
+  }
+
+  bulkUpsert(payload: BulkModuleLicenseRequest): Observable<BulkModuleLicenseResult> {
+    return this.api.put<BulkModuleLicenseResult>(`${this.base}/bulk`, payload);
   }
 
   create(payload: ModuleLicenseDTO): Observable<ModuleLicenseDTO> {
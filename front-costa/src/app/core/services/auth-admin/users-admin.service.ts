@@ -1,8 +1,8 @@
 import { Injectable, inject } from '@angular/core';
-import { Observable } from 'rxjs';
+import { Observable, map } from 'rxjs';
 
 import { ApiService } from '../api.service';
-import { AuthUserSummary, UserRoleAssignment } from '../../models/auth-admin.models';
+import { AuthUserSummary, CursorPage, UserListQuery, UserRoleAssignment } from '../../models/auth-admin.models';
 
 @Injectable({ providedIn: 'root' })
 export class UsersAdminService {
@@ -10,7 +10,17 @@ export class UsersAdminService {
   private readonly base = '/v1/auth/admin/users';
 
   list(): Observable<AuthUserSummary[]> {
-    return this.api.get<AuthUserSummary[]>(this.base);
+    return this.page({ size: 200, includeTotal: false }).pipe(map((page) => page.content));
+  }
+
+  page(query: UserListQuery = {}): Observable<CursorPage<AuthUserSummary>> {
+    const params: Record<string, string | number | boolean> = {};
+    Object.entries(query).forEach(([key, value]) => {
+      if (value !== undefined && value !== null && value !== '') {
+        params[key] = value;
+      }
+    });
+    return this.api.get<CursorPage<AuthUserSummary>>(this.base, { params });
   }
 
   get(id: string): Observable<AuthUserSummary> {